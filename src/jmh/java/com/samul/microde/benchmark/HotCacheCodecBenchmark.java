@@ -0,0 +1,90 @@
+package com.samul.microde.benchmark;
+
+import com.samul.microde.cache.HotCacheRedisSerializer;
+import com.samul.microde.model.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户快照编解码基准测试：现有 JSON（GenericJackson2JsonRedisSerializer）对比二进制（HotCacheCodec）
+ * 编码后的字节数在 Setup 时打印，对应 Redis 内存与网络流量
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="HotCacheCodecBenchmark"
+ *
+ * @author Samul_Alen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class HotCacheCodecBenchmark {
+
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+
+    private HotCacheRedisSerializer binarySerializer;
+
+    private User user;
+
+    private byte[] jsonBytes;
+
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() {
+        jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        binarySerializer = new HotCacheRedisSerializer(jsonSerializer, true);
+
+        user = new User();
+        user.setId(123456L);
+        user.setUsername("艾伦");
+        user.setUserAccount("samul_alen");
+        user.setAvatarUrl("https://example.com/avatar/123456.png");
+        user.setGender(1);
+        user.setUserPassword("pbkdf2$210000$c2FsdHNhbHRzYWx0$aGFzaGhhc2hoYXNoaGFzaGhhc2hoYXNo");
+        user.setEmail("samul@example.com");
+        user.setTags("[\"Java\",\"Spring Boot\",\"Redis\",\"MySQL\",\"后端\"]");
+        user.setUserStatus(0);
+        user.setCreateTime(new Date(1_700_000_000_000L));
+        user.setUpdateTime(new Date(1_700_000_100_000L));
+        user.setIsDelete(0);
+        user.setUserRole(0);
+        user.setPlanetCode("1024");
+
+        jsonBytes = jsonSerializer.serialize(user);
+        binaryBytes = binarySerializer.serialize(user);
+        System.out.printf("%n编码大小: json=%d 字节, binary=%d 字节%n", jsonBytes.length, binaryBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binarySerializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return jsonSerializer.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        return binarySerializer.deserialize(binaryBytes);
+    }
+}
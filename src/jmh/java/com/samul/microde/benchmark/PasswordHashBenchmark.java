@@ -0,0 +1,67 @@
+package com.samul.microde.benchmark;
+
+import com.samul.microde.utils.Pbkdf2PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.DigestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希基准测试，用于在目标机器上选择 password.iterations
+ * 选择单次 verify 在 50~100ms 之间的迭代次数，再结合 password.executor-threads 估算登录吞吐量
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="PasswordHashBenchmark"
+ *
+ * @author Samul_Alen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "12345678abc";
+
+    @Param({"100000", "210000", "310000", "600000"})
+    private int iterations;
+
+    private Pbkdf2PasswordHasher hasher;
+
+    private String encoded;
+
+    private String legacyEncoded;
+
+    @Setup
+    public void setup() {
+        hasher = new Pbkdf2PasswordHasher(iterations, 16, 256);
+        encoded = hasher.encode(PASSWORD);
+        // 旧版 MD5("yupi" + 密码)，作为对照
+        legacyEncoded = DigestUtils.md5DigestAsHex(("yupi" + PASSWORD).getBytes());
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.matches(PASSWORD, encoded);
+    }
+
+    @Benchmark
+    public String encode() {
+        return hasher.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyLegacyMd5() {
+        return hasher.matches(PASSWORD, legacyEncoded);
+    }
+}
@@ -0,0 +1,95 @@
+package com.samul.microde.benchmark;
+
+import com.samul.microde.model.domain.User;
+import com.samul.microde.utils.PrecomputeRanker;
+import com.samul.microde.utils.TagScoreUtils;
+import com.samul.microde.utils.UserTagProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 全量扫描基准测试，随用户规模线性增长：
+ * 1. 预计算内层循环：一个用户与全部用户打分并取前 200（全量预计算要对每个用户执行一次），
+ *    分别基于 User 列表和列式投影（*OnProjection）
+ * 2. 按标签搜索用户的内存过滤（searchUserByTags）
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="PrecomputeBenchmark -p population=1000,10000"
+ *
+ * @author Samul_Alen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PrecomputeBenchmark {
+
+    private static final int TOP_USERS_LIMIT = 200;
+
+    private static final List<String> SEARCH_TAGS = Arrays.asList("Java", "后端");
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int population;
+
+    private List<User> users;
+
+    private User self;
+
+    private List<String> selfTags;
+
+    private UserTagProjection projection;
+
+    @Setup
+    public void setup() {
+        users = SyntheticUsers.generate(population);
+        self = users.get(population / 2);
+        selfTags = TagScoreUtils.parseTags(self.getTags());
+        UserTagProjection.Builder builder = UserTagProjection.builder();
+        for (User user : users) {
+            builder.add(user.getId(), TagScoreUtils.parseTags(user.getTags()), user.getUserStatus());
+        }
+        projection = builder.build();
+    }
+
+    @Benchmark
+    public Map<Long, Double> rankBySimilarity() {
+        return PrecomputeRanker.rankBySimilarity(self.getId(), selfTags, users, TOP_USERS_LIMIT);
+    }
+
+    @Benchmark
+    public Map<Long, Double> rankByComplement() {
+        return PrecomputeRanker.rankByComplement(self.getId(), selfTags, users, TOP_USERS_LIMIT);
+    }
+
+    @Benchmark
+    public Map<Long, Double> rankBySimilarityOnProjection() {
+        return PrecomputeRanker.rankBySimilarity(projection, self.getId(), selfTags, TOP_USERS_LIMIT);
+    }
+
+    @Benchmark
+    public Map<Long, Double> rankByComplementOnProjection() {
+        return PrecomputeRanker.rankByComplement(projection, self.getId(), selfTags, TOP_USERS_LIMIT);
+    }
+
+    @Benchmark
+    public List<User> searchByTagsFilter() {
+        return users.stream()
+                .filter(user -> TagScoreUtils.hasAllTags(user.getTags(), SEARCH_TAGS))
+                .collect(Collectors.toList());
+    }
+}
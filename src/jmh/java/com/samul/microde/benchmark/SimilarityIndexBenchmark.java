@@ -0,0 +1,140 @@
+package com.samul.microde.benchmark;
+
+import com.samul.microde.model.domain.User;
+import com.samul.microde.utils.MinHashLshIndex;
+import com.samul.microde.utils.PrecomputeRanker;
+import com.samul.microde.utils.TagScoreUtils;
+import com.samul.microde.utils.UserTagProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 相似度近似索引基准测试：单个用户取相似度前 200，精确全量打分 vs 近似索引取候选后精确打分
+ * 召回率在 Setup 中按抽样用户计算并打印（以 "recall" 开头的行）：
+ * 近似结果中分数不低于精确结果第 200 名分数的用户数 / 精确结果数，同分用户视为等价
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="SimilarityIndexBenchmark -p population=100000 -p shape=16x2,8x2"
+ *
+ * @author Samul_Alen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SimilarityIndexBenchmark {
+
+    private static final int TOP_USERS_LIMIT = 200;
+
+    private static final int SAMPLE_SIZE = 256;
+
+    @Param({"100000", "1000000"})
+    private int population;
+
+    /**
+     * bands x rows
+     */
+    @Param({"16x2", "8x2", "20x3"})
+    private String shape;
+
+    @Param({"5000"})
+    private int maxCandidates;
+
+    private UserTagProjection projection;
+
+    private MinHashLshIndex index;
+
+    private long[] sampleIds;
+
+    private List<String>[] sampleTags;
+
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        List<User> users = SyntheticUsers.generate(population);
+        UserTagProjection.Builder builder = UserTagProjection.builder();
+        for (User user : users) {
+            builder.add(user.getId(), TagScoreUtils.parseTags(user.getTags()), user.getUserStatus());
+        }
+        projection = builder.build();
+
+        String[] parts = shape.split("x");
+        int bands = Integer.parseInt(parts[0]);
+        int rows = Integer.parseInt(parts[1]);
+        long buildStart = System.currentTimeMillis();
+        index = MinHashLshIndex.build(projection, bands, rows, 20240601L);
+        long buildMillis = System.currentTimeMillis() - buildStart;
+
+        Random random = new Random(7);
+        sampleIds = new long[SAMPLE_SIZE];
+        sampleTags = new List[SAMPLE_SIZE];
+        double recallSum = 0;
+        long candidateSum = 0;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            int selfIndex = random.nextInt(projection.size());
+            sampleIds[i] = projection.id(selfIndex);
+            sampleTags[i] = projection.tagsOf(selfIndex);
+            int[] candidates = index.candidates(sampleTags[i], maxCandidates);
+            candidateSum += candidates.length;
+            recallSum += recall(
+                    PrecomputeRanker.rankBySimilarity(projection, sampleIds[i], sampleTags[i], TOP_USERS_LIMIT),
+                    PrecomputeRanker.rankBySimilarity(projection, sampleIds[i], sampleTags[i], candidates, TOP_USERS_LIMIT));
+        }
+        System.out.printf("recall@%d population=%d shape=%s maxCandidates=%d: %.4f, avg candidates %d, "
+                        + "P(s=0.3)=%.3f, P(s=0.5)=%.3f, index %d KB, build %d ms%n",
+                TOP_USERS_LIMIT, population, shape, maxCandidates, recallSum / SAMPLE_SIZE,
+                candidateSum / SAMPLE_SIZE, MinHashLshIndex.candidateProbability(0.3, bands, rows),
+                MinHashLshIndex.candidateProbability(0.5, bands, rows), index.footprintBytes() / 1024, buildMillis);
+    }
+
+    @Benchmark
+    public Map<Long, Double> exactTopN() {
+        int i = nextSample();
+        return PrecomputeRanker.rankBySimilarity(projection, sampleIds[i], sampleTags[i], TOP_USERS_LIMIT);
+    }
+
+    @Benchmark
+    public Map<Long, Double> approximateTopN() {
+        int i = nextSample();
+        int[] candidates = index.candidates(sampleTags[i], maxCandidates);
+        return PrecomputeRanker.rankBySimilarity(projection, sampleIds[i], sampleTags[i], candidates, TOP_USERS_LIMIT);
+    }
+
+    private int nextSample() {
+        next = (next + 1) % SAMPLE_SIZE;
+        return next;
+    }
+
+    private static double recall(Map<Long, Double> exact, Map<Long, Double> approximate) {
+        if (exact.isEmpty()) {
+            return 1.0;
+        }
+        double threshold = Double.MAX_VALUE;
+        for (double score : exact.values()) {
+            threshold = Math.min(threshold, score);
+        }
+        int hits = 0;
+        for (double score : approximate.values()) {
+            if (score >= threshold) {
+                hits++;
+            }
+        }
+        return Math.min(1.0, (double) hits / exact.size());
+    }
+}
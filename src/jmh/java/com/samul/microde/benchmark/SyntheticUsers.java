@@ -0,0 +1,67 @@
+package com.samul.microde.benchmark;
+
+import com.google.gson.Gson;
+import com.samul.microde.enums.TagCategory;
+import com.samul.microde.model.domain.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 基准测试用的合成用户
+ * 标签从 TagCategory 词表中抽取，每个用户的组成接近真实资料：
+ * 1 个技术方向、1~3 门语言、0~2 个框架、0~1 个数据库、1 个工作经验、0~1 个合作状态
+ * 固定随机种子，同样的规模每次生成同样的数据
+ *
+ * @author Samul_Alen
+ */
+final class SyntheticUsers {
+
+    private static final long SEED = 20240601L;
+
+    private static final Gson GSON = new Gson();
+
+    private SyntheticUsers() {
+    }
+
+    /**
+     * 生成用户
+     *
+     * @param count 用户数量
+     * @return id 从 1 开始连续的用户
+     */
+    static List<User> generate(int count) {
+        Random random = new Random(SEED);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setUsername("user" + i);
+            user.setUserStatus(0);
+            user.setTags(GSON.toJson(randomTags(random)));
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static Set<String> randomTags(Random random) {
+        Set<String> tags = new LinkedHashSet<>();
+        pick(random, TagCategory.DIRECTION, 1, tags);
+        pick(random, TagCategory.PROGRAMMING_LANGUAGE, 1 + random.nextInt(3), tags);
+        pick(random, TagCategory.FRAMEWORK, random.nextInt(3), tags);
+        pick(random, TagCategory.DATABASE, random.nextInt(2), tags);
+        pick(random, TagCategory.EXPERIENCE, 1, tags);
+        pick(random, TagCategory.STATUS, random.nextInt(2), tags);
+        return tags;
+    }
+
+    private static void pick(Random random, TagCategory category, int count, Set<String> tags) {
+        List<String> vocabulary = category.getTags();
+        for (int i = 0; i < count; i++) {
+            tags.add(vocabulary.get(random.nextInt(vocabulary.size())));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.samul.microde.benchmark;
+
+import com.samul.microde.model.domain.User;
+import com.samul.microde.utils.TagScoreUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次打分基准测试：标签解析、Jaccard 相似度、技能互补度
+ * 推荐接口对每个候选、预计算对每一对用户都会执行这些操作
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="TagScoringBenchmark"
+ *
+ * @author Samul_Alen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class TagScoringBenchmark {
+
+    /**
+     * 轮流使用的样本数量（2 的幂，取模用位运算）
+     */
+    private static final int SAMPLES = 1024;
+
+    private String[] tagsJson;
+
+    private List<List<String>> parsedTags;
+
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        List<User> users = SyntheticUsers.generate(SAMPLES);
+        tagsJson = new String[SAMPLES];
+        parsedTags = new ArrayList<>(SAMPLES);
+        for (int i = 0; i < SAMPLES; i++) {
+            tagsJson[i] = users.get(i).getTags();
+            parsedTags.add(TagScoreUtils.parseTags(tagsJson[i]));
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public List<String> parseTags() {
+        return TagScoreUtils.parseTags(tagsJson[next()]);
+    }
+
+    @Benchmark
+    public double similarity() {
+        int i = next();
+        return TagScoreUtils.similarity(parsedTags.get(i), parsedTags.get((i + 1) & (SAMPLES - 1)));
+    }
+
+    @Benchmark
+    public double complement() {
+        int i = next();
+        return TagScoreUtils.complement(parsedTags.get(i), parsedTags.get((i + 1) & (SAMPLES - 1)));
+    }
+}
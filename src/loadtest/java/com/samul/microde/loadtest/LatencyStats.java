@@ -0,0 +1,84 @@
+package com.samul.microde.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 单个接口的延迟样本
+ * 每个压测线程持有自己的实例，结束后合并，记录时没有锁竞争
+ *
+ * @author Samul_Alen
+ */
+final class LatencyStats {
+
+    private long[] samples = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    private boolean sorted;
+
+    /**
+     * 记录一次请求
+     *
+     * @param nanos   耗时（纳秒）
+     * @param success 是否成功（HTTP 200 且业务 code 为 0）
+     */
+    void record(long nanos, boolean success) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!success) {
+            errors++;
+        }
+        sorted = false;
+    }
+
+    void merge(LatencyStats other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        sorted = false;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /**
+     * 百分位延迟（最近秩法）
+     *
+     * @param percentile 0 ~ 100
+     * @return 毫秒
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return samples[Math.max(0, Math.min(count - 1, rank - 1))] / 1_000_000.0;
+    }
+
+    double meanMillis() {
+        if (count == 0) {
+            return 0.0;
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        return total / (double) count / 1_000_000.0;
+    }
+}
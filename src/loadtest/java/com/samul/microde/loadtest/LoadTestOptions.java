@@ -0,0 +1,139 @@
+package com.samul.microde.loadtest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 压测参数
+ * 命令行参数格式为 key=value，例如 users=20000 concurrency=32 duration=60 mix=recommend:6,search:3,team:1
+ *
+ * @author Samul_Alen
+ */
+final class LoadTestOptions {
+
+    /**
+     * 种子用户数量
+     */
+    int users = 5000;
+
+    /**
+     * 种子队伍数量，默认为用户数的 1/20
+     */
+    int teams = -1;
+
+    /**
+     * 并发请求线程数
+     */
+    int concurrency = 16;
+
+    /**
+     * 登录的用户数量，请求随机使用其中一个 Session
+     */
+    int sessions = 200;
+
+    /**
+     * 预热时长（秒），期间的请求不计入结果
+     */
+    int warmup = 5;
+
+    /**
+     * 计入结果的压测时长（秒）
+     */
+    int duration = 30;
+
+    /**
+     * 启动时是否执行相似度、互补度预计算（与线上启动行为一致）
+     */
+    boolean precompute = true;
+
+    /**
+     * 数据生成的随机种子，同样的参数每次生成同样的数据
+     */
+    long seed = 20240601L;
+
+    /**
+     * 接口流量配比，接口名 -> 权重
+     */
+    Map<String, Integer> mix = parseMix("recommend:5,search:3,team:2");
+
+    /**
+     * 报告输出目录
+     */
+    String out = "target/loadtest";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            values.put(arg.substring(0, index).trim(), arg.substring(index + 1).trim());
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        options.users = intValue(values.remove("users"), options.users);
+        options.teams = intValue(values.remove("teams"), options.users / 20);
+        options.concurrency = intValue(values.remove("concurrency"), options.concurrency);
+        options.sessions = Math.min(intValue(values.remove("sessions"), options.sessions), options.users);
+        options.warmup = intValue(values.remove("warmup"), options.warmup);
+        options.duration = intValue(values.remove("duration"), options.duration);
+        String precompute = values.remove("precompute");
+        if (precompute != null) {
+            options.precompute = Boolean.parseBoolean(precompute);
+        }
+        String seed = values.remove("seed");
+        if (seed != null) {
+            options.seed = Long.parseLong(seed);
+        }
+        String mix = values.remove("mix");
+        if (mix != null) {
+            options.mix = parseMix(mix);
+        }
+        String out = values.remove("out");
+        if (out != null) {
+            options.out = out;
+        }
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("未知参数: " + values.keySet());
+        }
+        if (options.users <= 0 || options.concurrency <= 0 || options.sessions <= 0 || options.duration <= 0) {
+            throw new IllegalArgumentException("users、concurrency、sessions、duration 必须大于 0");
+        }
+        return options;
+    }
+
+    /**
+     * 报告中展示的参数
+     */
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("users", users);
+        description.put("teams", teams);
+        description.put("concurrency", concurrency);
+        description.put("sessions", sessions);
+        description.put("warmup", warmup + "s");
+        description.put("duration", duration + "s");
+        description.put("precompute", precompute);
+        description.put("seed", seed);
+        description.put("mix", mix);
+        return description;
+    }
+
+    private static int intValue(String value, int defaultValue) {
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("mix 格式应为 接口:权重,接口:权重: " + value);
+            }
+            mix.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+}
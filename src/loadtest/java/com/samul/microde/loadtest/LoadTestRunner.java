@@ -0,0 +1,314 @@
+package com.samul.microde.loadtest;
+
+import com.samul.microde.MicrodeApplication;
+import com.samul.microde.utils.Pbkdf2PasswordHasher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端压测
+ * 用嵌入式 Redis 与 H2（MySQL 模式）代替线上依赖，在同一个 JVM 中启动完整应用，
+ * 批量生成用户和队伍后，以固定并发压测推荐、标签搜索、队伍分页接口，延迟百分位与吞吐量写入报告文件
+ * <p>
+ * 运行：mvn -P loadtest test-compile exec:exec -Dloadtest.args="users=20000 concurrency=32 duration=60"
+ * 参数见 {@link LoadTestOptions}；压测客户端与服务端在同一台机器上争抢 CPU，结果用于版本间对比，不代表线上容量
+ *
+ * @author Samul_Alen
+ */
+@Slf4j
+public final class LoadTestRunner {
+
+    private static final String JDBC_URL =
+            "jdbc:h2:mem:microde;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final String PASSWORD = "loadtest123";
+
+    /**
+     * 与 application-loadtest.yml 中 password 配置一致
+     */
+    private static final int PASSWORD_ITERATIONS = 1000;
+
+    private static final int PASSWORD_SALT_LENGTH = 16;
+
+    private static final int PASSWORD_KEY_LENGTH = 256;
+
+    private static final String SUCCESS_MARKER = "\"code\":0";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        // 每个压测线程保持一条 keep-alive 连接
+        System.setProperty("http.maxConnections", String.valueOf(options.concurrency));
+        int redisPort = freePort();
+        RedisServer redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redisServer.start();
+        ConfigurableApplicationContext context = null;
+        try {
+            List<Long> userIds = seed(options);
+            context = start(options, redisPort);
+            String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+
+            List<String> sessions = login(baseUrl, userIds, options.sessions);
+            log.info("已登录 {} 个用户，开始压测：并发 {}，预热 {}s，压测 {}s",
+                    sessions.size(), options.concurrency, options.warmup, options.duration);
+            Map<String, LatencyStats> results = drive(baseUrl, sessions, options);
+            File report = writeReport(options, results);
+            log.info("压测报告已写入 {}", report.getAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            redisServer.stop();
+        }
+    }
+
+    private static List<Long> seed(LoadTestOptions options) throws Exception {
+        long startTime = System.currentTimeMillis();
+        String encodedPassword = new Pbkdf2PasswordHasher(PASSWORD_ITERATIONS, PASSWORD_SALT_LENGTH, PASSWORD_KEY_LENGTH)
+                .encode(PASSWORD);
+        LoadTestSeeder seeder = new LoadTestSeeder(options.seed);
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "")) {
+            connection.setAutoCommit(false);
+            seeder.createSchema(connection);
+            List<Long> userIds = seeder.seedUsers(connection, options.users, encodedPassword);
+            seeder.seedTeams(connection, options.teams, userIds);
+            connection.commit();
+            log.info("数据生成完成，耗时 {} ms", System.currentTimeMillis() - startTime);
+            return userIds;
+        }
+    }
+
+    /**
+     * 启动应用：启动时的缓存预热、（可选的）预计算与线上一致，在压测开始前完成
+     */
+    private static ConfigurableApplicationContext start(LoadTestOptions options, int redisPort) {
+        long startTime = System.currentTimeMillis();
+        // 以命令行参数传入，优先级高于 application.yml
+        String[] args = {
+                "--spring.datasource.url=" + JDBC_URL,
+                "--spring.redis.host=127.0.0.1",
+                "--spring.redis.port=" + redisPort,
+                "--scheduled.tasks.incremental-precompute-enabled=" + options.precompute
+        };
+        // devtools 的重启在读取配置文件之前就已决定，只能通过系统属性关闭
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MicrodeApplication.class)
+                .profiles("loadtest")
+                .run(args);
+        log.info("应用启动完成，耗时 {} ms", System.currentTimeMillis() - startTime);
+        return context;
+    }
+
+    /**
+     * 登录前 count 个种子用户，返回 Session Cookie
+     */
+    private static List<String> login(String baseUrl, List<Long> userIds, int count) throws IOException {
+        List<String> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String body = "{\"userAccount\":\"" + LoadTestSeeder.account(userIds.get(i)) +
+                    "\",\"userPassword\":\"" + PASSWORD + "\"}";
+            HttpURLConnection connection = open(baseUrl + "/user/login", "POST", null);
+            connection.setRequestProperty("Content-Type", "application/json");
+            write(connection, body);
+            String response = read(connection);
+            String cookie = connection.getHeaderField("Set-Cookie");
+            if (connection.getResponseCode() != 200 || !response.contains(SUCCESS_MARKER) || cookie == null) {
+                throw new IllegalStateException("登录失败: " + response);
+            }
+            sessions.add(cookie.split(";", 2)[0]);
+        }
+        return sessions;
+    }
+
+    private static Map<String, LatencyStats> drive(String baseUrl, List<String> sessions, LoadTestOptions options)
+            throws Exception {
+        List<String> endpoints = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : options.mix.entrySet()) {
+            if (!"recommend".equals(entry.getKey()) && !"search".equals(entry.getKey()) && !"team".equals(entry.getKey())) {
+                throw new IllegalArgumentException("未知接口: " + entry.getKey() + "，可选 recommend、search、team");
+            }
+            for (int i = 0; i < entry.getValue(); i++) {
+                endpoints.add(entry.getKey());
+            }
+        }
+
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmup);
+        long deadline = measureStart + TimeUnit.SECONDS.toNanos(options.duration);
+        ExecutorService executor = Executors.newFixedThreadPool(options.concurrency);
+        List<Future<Map<String, LatencyStats>>> futures = new ArrayList<>(options.concurrency);
+        for (int i = 0; i < options.concurrency; i++) {
+            futures.add(executor.submit(() -> {
+                Map<String, LatencyStats> local = new HashMap<>();
+                Random random = ThreadLocalRandom.current();
+                long now;
+                while ((now = System.nanoTime()) < deadline) {
+                    String endpoint = endpoints.get(random.nextInt(endpoints.size()));
+                    String session = sessions.get(random.nextInt(sessions.size()));
+                    boolean success = call(baseUrl, endpoint, session, random);
+                    long elapsed = System.nanoTime() - now;
+                    if (now >= measureStart) {
+                        local.computeIfAbsent(endpoint, k -> new LatencyStats()).record(elapsed, success);
+                    }
+                }
+                return local;
+            }));
+        }
+
+        Map<String, LatencyStats> results = new LinkedHashMap<>();
+        for (String endpoint : options.mix.keySet()) {
+            results.put(endpoint, new LatencyStats());
+        }
+        for (Future<Map<String, LatencyStats>> future : futures) {
+            for (Map.Entry<String, LatencyStats> entry : future.get().entrySet()) {
+                results.get(entry.getKey()).merge(entry.getValue());
+            }
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    /**
+     * 发起一次请求并读完响应
+     *
+     * @return HTTP 200 且业务 code 为 0
+     */
+    private static boolean call(String baseUrl, String endpoint, String session, Random random) {
+        try {
+            HttpURLConnection connection;
+            if ("recommend".equals(endpoint)) {
+                connection = open(baseUrl + "/user/recommend/smart", "POST", session);
+                connection.setRequestProperty("Content-Type", "application/json");
+                write(connection, "{\"strategy\":\"all\",\"pageNum\":" + (1 + random.nextInt(3)) + ",\"pageSize\":10}");
+            } else if ("search".equals(endpoint)) {
+                StringBuilder url = new StringBuilder(baseUrl).append("/user/search/tags?pageNum=1&pageSize=10");
+                for (String tag : LoadTestSeeder.randomSearchTags(random)) {
+                    url.append("&tagNameList=").append(URLEncoder.encode(tag, "UTF-8"));
+                }
+                connection = open(url.toString(), "GET", session);
+            } else {
+                connection = open(baseUrl + "/team/list/page?pageNum=" + (1 + random.nextInt(5)) + "&pageSize=10",
+                        "GET", session);
+            }
+            String response = read(connection);
+            return connection.getResponseCode() == 200 && response.contains(SUCCESS_MARKER);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static File writeReport(LoadTestOptions options, Map<String, LatencyStats> results) throws IOException {
+        File dir = new File(options.out);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("无法创建报告目录: " + dir.getAbsolutePath());
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(dir, "report-" + timestamp + ".md");
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println("# 压测报告 " + timestamp);
+            writer.println();
+            writer.println("| 参数 | 值 |");
+            writer.println("| --- | --- |");
+            for (Map.Entry<String, Object> entry : options.describe().entrySet()) {
+                writer.println("| " + entry.getKey() + " | " + entry.getValue() + " |");
+            }
+            writer.println("| cpus | " + Runtime.getRuntime().availableProcessors() + " |");
+            writer.println("| java | " + System.getProperty("java.version") + " |");
+            writer.println();
+            writer.println("| 接口 | 请求数 | 失败数 | 吞吐量 (req/s) | 平均 (ms) | p50 (ms) | p90 (ms) | p99 (ms) | p99.9 (ms) | 最大 (ms) |");
+            writer.println("| --- | ---: | ---: | ---: | ---: | ---: | ---: | ---: | ---: | ---: |");
+            LatencyStats total = new LatencyStats();
+            for (Map.Entry<String, LatencyStats> entry : results.entrySet()) {
+                writer.println(row(entry.getKey(), entry.getValue(), options.duration));
+                total.merge(entry.getValue());
+            }
+            writer.println(row("合计", total, options.duration));
+        }
+        return file;
+    }
+
+    private static String row(String name, LatencyStats stats, int durationSeconds) {
+        return String.format("| %s | %d | %d | %.1f | %.2f | %.2f | %.2f | %.2f | %.2f | %.2f |",
+                name, stats.count(), stats.errors(), stats.count() / (double) durationSeconds, stats.meanMillis(),
+                stats.percentileMillis(50), stats.percentileMillis(90), stats.percentileMillis(99),
+                stats.percentileMillis(99.9), stats.percentileMillis(100));
+    }
+
+    private static HttpURLConnection open(String url, String method, String session) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(30000);
+        if (session != null) {
+            connection.setRequestProperty("Cookie", session);
+        }
+        return connection;
+    }
+
+    private static void write(HttpURLConnection connection, String body) throws IOException {
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 读完响应体（包括错误响应），连接才能被 keep-alive 复用
+     */
+    private static String read(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in == null) {
+            return "";
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream stream = in) {
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = stream.read(chunk)) != -1) {
+                buffer.write(chunk, 0, n);
+            }
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.samul.microde.loadtest;
+
+import com.google.gson.Gson;
+import com.samul.microde.enums.TagCategory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测数据生成
+ * 表结构直接执行 db/Project_Init_Table.sql，与线上保持一致；用户与队伍用 JDBC 批量插入
+ * <p>
+ * 标签分布接近真实资料：1 个技术方向、1~3 门语言、0~2 个框架、0~1 个数据库、1 个工作经验、0~1 个合作状态，
+ * 每个分类内靠前的标签（Java、Python、前端、后端等）被选中的概率更高，热门标签的搜索结果更多
+ *
+ * @author Samul_Alen
+ */
+@Slf4j
+final class LoadTestSeeder {
+
+    private static final String SCHEMA_SCRIPT = "db/Project_Init_Table.sql";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final Gson GSON = new Gson();
+
+    private final Random random;
+
+    LoadTestSeeder(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * 建表并导入预置标签
+     * 跳过 SET 语句（H2 不支持 SET NAMES / SET FOREIGN_KEY_CHECKS）和用户、队伍示例数据
+     * （示例数据按 MySQL 的反斜杠转义书写，H2 会原样保存，标签无法解析）
+     */
+    void createSchema(Connection connection) throws IOException, SQLException {
+        int count = 0;
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : readStatements()) {
+                if (sql.regionMatches(true, 0, "SET", 0, 3) || isSampleData(sql)) {
+                    continue;
+                }
+                statement.execute(sql);
+                count++;
+            }
+        }
+        log.info("表结构初始化完成，执行 {} 条语句", count);
+    }
+
+    /**
+     * 批量插入用户，账号为 {@link #account(long)}，密码统一为同一个哈希
+     *
+     * @return 种子用户的 ID 列表
+     */
+    List<Long> seedUsers(Connection connection, int count, String encodedPassword) throws SQLException {
+        long firstId = nextId(connection, "user");
+        long now = System.currentTimeMillis();
+        String sql = "insert into `user` (id, username, userAccount, avatarUrl, gender, userPassword, tags, profile, " +
+                "userStatus, userRole, planetCode, createTime, updateTime, isDelete) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, ?, 0)";
+        List<Long> userIds = new ArrayList<>(count);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                long id = firstId + i;
+                // 注册时间分布在一年内，最近更新时间偏向最近几天，活跃度打分有区分度
+                long createTime = now - (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(365));
+                long updateTime = Math.max(createTime,
+                        now - (long) (Math.pow(random.nextDouble(), 3) * TimeUnit.DAYS.toMillis(60)));
+                statement.setLong(1, id);
+                statement.setString(2, "压测用户" + id);
+                statement.setString(3, account(id));
+                statement.setString(4, "");
+                statement.setInt(5, random.nextInt(2));
+                statement.setString(6, encodedPassword);
+                statement.setString(7, GSON.toJson(randomTags()));
+                statement.setString(8, "");
+                statement.setString(9, String.valueOf(id));
+                statement.setTimestamp(10, new Timestamp(createTime));
+                statement.setTimestamp(11, new Timestamp(updateTime));
+                statement.addBatch();
+                userIds.add(id);
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        log.info("已插入 {} 个用户", count);
+        return userIds;
+    }
+
+    /**
+     * 批量插入队伍，创建人随机，并写入创建人的成员关系
+     * 公开 70%、私有 20%、加密 10%；80% 的队伍在未来 60 天内过期，其余不过期
+     */
+    void seedTeams(Connection connection, int count, List<Long> userIds) throws SQLException {
+        if (count <= 0) {
+            return;
+        }
+        long firstId = nextId(connection, "team");
+        long now = System.currentTimeMillis();
+        String teamSql = "insert into team (id, name, description, maxNum, expireTime, userId, status, password, " +
+                "createTime, updateTime, isDelete) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        String memberSql = "insert into user_team (userId, teamId, joinTime) values (?, ?, ?)";
+        try (PreparedStatement teamStatement = connection.prepareStatement(teamSql);
+             PreparedStatement memberStatement = connection.prepareStatement(memberSql)) {
+            for (int i = 0; i < count; i++) {
+                long id = firstId + i;
+                long userId = userIds.get(random.nextInt(userIds.size()));
+                Timestamp createTime = new Timestamp(now - (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(90)));
+                int roll = random.nextInt(10);
+                int status = roll < 7 ? 0 : (roll < 9 ? 1 : 2);
+                teamStatement.setLong(1, id);
+                teamStatement.setString(2, "压测队伍" + id);
+                teamStatement.setString(3, "寻找" + pickSkewed(TagCategory.DIRECTION.getTags()) + "队友");
+                teamStatement.setInt(4, 3 + random.nextInt(8));
+                teamStatement.setTimestamp(5, random.nextInt(5) == 0 ? null
+                        : new Timestamp(now + TimeUnit.HOURS.toMillis(1 + random.nextInt(24 * 60))));
+                teamStatement.setLong(6, userId);
+                teamStatement.setInt(7, status);
+                teamStatement.setString(8, status == 2 ? "123456" : null);
+                teamStatement.setTimestamp(9, createTime);
+                teamStatement.setTimestamp(10, createTime);
+                teamStatement.addBatch();
+                memberStatement.setLong(1, userId);
+                memberStatement.setLong(2, id);
+                memberStatement.setTimestamp(3, createTime);
+                memberStatement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    teamStatement.executeBatch();
+                    memberStatement.executeBatch();
+                }
+            }
+            teamStatement.executeBatch();
+            memberStatement.executeBatch();
+        }
+        log.info("已插入 {} 个队伍", count);
+    }
+
+    /**
+     * 标签搜索的查询条件：1 个热门语言或技术方向，三分之一的概率再加 1 个
+     */
+    static List<String> randomSearchTags(Random random) {
+        List<String> tags = new ArrayList<>(2);
+        TagCategory first = random.nextBoolean() ? TagCategory.PROGRAMMING_LANGUAGE : TagCategory.DIRECTION;
+        tags.add(pickSkewed(random, first.getTags()));
+        if (random.nextInt(3) == 0) {
+            tags.add(pickSkewed(random, TagCategory.EXPERIENCE.getTags()));
+        }
+        return tags;
+    }
+
+    static String account(long userId) {
+        return "loadtest" + userId;
+    }
+
+    private Set<String> randomTags() {
+        Set<String> tags = new LinkedHashSet<>();
+        pick(TagCategory.DIRECTION, 1, tags);
+        pick(TagCategory.PROGRAMMING_LANGUAGE, 1 + random.nextInt(3), tags);
+        pick(TagCategory.FRAMEWORK, random.nextInt(3), tags);
+        pick(TagCategory.DATABASE, random.nextInt(2), tags);
+        pick(TagCategory.EXPERIENCE, 1, tags);
+        pick(TagCategory.STATUS, random.nextInt(2), tags);
+        return tags;
+    }
+
+    private void pick(TagCategory category, int count, Set<String> tags) {
+        for (int i = 0; i < count; i++) {
+            tags.add(pickSkewed(category.getTags()));
+        }
+    }
+
+    private String pickSkewed(List<String> vocabulary) {
+        return pickSkewed(random, vocabulary);
+    }
+
+    /**
+     * 平方分布抽样：词表中第 k 个标签的概率随 k 递减，靠前的标签约占一半
+     */
+    private static String pickSkewed(Random random, List<String> vocabulary) {
+        double r = random.nextDouble();
+        return vocabulary.get((int) (r * r * vocabulary.size()));
+    }
+
+    private static boolean isSampleData(String sql) {
+        return sql.startsWith("INSERT INTO `user`") || sql.startsWith("INSERT INTO `team`")
+                || sql.startsWith("INSERT INTO `user_team`");
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) + 1 from `" + table + "`")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * 按行尾分号切分脚本，去掉整行注释
+     */
+    private static List<String> readStatements() throws IOException {
+        InputStream in = LoadTestSeeder.class.getClassLoader().getResourceAsStream(SCHEMA_SCRIPT);
+        if (in == null) {
+            throw new IOException("找不到建表脚本: " + SCHEMA_SCRIPT);
+        }
+        List<String> statements = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,42 @@
+package com.samul.microde.annotation;
+
+import com.samul.microde.enums.RateLimitKeyType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 接口限流注解
+ * 标注在 Controller 方法上，由 RateLimitInterceptor 统一拦截执行固定窗口限流
+ * 注解上的 limit / window 只是默认值，运行时可通过 rate-limit.rules 配置或 Redis 覆盖
+ *
+ * @author Samul_Alen
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimited {
+
+    /**
+     * 规则名称，用于配置覆盖和拼接限流Key，为空时使用 类名.方法名
+     */
+    String name() default "";
+
+    /**
+     * 限流维度
+     */
+    RateLimitKeyType key() default RateLimitKeyType.IP;
+
+    /**
+     * 时间窗口内最大请求数
+     */
+    int limit() default 60;
+
+    /**
+     * 时间窗口（秒）
+     */
+    int window() default 60;
+}
@@ -0,0 +1,43 @@
+package com.samul.microde.cache;
+
+import com.samul.microde.constant.RedisCacheConstants;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 缓存命名空间代数
+ * 替代 KEYS 模式匹配删除：Key 中嵌入代数，失效时 INCR 代数，旧 Key 不再被访问，随 TTL 过期，O(1)
+ *
+ * @author Samul_Alen
+ */
+@Component
+public class CacheGenerationRegistry {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 获取命名空间当前代数，嵌入缓存Key即可通过 bumpGeneration 整体失效
+     *
+     * @param namespace 命名空间
+     * @return 当前代数，从未失效过为 0
+     */
+    public long currentGeneration(String namespace) {
+        String generation = stringRedisTemplate.opsForValue().get(RedisCacheConstants.CACHE_GENERATION_KEY_PREFIX + namespace);
+        return NumberUtils.toLong(generation, 0L);
+    }
+
+    /**
+     * 命名空间代数加一，旧代数下的缓存全部作废，随 TTL 自然过期
+     *
+     * @param namespace 命名空间
+     * @return 新代数
+     */
+    public long bumpGeneration(String namespace) {
+        Long generation = stringRedisTemplate.opsForValue().increment(RedisCacheConstants.CACHE_GENERATION_KEY_PREFIX + namespace);
+        return generation == null ? 0L : generation;
+    }
+}
@@ -0,0 +1,105 @@
+package com.samul.microde.cache;
+
+import com.samul.microde.constant.MetricsConstants;
+import com.samul.microde.utils.StageTracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Redis 缓存命中率统计
+ * 每个缓存按 hit / miss / error 计数（{@link MetricsConstants#CACHE_REQUESTS}），
+ * 命中率 = hit / (hit + miss)；error 是读取 Redis 失败后按未命中处理的次数，原来只体现在日志里
+ * 每次调用同时计入当前请求的 StageTracer（批量读取算一次），慢请求日志里可以看到各缓存的读取次数
+ *
+ * @author Samul_Alen
+ */
+@Component
+public class CacheMetrics {
+
+    /**
+     * 用户快照 microde:users:all
+     */
+    public static final String USERS = "users";
+
+    /**
+     * 队伍快照 microde:teams:all
+     */
+    public static final String TEAMS = "teams";
+
+    public static final String PRECOMPUTE_SIMILARITY = "precompute-similarity";
+
+    public static final String PRECOMPUTE_COMPLEMENT = "precompute-complement";
+
+    public static final String PRECOMPUTE_ACTIVITY = "precompute-activity";
+
+    public static final String PRECOMPUTE_TAG_USERS = "precompute-tag-users";
+
+    public static final String RECOMMEND_PREFERENCE = "recommend-preference";
+
+    public static final String CURRENT_USER = "current-user";
+
+    public static final String USER_SEARCH = "user-search";
+
+    public static final String TAG_SEARCH = "tag-search";
+
+    public static final String TAG_SEARCH_COUNT = "tag-search-count";
+
+    private static final String HIT = "hit";
+
+    private static final String MISS = "miss";
+
+    private static final String ERROR = "error";
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public void hit(String cache) {
+        StageTracer.count(cache);
+        increment(cache, HIT, 1);
+    }
+
+    public void miss(String cache) {
+        StageTracer.count(cache);
+        increment(cache, MISS, 1);
+    }
+
+    /**
+     * 按是否命中计数
+     */
+    public void record(String cache, boolean hit) {
+        StageTracer.count(cache);
+        increment(cache, hit ? HIT : MISS, 1);
+    }
+
+    /**
+     * 批量读取的计数（如 HMGET、MGET）
+     */
+    public void record(String cache, long hits, long misses) {
+        StageTracer.count(cache);
+        increment(cache, HIT, hits);
+        increment(cache, MISS, misses);
+    }
+
+    public void error(String cache) {
+        StageTracer.count(cache);
+        increment(cache, ERROR, 1);
+    }
+
+    private void increment(String cache, String result, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        counters.computeIfAbsent(cache + ':' + result, key -> Counter.builder(MetricsConstants.CACHE_REQUESTS)
+                .description("缓存读取次数")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry)).increment(amount);
+    }
+}
@@ -0,0 +1,262 @@
+package com.samul.microde.cache;
+
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.model.domain.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * 热点缓存二进制编解码
+ * 用于用户快照（microde:users:all）与队伍快照（microde:teams:all）中的 User、Team
+ * <p>
+ * 格式：[MAGIC][类型][版本][字段...]，字段按固定顺序写入，不带字段名和类型信息
+ * 1. MAGIC 为 0xC1，UTF-8 中不会出现该字节，因此与 JSON 缓存值不会混淆
+ * 2. 可空字段前有 1 字节存在标记；字符串为 varint 长度 + UTF-8；日期为毫秒数
+ * 3. 字段增删时提升版本号，解码时按版本分支，旧版本数据仍可读取
+ *
+ * @author Samul_Alen
+ */
+public final class HotCacheCodec {
+
+    /**
+     * 二进制缓存值首字节
+     */
+    public static final byte MAGIC = (byte) 0xC1;
+
+    public static final byte TYPE_USER = 1;
+
+    public static final byte TYPE_TEAM = 2;
+
+    public static final byte USER_VERSION = 1;
+
+    public static final byte TEAM_VERSION = 1;
+
+    private HotCacheCodec() {
+    }
+
+    /**
+     * 是否为本编解码器写入的二进制值
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length >= 3 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * 是否支持编码该对象
+     */
+    public static boolean supports(Object value) {
+        return value instanceof User || value instanceof Team;
+    }
+
+    /**
+     * 编码
+     *
+     * @param value User 或 Team
+     * @return 二进制值
+     */
+    public static byte[] encode(Object value) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(buffer);
+        try {
+            if (value instanceof User) {
+                out.writeByte(MAGIC);
+                out.writeByte(TYPE_USER);
+                out.writeByte(USER_VERSION);
+                writeUser(out, (User) value);
+            } else if (value instanceof Team) {
+                out.writeByte(MAGIC);
+                out.writeByte(TYPE_TEAM);
+                out.writeByte(TEAM_VERSION);
+                writeTeam(out, (Team) value);
+            } else {
+                throw new IllegalArgumentException("不支持的缓存类型: " + value.getClass().getName());
+            }
+            out.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 解码
+     *
+     * @param bytes 二进制值（isBinary 为 true）
+     * @return User 或 Team
+     * @throws IOException 数据损坏或版本未知
+     */
+    public static Object decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+        byte type = in.readByte();
+        byte version = in.readByte();
+        if (type == TYPE_USER) {
+            if (version == 1) {
+                return readUserV1(in);
+            }
+        } else if (type == TYPE_TEAM) {
+            if (version == 1) {
+                return readTeamV1(in);
+            }
+        }
+        throw new IOException("未知的缓存类型或版本: type=" + type + ", version=" + version);
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeLong(user.getId());
+        writeString(out, user.getUsername());
+        writeString(out, user.getUserAccount());
+        writeString(out, user.getAvatarUrl());
+        writeInteger(out, user.getGender());
+        writeString(out, user.getUserPassword());
+        writeString(out, user.getPhone());
+        writeString(out, user.getEmail());
+        writeString(out, user.getTags());
+        writeInteger(out, user.getUserStatus());
+        writeDate(out, user.getCreateTime());
+        writeDate(out, user.getUpdateTime());
+        writeInteger(out, user.getIsDelete());
+        writeInteger(out, user.getUserRole());
+        writeString(out, user.getPlanetCode());
+    }
+
+    private static User readUserV1(DataInputStream in) throws IOException {
+        User user = new User();
+        user.setId(in.readLong());
+        user.setUsername(readString(in));
+        user.setUserAccount(readString(in));
+        user.setAvatarUrl(readString(in));
+        user.setGender(readInteger(in));
+        user.setUserPassword(readString(in));
+        user.setPhone(readString(in));
+        user.setEmail(readString(in));
+        user.setTags(readString(in));
+        user.setUserStatus(readInteger(in));
+        user.setCreateTime(readDate(in));
+        user.setUpdateTime(readDate(in));
+        user.setIsDelete(readInteger(in));
+        user.setUserRole(readInteger(in));
+        user.setPlanetCode(readString(in));
+        return user;
+    }
+
+    private static void writeTeam(DataOutputStream out, Team team) throws IOException {
+        writeLong(out, team.getId());
+        writeString(out, team.getName());
+        writeString(out, team.getDescription());
+        writeInteger(out, team.getMaxNum());
+        writeDate(out, team.getExpireTime());
+        writeLong(out, team.getUserId());
+        writeInteger(out, team.getStatus());
+        writeString(out, team.getPassword());
+        writeDate(out, team.getCreateTime());
+        writeDate(out, team.getUpdateTime());
+        writeInteger(out, team.getIsDelete());
+    }
+
+    private static Team readTeamV1(DataInputStream in) throws IOException {
+        Team team = new Team();
+        team.setId(readLong(in));
+        team.setName(readString(in));
+        team.setDescription(readString(in));
+        team.setMaxNum(readInteger(in));
+        team.setExpireTime(readDate(in));
+        team.setUserId(readLong(in));
+        team.setStatus(readInteger(in));
+        team.setPassword(readString(in));
+        team.setCreateTime(readDate(in));
+        team.setUpdateTime(readDate(in));
+        team.setIsDelete(readInteger(in));
+        return team;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        if (in.readByte() == 0) {
+            return null;
+        }
+        int length = readVarInt(in);
+        if (length < 0 || length > in.available()) {
+            throw new IOException("字符串长度不合法: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        // 状态、性别等字段都是很小的整数，zigzag + varint 通常只占 1 字节
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        if (in.readByte() == 0) {
+            return null;
+        }
+        int raw = readVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeLong(value);
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readByte() == 0 ? null : in.readLong();
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        writeLong(out, value == null ? null : value.getTime());
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        Long millis = readLong(in);
+        return millis == null ? null : new Date(millis);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("varint 过长");
+    }
+}
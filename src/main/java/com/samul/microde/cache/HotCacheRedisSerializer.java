@@ -0,0 +1,52 @@
+package com.samul.microde.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * 热点缓存值序列化器
+ * User、Team 按配置写成二进制（HotCacheCodec）或 JSON，其余类型一律写 JSON
+ * 读取时按首字节识别格式，两种格式都能读，因此切换写入格式时不需要清空缓存：
+ * 先全量发布能读二进制的版本（写入仍为 json），再把 cache-codec.write-format 改为 binary，
+ * 旧格式的数据在下一次快照重建时被替换
+ *
+ * @author Samul_Alen
+ */
+@Slf4j
+public class HotCacheRedisSerializer implements RedisSerializer<Object> {
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer;
+
+    private final boolean writeBinary;
+
+    public HotCacheRedisSerializer(GenericJackson2JsonRedisSerializer jsonSerializer, boolean writeBinary) {
+        this.jsonSerializer = jsonSerializer;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (writeBinary && HotCacheCodec.supports(value)) {
+            return HotCacheCodec.encode(value);
+        }
+        return jsonSerializer.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (!HotCacheCodec.isBinary(bytes)) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        try {
+            return HotCacheCodec.decode(bytes);
+        } catch (IOException e) {
+            // 无法识别的数据按缓存未命中处理，由调用方回源，不让一条坏数据拖垮整批 HMGET
+            log.warn("热点缓存值解码失败，按未命中处理: {}", e.getMessage());
+            return null;
+        }
+    }
+}
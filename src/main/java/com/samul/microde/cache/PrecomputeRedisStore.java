@@ -0,0 +1,248 @@
+package com.samul.microde.cache;
+
+import com.samul.microde.constant.MetricsConstants;
+import com.samul.microde.constant.RedisCacheConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.connection.DefaultTuple;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预计算数据的 Redis 读写
+ * 相似/互补用户（ZSet）、活跃度（String）、标签匹配用户（String）都用字符串序列化：
+ * 成员是用户ID的十进制字符串，分数是 ZSet 原生分数，活跃度是十进制小数，不再经过 JSON 编解码
+ * <p>
+ * 兼容旧数据：旧版本经 JSON 序列化写入的值带双引号（如 "\"123\""），读取时去掉引号，
+ * 无法解析的旧值按未命中处理，随 24 小时过期或下一次预计算被替换
+ * <p>
+ * 读取按缓存统计命中率（{@link CacheMetrics}），写入按 Key 类型计数（{@link MetricsConstants#PRECOMPUTE_REDIS_WRITES}）
+ *
+ * @author Samul_Alen
+ */
+@Component
+public class PrecomputeRedisStore {
+
+    private static final String WRITE_ACTIVITY = "activity";
+
+    private static final String WRITE_TAG_USERS = "tag-users";
+
+    /**
+     * 空列表占位成员：没有任何相似/互补用户时写入，避免每次请求都重新全量打分；读取时不是数字，自然被跳过
+     */
+    private static final String EMPTY_MEMBER = "empty";
+
+    /**
+     * 空列表的最长过期时间，新注册的用户最多等这么久就能出现在结果中
+     */
+    private static final long EMPTY_EXPIRE_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private CacheMetrics cacheMetrics;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 预计算列表是否存在（包括空列表占位）
+     *
+     * @param keyPrefix {@link RedisCacheConstants#SIMILARITY_KEY_PREFIX} 或 {@link RedisCacheConstants#COMPLEMENT_KEY_PREFIX}
+     */
+    public boolean hasTopUsers(String keyPrefix, long userId) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(keyPrefix + userId));
+    }
+
+    /**
+     * 整体替换用户的预计算列表
+     * 先在临时 Key 上 ZADD、EXPIRE，再 RENAME 覆盖（同一个流水线），读请求不会看到删除后、写入前的空列表
+     *
+     * @param keyPrefix 相似度或互补度Key前缀
+     * @param userId    用户ID
+     * @param scores    用户ID -> 分数，为空时写入空列表占位，过期时间不超过 1 小时
+     */
+    public void replaceTopUsers(String keyPrefix, long userId, Map<Long, Double> scores, long timeout, TimeUnit unit) {
+        byte[] key = bytes(keyPrefix + userId);
+        Set<RedisZSetCommands.Tuple> tuples = new LinkedHashSet<>(scores.size() * 2);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            tuples.add(new DefaultTuple(bytes(String.valueOf(entry.getKey())), entry.getValue()));
+        }
+        long ttlSeconds = unit.toSeconds(timeout);
+        if (tuples.isEmpty()) {
+            tuples.add(new DefaultTuple(bytes(EMPTY_MEMBER), 0D));
+            ttlSeconds = Math.min(ttlSeconds, EMPTY_EXPIRE_SECONDS);
+        }
+        long expireSeconds = ttlSeconds;
+        byte[] tmpKey = bytes(keyPrefix + userId + ":tmp:" + UUID.randomUUID());
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zAdd(tmpKey, tuples);
+            connection.expire(tmpKey, expireSeconds);
+            connection.rename(tmpKey, key);
+            return null;
+        });
+        countWrite(RedisCacheConstants.SIMILARITY_KEY_PREFIX.equals(keyPrefix) ? "similarity" : "complement");
+    }
+
+    /**
+     * 按分数倒序读取预计算列表
+     *
+     * @param keyPrefix 相似度或互补度Key前缀
+     * @param userId    用户ID
+     * @param limit     最多返回数量
+     * @return 用户ID列表，没有数据或是空列表占位时返回空列表（用 {@link #hasTopUsers} 区分）
+     */
+    public List<Long> getTopUsers(String keyPrefix, long userId, int limit) {
+        Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(keyPrefix + userId, 0, limit - 1);
+        cacheMetrics.record(RedisCacheConstants.SIMILARITY_KEY_PREFIX.equals(keyPrefix)
+                ? CacheMetrics.PRECOMPUTE_SIMILARITY : CacheMetrics.PRECOMPUTE_COMPLEMENT, members != null && !members.isEmpty());
+        if (members == null || members.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> userIds = new ArrayList<>(members.size());
+        for (String member : members) {
+            Long id = parseLong(member);
+            if (id != null) {
+                userIds.add(id);
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * 删除用户的相似度与互补度列表
+     */
+    public void deleteTopUsers(long userId) {
+        stringRedisTemplate.delete(Arrays.asList(
+                RedisCacheConstants.SIMILARITY_KEY_PREFIX + userId,
+                RedisCacheConstants.COMPLEMENT_KEY_PREFIX + userId));
+    }
+
+    /**
+     * 写入活跃度
+     */
+    public void setActivityScore(long userId, double score, long timeout, TimeUnit unit) {
+        stringRedisTemplate.opsForValue().set(RedisCacheConstants.ACTIVITY_KEY_PREFIX + userId,
+                String.valueOf(score), timeout, unit);
+        countWrite(WRITE_ACTIVITY);
+    }
+
+    /**
+     * 批量读取活跃度（一次 MGET）
+     *
+     * @return 用户ID -> 活跃度，只包含命中的用户
+     */
+    public Map<Long, Double> getActivityScores(List<Long> userIds) {
+        Map<Long, Double> scores = new HashMap<>(userIds.size() * 2);
+        if (userIds.isEmpty()) {
+            return scores;
+        }
+        List<String> keys = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            keys.add(RedisCacheConstants.ACTIVITY_KEY_PREFIX + userId);
+        }
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            return scores;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            Double score = parseDouble(values.get(i));
+            if (score != null) {
+                scores.put(userIds.get(i), score);
+            }
+        }
+        cacheMetrics.record(CacheMetrics.PRECOMPUTE_ACTIVITY, scores.size(), userIds.size() - scores.size());
+        return scores;
+    }
+
+    /**
+     * 读取标签匹配用户
+     *
+     * @param tagsKey 逗号拼接的标签
+     * @return 用户ID列表，未命中返回 null
+     */
+    public List<Long> getTagUsers(String tagsKey) {
+        String value = stringRedisTemplate.opsForValue().get(RedisCacheConstants.TAG_USERS_KEY_PREFIX + tagsKey);
+        if (value == null) {
+            cacheMetrics.miss(CacheMetrics.PRECOMPUTE_TAG_USERS);
+            return null;
+        }
+        if (value.isEmpty()) {
+            cacheMetrics.hit(CacheMetrics.PRECOMPUTE_TAG_USERS);
+            return new ArrayList<>();
+        }
+        List<Long> userIds = new ArrayList<>();
+        for (String part : StringUtils.split(value, ',')) {
+            Long id = parseLong(part);
+            if (id == null) {
+                // 旧版本写入的 JSON 数组，按未命中处理
+                cacheMetrics.miss(CacheMetrics.PRECOMPUTE_TAG_USERS);
+                return null;
+            }
+            userIds.add(id);
+        }
+        cacheMetrics.hit(CacheMetrics.PRECOMPUTE_TAG_USERS);
+        return userIds;
+    }
+
+    /**
+     * 写入标签匹配用户
+     */
+    public void setTagUsers(String tagsKey, Collection<Long> userIds, long timeout, TimeUnit unit) {
+        stringRedisTemplate.opsForValue().set(RedisCacheConstants.TAG_USERS_KEY_PREFIX + tagsKey,
+                StringUtils.join(userIds, ','), timeout, unit);
+        countWrite(WRITE_TAG_USERS);
+    }
+
+    private void countWrite(String key) {
+        meterRegistry.counter(MetricsConstants.PRECOMPUTE_REDIS_WRITES, "key", key).increment();
+    }
+
+    private static Long parseLong(String value) {
+        String raw = unquote(value);
+        try {
+            return raw == null ? null : Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        String raw = unquote(value);
+        try {
+            return raw == null ? null : Double.parseDouble(raw);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 去掉旧版本 JSON 序列化带上的双引号
+     */
+    private static String unquote(String value) {
+        if (value != null && value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
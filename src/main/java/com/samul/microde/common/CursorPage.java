@@ -0,0 +1,39 @@
+package com.samul.microde.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标分页结果（keyset 分页）
+ * 按 id 倒序，下一页以上一页最后一条的 id 为起点，翻页深度不影响查询耗时
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records = new ArrayList<>();
+
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+
+    /**
+     * 总数（近似值，来自缓存），未请求时为 null
+     */
+    private Long total;
+}
@@ -16,6 +16,7 @@ public enum ErrorCode {
     NOT_LOGIN(40100, "未登录", ""),
     NO_AUTH(40101, "无权限", ""),
     NOT_FOUND(40400, "请求数据不存在", ""),
+    TOO_MANY_REQUESTS(42900, "请求过于频繁", ""),
     SYSTEM_ERROR(50000, "系统内部异常", "");
 
     private final int code;
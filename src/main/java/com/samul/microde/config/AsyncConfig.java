@@ -6,12 +6,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import javax.annotation.Resource;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 异步配置类
- * 用于推荐系统的异步计算
+ * 用于推荐系统的异步计算、密码哈希计算
  *
  * @author Samul_Alen
  */
@@ -20,6 +21,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Slf4j
 public class AsyncConfig {
 
+    @Resource
+    private PasswordConfig passwordConfig;
+
     /**
      * 推荐计算专用线程池
      * 核心线程数根据CPU核心数配置，最大线程数为核心数的2倍
@@ -59,4 +63,29 @@ public class AsyncConfig {
 
         return executor;
     }
+
+    /**
+     * 密码哈希专用线程池
+     * 线程数固定为CPU核心数，队列有界，满了直接拒绝，登录高峰时不会拖垮其他请求
+     */
+    @Bean("passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor() {
+        int threads = passwordConfig.getExecutorThreads() != null
+                ? passwordConfig.getExecutorThreads()
+                : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(passwordConfig.getExecutorQueueCapacity());
+        executor.setThreadNamePrefix("password-hash-");
+        // 拒绝策略：直接抛出异常，由调用方返回"系统繁忙"，不在请求线程上执行哈希
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("密码哈希线程池初始化完成: 线程数={}, 队列容量={}", threads, passwordConfig.getExecutorQueueCapacity());
+
+        return executor;
+    }
 }
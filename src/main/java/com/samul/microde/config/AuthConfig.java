@@ -0,0 +1,69 @@
+package com.samul.microde.config;
+
+import com.samul.microde.utils.TokenUserSessionManager;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 认证模式配置
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth")
+public class AuthConfig {
+
+    /**
+     * 认证模式：session（Spring Session，默认）或 token（无状态签名令牌）
+     */
+    private String mode = "session";
+
+    /**
+     * 令牌签名密钥（HMAC-SHA256），多节点部署时必须配置为相同的值
+     * 为空时启动时随机生成，重启后已签发的令牌全部失效
+     */
+    private String tokenSecret;
+
+    /**
+     * 访问令牌有效期（秒）
+     * 默认：15分钟
+     */
+    private Long accessTokenTtlSeconds = 900L;
+
+    /**
+     * 刷新令牌有效期（秒）
+     * 默认：7天
+     */
+    private Long refreshTokenTtlSeconds = 604800L;
+
+    /**
+     * 吊销广播频道
+     */
+    private String revokeChannel = "microde:auth:revoke";
+
+    /**
+     * 本地吊销列表与 Redis 的同步间隔（毫秒），用于兜底丢失的广播
+     * 默认：60秒
+     */
+    private Long revokedSyncInterval = 60000L;
+
+    /**
+     * token 模式下监听其他节点发出的吊销广播
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "auth", name = "mode", havingValue = "token")
+    public RedisMessageListenerContainer authRevokeListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                     TokenUserSessionManager tokenUserSessionManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(tokenUserSessionManager, new ChannelTopic(revokeChannel));
+        return container;
+    }
+}
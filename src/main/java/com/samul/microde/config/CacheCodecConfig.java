@@ -0,0 +1,27 @@
+package com.samul.microde.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 热点缓存编码配置
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache-codec")
+public class CacheCodecConfig {
+
+    /**
+     * 用户、队伍快照的写入格式：binary（紧凑二进制）或 json
+     * 读取时两种格式都支持，先以 json 发布新版本，所有实例都能读取 binary 后再切换为 binary
+     * 默认：json
+     */
+    private String writeFormat = "json";
+
+    public boolean isWriteBinary() {
+        return "binary".equalsIgnoreCase(writeFormat);
+    }
+}
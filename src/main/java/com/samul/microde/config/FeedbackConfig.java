@@ -0,0 +1,34 @@
+package com.samul.microde.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 推荐反馈异步写入配置
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "feedback")
+public class FeedbackConfig {
+
+    /**
+     * 内存队列容量
+     * 默认：10000
+     */
+    private Integer queueCapacity = 10000;
+
+    /**
+     * 每批写入数据库的最大条数
+     * 默认：500
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * 未凑满一批时的最长等待时间（毫秒）
+     * 默认：1000
+     */
+    private Long flushIntervalMillis = 1000L;
+}
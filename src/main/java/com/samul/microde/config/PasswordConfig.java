@@ -0,0 +1,53 @@
+package com.samul.microde.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 密码哈希配置
+ * 迭代次数可用 JMH 基准在目标机器上测出，单次哈希建议控制在 50~100ms：
+ * mvn -P jmh test-compile exec:exec -Djmh.args="PasswordHashBenchmark"
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "password")
+public class PasswordConfig {
+
+    /**
+     * PBKDF2 迭代次数，调大后旧哈希会在用户下次登录时自动升级
+     * 默认：210000
+     */
+    private Integer iterations = 210000;
+
+    /**
+     * 每个用户的随机盐长度（字节）
+     * 默认：16
+     */
+    private Integer saltLength = 16;
+
+    /**
+     * 哈希输出长度（位）
+     * 默认：256
+     */
+    private Integer keyLength = 256;
+
+    /**
+     * 哈希线程池线程数，为空时取 CPU 核心数
+     */
+    private Integer executorThreads;
+
+    /**
+     * 哈希线程池队列容量，队列满时直接拒绝，返回"系统繁忙"
+     * 默认：200
+     */
+    private Integer executorQueueCapacity = 200;
+
+    /**
+     * 等待哈希结果的超时时间（毫秒）
+     * 默认：5000
+     */
+    private Long timeoutMillis = 5000L;
+}
@@ -0,0 +1,59 @@
+package com.samul.microde.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 接口限流配置
+ * 优先级：Redis 覆盖(rate:limit:rules) > 配置文件 rules > @RateLimited 注解默认值
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitConfig {
+
+    /**
+     * 是否启用接口限流
+     * 默认：启用
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Redis 覆盖规则的刷新间隔（毫秒）
+     * 默认：30秒
+     */
+    private Long rulesRefreshInterval = 30000L;
+
+    /**
+     * 受信任的反向代理地址（单个IP或 CIDR），只有来自这些地址的请求才读取 X-Forwarded-For 等代理头
+     * 默认：空，即始终按直连地址限流
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * 按规则名称覆盖注解上的限流参数
+     */
+    private Map<String, Rule> rules = new HashMap<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * 时间窗口内最大请求数
+         */
+        private Integer limit;
+
+        /**
+         * 时间窗口（秒）
+         */
+        private Integer window;
+    }
+}
@@ -1,5 +1,6 @@
 package com.samul.microde.config;
 
+import com.samul.microde.cache.HotCacheRedisSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -16,7 +17,8 @@ import org.springframework.data.redis.serializer.RedisSerializer;
 public class RedisTemplateConfig {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       CacheCodecConfig cacheCodecConfig) {
         // 创建RedisTemplate对象
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         // 设置连接工厂
@@ -24,16 +26,19 @@ public class RedisTemplateConfig {
 
         // 创建Json序列化工具
         GenericJackson2JsonRedisSerializer jsonRedisSerializer = new GenericJackson2JsonRedisSerializer();
+        // User、Team 按配置写成紧凑二进制，其余类型仍为 JSON；读取时自动识别两种格式
+        HotCacheRedisSerializer valueSerializer =
+                new HotCacheRedisSerializer(jsonRedisSerializer, cacheCodecConfig.isWriteBinary());
 
         // 设置Key的序列化 - 使用String序列化
         redisTemplate.setKeySerializer(RedisSerializer.string());
-        // 设置Value的序列化 - 使用JSON序列化
-        redisTemplate.setValueSerializer(jsonRedisSerializer);
+        // 设置Value的序列化
+        redisTemplate.setValueSerializer(valueSerializer);
 
         // 设置Hash Key的序列化 - 使用String序列化
         redisTemplate.setHashKeySerializer(RedisSerializer.string());
-        // 设置Hash Value的序列化 - 使用JSON序列化
-        redisTemplate.setHashValueSerializer(jsonRedisSerializer);
+        // 设置Hash Value的序列化
+        redisTemplate.setHashValueSerializer(valueSerializer);
 
         return redisTemplate;
     }
@@ -47,12 +47,6 @@ public class ScheduledConfig {
      */
     private String activityPrecomputeCron = "0 0 * * * ?";
 
-    /**
-     * 缓存清理任务 cron 表达式
-     * 默认：每天凌晨 3:00:00 执行
-     */
-    private String cacheCleanupCron = "0 0 3 * * ?";
-
     /**
      * 是否启用全量预计算任务
      * 默认：启用
@@ -71,11 +65,24 @@ public class ScheduledConfig {
      */
     private Boolean activityPrecomputeEnabled = true;
 
+    // ========== 过期队伍清理任务 ==========
+    /**
+     * 过期队伍清理任务 cron 表达式
+     * 默认：每5分钟执行一次
+     */
+    private String teamExpireSweepCron = "0 */5 * * * ?";
+
     /**
-     * 是否启用缓存清理任务
+     * 是否启用过期队伍清理任务
      * 默认：启用
      */
-    private Boolean cacheCleanupEnabled = true;
+    private Boolean teamExpireSweepEnabled = true;
+
+    /**
+     * 每批归档的过期队伍数量
+     * 默认：100
+     */
+    private Integer teamExpireSweepBatchSize = 100;
 
     // ========== 预计算参数配置 ==========
     /**
@@ -101,4 +108,11 @@ public class ScheduledConfig {
      * 默认：30天
      */
     private Integer activityDaysWindow = 30;
+
+    /**
+     * 用户标签投影的最长复用时间（秒）
+     * 全量/增量预计算每次重新构建；单用户重算和候选集筛选复用不超过该时间的投影
+     * 默认：300秒（与缓存同步间隔一致）
+     */
+    private Long projectionMaxAgeSeconds = 300L;
 }
@@ -0,0 +1,58 @@
+package com.samul.microde.config;
+
+import com.samul.microde.utils.SessionNearCache;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Session 本地近端缓存配置
+ * 本地缓存登录主体，避免每个请求都从 Redis 读取 Spring Session
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "session-near-cache")
+public class SessionNearCacheConfig {
+
+    /**
+     * 是否启用 Session 近端缓存
+     * 默认：启用
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 本地最多缓存的 Session 数量，超出后按 LRU 淘汰
+     * 默认：10000
+     */
+    private Integer maxSize = 10000;
+
+    /**
+     * 本地缓存存活时间（秒）
+     * 过期后回源 Redis 读取一次 Session，同时刷新 Session 的最后访问时间
+     * 默认：60秒
+     */
+    private Integer ttlSeconds = 60;
+
+    /**
+     * 失效广播频道
+     */
+    private String invalidateChannel = "microde:session:invalidate";
+
+    /**
+     * 监听其他节点发出的失效广播
+     */
+    @Bean
+    public RedisMessageListenerContainer sessionNearCacheListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                           SessionNearCache sessionNearCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(sessionNearCache, new ChannelTopic(invalidateChannel));
+        return container;
+    }
+}
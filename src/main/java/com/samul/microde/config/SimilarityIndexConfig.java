@@ -0,0 +1,54 @@
+package com.samul.microde.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 相似度近似近邻索引配置（MinHash + LSH）
+ * Jaccard 相似度为 s 的用户成为候选的概率为 1 - (1 - s^rows)^bands；召回不够时增加 bands 或减少 rows，代价是候选变多、内存变大
+ * 默认 20 × 3 在 SimilarityIndexBenchmark 的合成数据上，前 200 名的召回率 10 万用户约 95%、100 万用户约 97%
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "similarity-index")
+public class SimilarityIndexConfig {
+
+    /**
+     * 是否启用近似索引，不启用时相似度始终精确计算
+     * 默认：不启用
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 用户数达到该值才使用索引，用户较少时精确计算已经足够快
+     * 默认：50000
+     */
+    private Integer minUsers = 50000;
+
+    /**
+     * 段数，每个用户每段占 8 字节
+     * 默认：20
+     */
+    private Integer bands = 20;
+
+    /**
+     * 每段的 MinHash 个数
+     * 默认：3
+     */
+    private Integer rows = 3;
+
+    /**
+     * 每次查询最多取回的候选用户数，决定单次查询的最大开销
+     * 默认：5000
+     */
+    private Integer maxCandidates = 5000;
+
+    /**
+     * MinHash 随机种子，各实例相同才能得到相同的结果
+     * 默认：20240601
+     */
+    private Long seed = 20240601L;
+}
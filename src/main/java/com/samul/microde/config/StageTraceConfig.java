@@ -0,0 +1,46 @@
+package com.samul.microde.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 请求阶段耗时追踪配置
+ *
+ * @author Samul_Alen
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "stage-trace")
+public class StageTraceConfig {
+
+    /**
+     * 是否启用阶段追踪
+     * 默认：启用
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 慢请求阈值（毫秒），超过时在日志中输出阶段耗时明细，并写入环形缓冲区
+     * 默认：500
+     */
+    private Long slowThresholdMillis = 500L;
+
+    /**
+     * 非慢请求写入环形缓冲区的采样率（0 ~ 1）
+     * 默认：0.01
+     */
+    private Double sampleRate = 0.01;
+
+    /**
+     * 环形缓冲区容量，写满后覆盖最早的记录
+     * 默认：256
+     */
+    private Integer bufferSize = 256;
+
+    /**
+     * 是否允许管理员通过请求头 X-Debug-Trace: true 在响应头 Server-Timing 中返回阶段耗时
+     * 默认：禁用
+     */
+    private Boolean debugHeaderEnabled = false;
+}
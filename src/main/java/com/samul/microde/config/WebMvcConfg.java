@@ -1,12 +1,33 @@
 package com.samul.microde.config;
 
+import com.samul.microde.interceptor.RateLimitInterceptor;
+import com.samul.microde.interceptor.ServerTimingResponseAdvice;
+import com.samul.microde.interceptor.StageTraceInterceptor;
+import com.samul.microde.utils.TokenUserSessionManager;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import javax.annotation.Resource;
+
 @Configuration
 public class WebMvcConfg implements WebMvcConfigurer {
- 
+
+    @Resource
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Resource
+    private StageTraceInterceptor stageTraceInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 阶段追踪放在最前，限流检查的耗时也计入请求总耗时
+        registry.addInterceptor(stageTraceInterceptor).addPathPatterns("/**");
+        // 接口限流：只对标注了 @RateLimited 的方法生效
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/**");
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         //设置允许跨域的路径
@@ -19,6 +40,9 @@ public class WebMvcConfg implements WebMvcConfigurer {
                 .allowCredentials(true)
                 //设置允许的方法
                 .allowedMethods("*")
+                //token 认证模式下登录接口通过响应头返回令牌；Server-Timing 为调试用的阶段耗时
+                .exposedHeaders(TokenUserSessionManager.ACCESS_TOKEN_HEADER, TokenUserSessionManager.REFRESH_TOKEN_HEADER,
+                        ServerTimingResponseAdvice.SERVER_TIMING_HEADER)
                 //跨域允许时间
                 .maxAge(3600);
     }
@@ -0,0 +1,52 @@
+package com.samul.microde.constant;
+
+/**
+ * 监控指标名称常量类
+ * 指标通过管理端口（management.server.port）的 /actuator/metrics 查看，Prometheus 从 /actuator/prometheus 抓取（名称中的点换成下划线）
+ *
+ * @author Samul_Alen
+ */
+public class MetricsConstants {
+
+    /**
+     * 推荐接口总耗时（Timer），标签 strategy
+     * 用于: RecommendationServiceImpl
+     */
+    public static final String RECOMMEND = "microde.recommend";
+
+    /**
+     * 推荐各阶段耗时（Timer），标签 strategy、stage：candidate（候选集）、hydrate（读取用户）、score（打分）、sort（排序分页）
+     * 用于: RecommendationServiceImpl
+     */
+    public static final String RECOMMEND_STAGE = "microde.recommend.stage";
+
+    /**
+     * 精准候选集获取失败、降级为随机候选的次数（Counter）
+     * 用于: RecommendationServiceImpl
+     */
+    public static final String RECOMMEND_FALLBACK = "microde.recommend.fallback";
+
+    /**
+     * 缓存读取次数（Counter），标签 cache、result：hit、miss、error
+     * 用于: CacheMetrics
+     */
+    public static final String CACHE_REQUESTS = "microde.cache.requests";
+
+    /**
+     * 预计算耗时（Timer），标签 job：similarity、complement，mode：full、incremental、single
+     * 用于: PrecomputeServiceImpl
+     */
+    public static final String PRECOMPUTE_DURATION = "microde.precompute.duration";
+
+    /**
+     * 预计算处理的用户数（Counter），标签 job、mode
+     * 用于: PrecomputeServiceImpl
+     */
+    public static final String PRECOMPUTE_USERS = "microde.precompute.users";
+
+    /**
+     * 预计算写入 Redis 的 Key 数（Counter），标签 key：similarity、complement、activity、tag-users
+     * 用于: PrecomputeRedisStore
+     */
+    public static final String PRECOMPUTE_REDIS_WRITES = "microde.precompute.redis.writes";
+}
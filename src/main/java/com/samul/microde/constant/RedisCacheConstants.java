@@ -14,6 +14,89 @@ public class RedisCacheConstants {
      */
     public static final String RECOMMEND_CACHE_KEY_PREFIX = "microde:recommend:";
 
+    /**
+     * 队伍快照（Hash，field 为队伍ID，value 为 Team）
+     * 用于: TeamReadModelServiceImpl, CachePreloadServiceImpl
+     */
+    public static final String ALL_TEAMS_CACHE_KEY = "microde:teams:all";
+
+    /**
+     * 队伍ID索引（ZSet，score 为创建时间毫秒数），按状态过滤时在后面拼接 "status:{status}"
+     * 用于: TeamReadModelServiceImpl
+     */
+    public static final String TEAM_INDEX_KEY_PREFIX = "microde:team:index:";
+
+    /**
+     * 队伍成员集合Key前缀（ZSet，member 为用户ID，score 为加入时间毫秒数）
+     * 用于: TeamMembershipServiceImpl
+     */
+    public static final String TEAM_MEMBERS_KEY_PREFIX = "microde:team:members:";
+
+    /**
+     * 队伍成员变更版本号Key前缀（String 计数器），退出、删除队伍时自增，重建成员集合前后比对
+     * 用于: TeamMembershipServiceImpl
+     */
+    public static final String TEAM_MEMBERS_VERSION_KEY_PREFIX = "microde:team:members:version:";
+
+    /**
+     * 队伍标签向量Key（Hash，field 为队伍ID，value 为 TeamTagVector）
+     * 用于: TeamRecommendationService
+     */
+    public static final String TEAM_VECTORS_KEY = "microde:team:vectors";
+
+    /**
+     * 预计算相似用户Key前缀（ZSet，member 为用户ID的十进制字符串，score 为 Jaccard 相似度）
+     * 用于: PrecomputeRedisStore
+     */
+    public static final String SIMILARITY_KEY_PREFIX = "microde:similarity:";
+
+    /**
+     * 预计算互补用户Key前缀（ZSet，member 为用户ID的十进制字符串，score 为互补度）
+     * 用于: PrecomputeRedisStore
+     */
+    public static final String COMPLEMENT_KEY_PREFIX = "microde:complement:";
+
+    /**
+     * 用户活跃度Key前缀（String，值为十进制小数）
+     * 用于: PrecomputeRedisStore
+     */
+    public static final String ACTIVITY_KEY_PREFIX = "microde:activity:";
+
+    /**
+     * 标签匹配用户Key前缀（String，值为逗号分隔的用户ID），其后紧跟逗号拼接的标签
+     * 用于: PrecomputeRedisStore
+     */
+    public static final String TAG_USERS_KEY_PREFIX = "microde:tags:users:";
+
+    /**
+     * 用户推荐偏好Key前缀（Hash，w:sim / w:comp 为权重偏移，b:{被推荐用户ID} 为候选加分）
+     * 用于: RecommendPreferenceServiceImpl
+     */
+    public static final String RECOMMEND_PREF_KEY_PREFIX = "microde:recommend:pref:";
+
+    /**
+     * 用户"不感兴趣"布隆过滤器Key前缀（String 位图，见 BloomFilterUtils）
+     * 用于: RecommendPreferenceServiceImpl
+     */
+    public static final String RECOMMEND_DISLIKE_KEY_PREFIX = "microde:recommend:dislike:";
+
+    /**
+     * 缓存命名空间代数Key前缀（String 计数器）
+     * 用于: CacheGenerationRegistry
+     */
+    public static final String CACHE_GENERATION_KEY_PREFIX = "microde:cache:generation:";
+
+    /**
+     * 用户搜索缓存Key前缀（按用户名搜索、按标签搜索），其后紧跟命名空间代数
+     * 用于: UserController
+     */
+    public static final String USER_SEARCH_CACHE_KEY_PREFIX = "microde:user:search:";
+
+    /**
+     * 缓存命名空间：用户搜索结果（按用户名搜索、按标签搜索共用一个代数）
+     */
+    public static final String NAMESPACE_USER_SEARCH = "user:search";
+
     private RedisCacheConstants() {
         // 私有构造函数，防止实例化
     }
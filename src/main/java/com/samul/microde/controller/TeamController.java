@@ -1,30 +1,31 @@
 package com.samul.microde.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.samul.microde.annotation.RateLimited;
 import com.samul.microde.common.BaseResponse;
+import com.samul.microde.common.CursorPage;
 import com.samul.microde.common.ErrorCode;
 import com.samul.microde.common.ResultUtils;
+import com.samul.microde.enums.RateLimitKeyType;
 import com.samul.microde.exception.BusinessException;
 import com.samul.microde.model.domain.Team;
 import com.samul.microde.model.domain.User;
 import com.samul.microde.model.dto.TeamQuery;
+import com.samul.microde.model.dto.TeamRecommendationResult;
 import com.samul.microde.model.request.TeamAddRequest;
+import com.samul.microde.service.TeamReadModelService;
+import com.samul.microde.service.TeamRecommendationService;
 import com.samul.microde.service.TeamService;
 import com.samul.microde.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 用户接口
@@ -38,8 +39,6 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class TeamController {
 
-    private static final String TEAM_LIST_CACHE_KEY_PREFIX = "microde:team:list:";
-
     @Resource
     private UserService userService;
 
@@ -47,7 +46,10 @@ public class TeamController {
     private TeamService teamService;
 
     @Resource
-    private RedisTemplate<String, Object> redisTemplate;
+    private TeamReadModelService teamReadModelService;
+
+    @Resource
+    private TeamRecommendationService teamRecommendationService;
 
     @PostMapping("/add")
     @Operation(summary = "创建队伍", description = "创建新的队伍")
@@ -59,10 +61,6 @@ public class TeamController {
         Team team = new Team();
         BeanUtils.copyProperties(teamAddRequest, team);
         long teamId = teamService.addTeam(team, logininUser);
-
-        // 清除队伍列表缓存
-        clearTeamListCache();
-
         return ResultUtils.success(teamId);
     }
 
@@ -72,14 +70,10 @@ public class TeamController {
         if (id <= 0) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
-        boolean result = teamService.removeById(id);
+        boolean result = teamService.deleteTeam(id);
         if (!result) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "删除失败");
         }
-
-        // 清除队伍列表缓存
-        clearTeamListCache();
-
         return ResultUtils.success(true);
     }
 
@@ -93,10 +87,7 @@ public class TeamController {
         if (!result) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "更新失败");
         }
-
-        // 清除队伍列表缓存
-        clearTeamListCache();
-
+        teamReadModelService.onTeamSaved(team.getId());
         return ResultUtils.success(true);
     }
 
@@ -119,73 +110,58 @@ public class TeamController {
         if (teamQuery == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
-        Team team = new Team();
-        BeanUtils.copyProperties(teamQuery, team);
-        QueryWrapper<Team> queryWrapper = new QueryWrapper<>(team);
-        List<Team> teamList = teamService.list(queryWrapper);
+        // 不分页：取全部匹配结果
+        List<Team> teamList = teamReadModelService.listAllTeams(teamQuery);
         return ResultUtils.success(teamList);
     }
 
     @GetMapping("/list/page")
-    @Operation(summary = "分页获取队伍列表", description = "分页查询队伍列表，支持缓存")
+    @RateLimited(name = "team-list-page", key = RateLimitKeyType.IP, limit = 60, window = 60)
+    @Operation(summary = "分页获取队伍列表", description = "分页查询队伍列表，从 Redis 队伍读模型读取")
     public BaseResponse<Page<Team>> listTeamsByPage(TeamQuery teamQuery) {
         if (teamQuery == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
-
-        // 生成缓存key - 根据查询条件生成唯一key
-        String cacheKey = generateTeamListCacheKey(teamQuery);
-
-        // 尝试从缓存获取
-        ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
-        Page<Team> cachedPage = (Page<Team>) valueOperations.get(cacheKey);
-
-        if (cachedPage != null) {
-            log.info("从Redis缓存获取队伍列表，key: {}", cacheKey);
-            return ResultUtils.success(cachedPage);
-        }
-
-        // 缓存未命中，查询数据库
-        Team team = new Team();
-        BeanUtils.copyProperties(teamQuery, team);
-        Page<Team> page = new Page<>(teamQuery.getPageNum(), teamQuery.getPageSize());
-        QueryWrapper<Team> queryWrapper = new QueryWrapper<>(team);
-        Page<Team> resultPage = teamService.page(page, queryWrapper);
-
-        // 存入缓存，过期时间30秒
-        valueOperations.set(cacheKey, resultPage, 30, TimeUnit.SECONDS);
-        log.info("队伍列表已存入Redis，key: {}, pageSize: {}", cacheKey, resultPage.getRecords().size());
-
+        Page<Team> resultPage = teamReadModelService.listTeams(teamQuery);
         return ResultUtils.success(resultPage);
     }
 
     /**
-     * 生成队伍列表缓存key
-     * 根据查询条件生成唯一key，确保不同查询条件有不同缓存
+     * 游标分页获取队伍列表
+     * 按 id 倒序，下一页传入上一页返回的 nextCursor，适合无限滚动
+     *
+     * @param teamQuery 查询条件，cursor 为空表示第一页，withTotal 为 true 时返回近似总数
+     * @return 游标分页结果
      */
-    private String generateTeamListCacheKey(TeamQuery teamQuery) {
-        // 将查询条件转换为字符串并生成hash
-        String queryParams = String.format("%d_%d_%s_%s",
-                teamQuery.getPageNum(),
-                teamQuery.getPageSize(),
-                teamQuery.getName() != null ? teamQuery.getName() : "",
-                teamQuery.getMaxNum() != null ? teamQuery.getMaxNum() : "");
-        String hash = DigestUtils.md5DigestAsHex(queryParams.getBytes());
-        return TEAM_LIST_CACHE_KEY_PREFIX + hash;
+    @GetMapping("/list/cursor")
+    @RateLimited(name = "team-list-cursor", key = RateLimitKeyType.IP, limit = 60, window = 60)
+    @Operation(summary = "游标分页获取队伍列表", description = "keyset 分页，翻页深度不影响查询耗时")
+    public BaseResponse<CursorPage<Team>> listTeamsByCursor(TeamQuery teamQuery) {
+        if (teamQuery == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        CursorPage<Team> cursorPage = teamService.listTeamsByCursor(teamQuery);
+        return ResultUtils.success(cursorPage);
     }
 
     /**
-     * 清除所有队伍列表缓存
-     * 在增删改队伍时调用，确保缓存数据一致性
+     * 推荐队伍
+     *
+     * @param topK    返回数量（1-50，默认10）
+     * @param request HTTP请求
+     * @return 推荐队伍列表
      */
-    private void clearTeamListCache() {
-        try {
-            // 使用模糊匹配删除所有队伍列表缓存
-            redisTemplate.delete(redisTemplate.keys(TEAM_LIST_CACHE_KEY_PREFIX + "*"));
-            log.info("已清除所有队伍列表缓存");
-        } catch (Exception e) {
-            log.error("清除队伍列表缓存失败", e);
+    @GetMapping("/recommend")
+    @RateLimited(name = "team-recommend", key = RateLimitKeyType.USER, limit = 30, window = 60)
+    @Operation(summary = "推荐队伍", description = "根据队伍成员的标签与当前用户标签的相似度、互补度推荐队伍")
+    public BaseResponse<List<TeamRecommendationResult>> recommendTeams(@RequestParam(defaultValue = "10") int topK,
+                                                                       HttpServletRequest request) {
+        if (topK <= 0 || topK > 50) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "推荐数量需在1-50之间");
         }
+        User loginUser = userService.getLogininUser(request);
+        List<TeamRecommendationResult> results = teamRecommendationService.recommendTeams(loginUser, topK);
+        return ResultUtils.success(results);
     }
 
 }
@@ -2,17 +2,30 @@ package com.samul.microde.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.samul.microde.annotation.RateLimited;
+import com.samul.microde.cache.CacheGenerationRegistry;
+import com.samul.microde.cache.CacheMetrics;
+import com.samul.microde.cache.PrecomputeRedisStore;
 import com.samul.microde.common.BaseResponse;
+import com.samul.microde.common.CursorPage;
 import com.samul.microde.common.ErrorCode;
 import com.samul.microde.common.ResultUtils;
+import com.samul.microde.constant.RedisCacheConstants;
+import com.samul.microde.enums.RateLimitKeyType;
 import com.samul.microde.exception.BusinessException;
 import com.samul.microde.model.domain.User;
+import com.samul.microde.model.dto.AuthTokenPair;
 import com.samul.microde.model.dto.RecommendRequest;
 import com.samul.microde.model.dto.RecommendationResult;
+import com.samul.microde.model.dto.StageTrace;
 import com.samul.microde.model.request.UserLoginRequest;
+import com.samul.microde.model.request.TokenRefreshRequest;
 import com.samul.microde.model.request.UserRegisterRequest;
+import com.samul.microde.service.CachePreloadService;
 import com.samul.microde.service.RecommendationService;
 import com.samul.microde.service.UserService;
+import com.samul.microde.utils.StageTraceBuffer;
+import com.samul.microde.utils.UserSessionManager;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +41,6 @@ import org.springframework.web.bind.annotation.*;
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -58,6 +70,24 @@ public class UserController {
     @Resource
     private RedissonClient redissonClient;
 
+    @Resource
+    private CachePreloadService cachePreloadService;
+
+    @Resource
+    private UserSessionManager userSessionManager;
+
+    @Resource
+    private CacheGenerationRegistry cacheGenerationRegistry;
+
+    @Resource
+    private PrecomputeRedisStore precomputeRedisStore;
+
+    @Resource
+    private CacheMetrics cacheMetrics;
+
+    @Resource
+    private StageTraceBuffer stageTraceBuffer;
+
     /**
      * 用户注册
      *
@@ -65,6 +95,7 @@ public class UserController {
      * @return
      */
     @PostMapping("/register")
+    @RateLimited(name = "user-register", key = RateLimitKeyType.IP, limit = 5, window = 60)
     @Operation(summary = "用户注册", description = "新用户注册账号")
     public BaseResponse<Long> userRegister(@RequestBody UserRegisterRequest userRegisterRequest) {
         // 校验
@@ -90,6 +121,7 @@ public class UserController {
      * @return
      */
     @PostMapping("/login")
+    @RateLimited(name = "user-login", key = RateLimitKeyType.IP, limit = 10, window = 60)
     @Operation(summary = "用户登录", description = "用户账号密码登录")
     public BaseResponse<User> userLogin(@RequestBody UserLoginRequest userLoginRequest, HttpServletRequest request) {
         if (userLoginRequest == null) {
@@ -104,6 +136,23 @@ public class UserController {
         return ResultUtils.success(user);
     }
 
+    /**
+     * 刷新令牌（仅 auth.mode=token 时可用）
+     *
+     * @param tokenRefreshRequest
+     * @return
+     */
+    @PostMapping("/token/refresh")
+    @RateLimited(name = "user-token-refresh", key = RateLimitKeyType.IP, limit = 30, window = 60)
+    @Operation(summary = "刷新令牌", description = "使用刷新令牌换取新的访问令牌和刷新令牌")
+    public BaseResponse<AuthTokenPair> refreshToken(@RequestBody TokenRefreshRequest tokenRefreshRequest) {
+        if (tokenRefreshRequest == null || StringUtils.isBlank(tokenRefreshRequest.getRefreshToken())) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        AuthTokenPair tokenPair = userSessionManager.refreshToken(tokenRefreshRequest.getRefreshToken());
+        return ResultUtils.success(tokenPair);
+    }
+
     /**
      * 用户注销
      *
@@ -136,14 +185,18 @@ public class UserController {
         String cacheKey = "microde:user:current:" + userId;
         ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
         User cachedUser = (User) valueOperations.get(cacheKey);
+        cacheMetrics.record(CacheMetrics.CURRENT_USER, cachedUser != null);
 
         if (cachedUser != null) {
             log.info("从Redis缓存获取当前用户信息，userId: {}", userId);
             return ResultUtils.success(cachedUser);
         }
 
-        // 缓存未命中，查询数据库
-        User user = userService.getById(userId);
+        // 缓存未命中，优先从用户快照读取完整资料，快照中没有再查询数据库
+        User user = cachePreloadService.getUserByIdFromCache(userId);
+        if (user == null) {
+            user = userService.getById(userId);
+        }
         User safetyUser = userService.getSafetyUser(user);
 
         // 存入缓存，过期时间30秒
@@ -166,11 +219,12 @@ public class UserController {
         }
 
         // 生成缓存key - 根据搜索关键词生成
-        String cacheKey = "microde:user:search:" + (StringUtils.isNotBlank(username) ? DigestUtils.md5DigestAsHex(username.getBytes()) : "all");
+        String cacheKey = searchCacheKeyPrefix() + (StringUtils.isNotBlank(username) ? DigestUtils.md5DigestAsHex(username.getBytes()) : "all");
 
         // 尝试从缓存获取
         ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
         List<User> cachedList = (List<User>) valueOperations.get(cacheKey);
+        cacheMetrics.record(CacheMetrics.USER_SEARCH, cachedList != null);
 
         if (cachedList != null) {
             log.info("从Redis缓存获取用户搜索结果，username: {}", username);
@@ -206,6 +260,7 @@ public class UserController {
     }*/
 
     @GetMapping("/search/tags")
+    @RateLimited(name = "user-search-tags", key = RateLimitKeyType.IP, limit = 30, window = 60)
     @Operation(summary = "按标签搜索用户", description = "根据标签列表分页搜索用户")
     public BaseResponse<Page<User>> searchUsersByTags(long pageSize, long pageNum, @RequestParam(required = false) List<String> tagNameList) {
         if (CollectionUtils.isEmpty(tagNameList)) {
@@ -218,6 +273,7 @@ public class UserController {
         // 尝试从缓存获取
         ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
         Page<User> cachedPage = (Page<User>) valueOperations.get(cacheKey);
+        cacheMetrics.record(CacheMetrics.TAG_SEARCH, cachedPage != null);
 
         if (cachedPage != null) {
             log.info("从Redis缓存获取标签搜索结果，tags: {}, key: {}", tagNameList, cacheKey);
@@ -238,6 +294,27 @@ public class UserController {
         return ResultUtils.success(userList);
     }
 
+    /**
+     * 按标签游标分页搜索用户
+     * 按 id 倒序，下一页传入上一页返回的 nextCursor；总数为近似值，缓存 60 秒
+     */
+    @GetMapping("/search/tags/cursor")
+    @RateLimited(name = "user-search-tags", key = RateLimitKeyType.IP, limit = 30, window = 60)
+    @Operation(summary = "按标签游标分页搜索用户", description = "keyset 分页，翻页深度不影响查询耗时")
+    public BaseResponse<CursorPage<User>> searchUsersByTagsCursor(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "10") int pageSize,
+                                                                  @RequestParam(defaultValue = "false") boolean withTotal,
+                                                                  @RequestParam(required = false) List<String> tagNameList) {
+        if (CollectionUtils.isEmpty(tagNameList)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        CursorPage<User> cursorPage = userService.searchUserByTagsCursor(tagNameList, cursor, pageSize);
+        if (withTotal) {
+            cursorPage.setTotal(getTagSearchCount(tagNameList));
+        }
+        return ResultUtils.success(cursorPage);
+    }
+
 
     /**
      * 智能推荐用户
@@ -251,6 +328,7 @@ public class UserController {
      * @return 推荐结果分页
      */
     @PostMapping("/recommend/smart")
+    @RateLimited(name = "user-recommend-smart", key = RateLimitKeyType.USER, limit = 20, window = 60)
     @Operation(summary = "智能推荐用户", description = "基于标签相似度、技能互补、活跃度等多维度推荐")
     public BaseResponse<Page<RecommendationResult>> smartRecommend(
             @RequestBody RecommendRequest request,
@@ -285,6 +363,7 @@ public class UserController {
      * @return 是否记录成功
      */
     @PostMapping("/recommend/feedback")
+    @RateLimited(name = "user-recommend-feedback", key = RateLimitKeyType.USER, limit = 60, window = 60)
     @Operation(summary = "推荐反馈", description = "记录用户对推荐结果的反馈")
     public BaseResponse<Boolean> recommendFeedback(
             @RequestParam Long recommendedUserId,
@@ -357,12 +436,11 @@ public class UserController {
             log.error("redis delete key error", e);
         }
 
-        // 清除智能推荐缓存
+        // 标签变化会影响按标签搜索的结果，递增搜索缓存代数
         try {
-            redisTemplate.delete(redisTemplate.keys("microde:user:recommend:smart:" + loginUser.getId() + ":*"));
-            log.info("已清除用户{}的智能推荐缓存", loginUser.getId());
+            cacheGenerationRegistry.bumpGeneration(RedisCacheConstants.NAMESPACE_USER_SEARCH);
         } catch (Exception e) {
-            log.error("清除智能推荐缓存失败", e);
+            log.error("清除用户搜索缓存失败", e);
         }
 
         return ResultUtils.success(result);
@@ -390,7 +468,7 @@ public class UserController {
 
         // 清除用户搜索缓存（因为用户信息可能变化）
         try {
-            redisTemplate.delete(redisTemplate.keys("microde:user:search:*"));
+            cacheGenerationRegistry.bumpGeneration(RedisCacheConstants.NAMESPACE_USER_SEARCH);
             log.info("已清除用户搜索缓存");
         } catch (Exception e) {
             log.error("清除用户搜索缓存失败", e);
@@ -409,10 +487,14 @@ public class UserController {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
         boolean b = userService.removeById(id);
+        if (b) {
+            // 被删除用户的登录态立即失效
+            userSessionManager.invalidateUserSessions(id);
+        }
 
         // 清除用户搜索缓存
         try {
-            redisTemplate.delete(redisTemplate.keys("microde:user:search:*"));
+            cacheGenerationRegistry.bumpGeneration(RedisCacheConstants.NAMESPACE_USER_SEARCH);
             log.info("已清除用户搜索缓存");
         } catch (Exception e) {
             log.error("清除用户搜索缓存失败", e);
@@ -454,6 +536,10 @@ public class UserController {
         updateUser.setUserStatus(status);
 
         boolean result = userService.updateById(updateUser);
+        if (result) {
+            // 封禁/解封后旧会话立即失效，无需等待 Session 过期
+            userSessionManager.invalidateUserSessions(id);
+        }
 
         // 清除缓存（使用分布式锁防止并发问题）
         RLock lock = redissonClient.getLock("microde:lock:user:cache:cleanup:" + id);
@@ -465,38 +551,13 @@ public class UserController {
                     redisTemplate.delete(currentUserCacheKey);
                     log.info("已清除用户{}的当前用户缓存", id);
 
-                    // 2. 清除与该用户相关的推荐缓存
-                    // 获取所有推荐缓存key并精确匹配删除
-                    Set<String> recommendKeys = redisTemplate.keys("microde:recommend:*");
-                    if (recommendKeys != null && !recommendKeys.isEmpty()) {
-                        // 只删除与该用户相关的推荐缓存（key中包含用户ID）
-                        long deletedCount = recommendKeys.stream()
-                                .filter(key -> key.contains(String.valueOf(id)))
-                                .peek(key -> redisTemplate.delete(key))
-                                .count();
-                        log.info("已清除用户{}的推荐缓存，共{}个", id, deletedCount);
-                    }
-
-                    // 3. 清除与该用户相关的搜索缓存
-                    Set<String> searchKeys = redisTemplate.keys("microde:user:search:*");
-                    if (searchKeys != null && !searchKeys.isEmpty()) {
-                        long deletedCount = searchKeys.stream()
-                                .filter(key -> {
-                                    // 搜索缓存的key格式通常是 search:tags:xxx 或类似格式
-                                    // 我们无法直接判断某个搜索结果是否包含该用户
-                                    // 所以只能删除所有搜索缓存，让下次搜索重新计算
-                                    return true;
-                                })
-                                .peek(key -> redisTemplate.delete(key))
-                                .count();
-                        log.info("已清除用户搜索缓存，共{}个", deletedCount);
-                    }
-
-                    // 4. 清除与该用户相关的相似度和互补度缓存
-                    String similarityKey = "microde:similarity:" + id;
-                    String complementKey = "microde:complement:" + id;
-                    redisTemplate.delete(similarityKey);
-                    redisTemplate.delete(complementKey);
+                    // 2. 清除搜索缓存
+                    // 无法判断某个搜索结果是否包含该用户，所以递增搜索缓存代数，旧结果不再命中，随过期时间淘汰
+                    cacheGenerationRegistry.bumpGeneration(RedisCacheConstants.NAMESPACE_USER_SEARCH);
+                    log.info("已清除用户搜索缓存");
+
+                    // 3. 清除与该用户相关的相似度和互补度缓存
+                    precomputeRedisStore.deleteTopUsers(id);
                     log.info("已清除用户{}的相似度和互补度缓存", id);
                 } catch (Exception e) {
                     log.error("清除用户缓存失败", e);
@@ -516,6 +577,29 @@ public class UserController {
         return ResultUtils.success(result);
     }
 
+    /**
+     * 最近的请求阶段耗时记录
+     * 包含超过慢请求阈值的请求和按采样率采样的请求，只保存在当前实例内存中
+     *
+     * @param limit 最多返回条数
+     * @param slowOnly 是否只返回慢请求
+     * @param request HTTP请求
+     * @return 阶段耗时记录，新的在前
+     */
+    @GetMapping("/traces")
+    @Operation(summary = "请求阶段耗时", description = "查看最近的慢请求和采样请求的阶段耗时（管理员权限）")
+    public BaseResponse<List<StageTrace>> recentTraces(@RequestParam(defaultValue = "50") Integer limit,
+                                                       @RequestParam(defaultValue = "false") Boolean slowOnly,
+                                                       HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            throw new BusinessException(ErrorCode.NO_AUTH, "缺少管理员权限");
+        }
+        if (limit == null || limit <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        return ResultUtils.success(stageTraceBuffer.recent(limit, Boolean.TRUE.equals(slowOnly)));
+    }
+
     /**
      * 是否为管理员
      *
@@ -540,7 +624,37 @@ public class UserController {
         String sortedTags = tagNameList.stream().sorted().reduce("", (a, b) -> a.isEmpty() ? b : a + "," + b);
         String queryParams = String.format("%s_%d_%d", sortedTags, pageNum, pageSize);
         String hash = DigestUtils.md5DigestAsHex(queryParams.getBytes());
-        return "microde:user:search:tags:" + hash;
+        return searchCacheKeyPrefix() + "tags:" + hash;
+    }
+
+    /**
+     * 获取标签搜索的总数（缓存 60 秒，随搜索缓存代数一起失效）
+     */
+    private long getTagSearchCount(List<String> tagNameList) {
+        String sortedTags = tagNameList.stream().sorted().collect(Collectors.joining(","));
+        String cacheKey = searchCacheKeyPrefix() + "tags:count:" + DigestUtils.md5DigestAsHex(sortedTags.getBytes());
+        ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
+        Object cachedCount = valueOperations.get(cacheKey);
+        cacheMetrics.record(CacheMetrics.TAG_SEARCH_COUNT, cachedCount instanceof Number);
+        if (cachedCount instanceof Number) {
+            return ((Number) cachedCount).longValue();
+        }
+        long count = userService.countUsersByTags(tagNameList);
+        try {
+            valueOperations.set(cacheKey, count, 60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("redis set key error", e);
+        }
+        return count;
+    }
+
+    /**
+     * 用户搜索缓存key前缀，嵌入当前搜索缓存代数
+     * 用户信息变化时递增代数即可让所有搜索缓存失效，无需逐个删除
+     */
+    private String searchCacheKeyPrefix() {
+        long generation = cacheGenerationRegistry.currentGeneration(RedisCacheConstants.NAMESPACE_USER_SEARCH);
+        return RedisCacheConstants.USER_SEARCH_CACHE_KEY_PREFIX + generation + ":";
     }
 
 }
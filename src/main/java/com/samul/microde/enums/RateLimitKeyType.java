@@ -0,0 +1,25 @@
+package com.samul.microde.enums;
+
+/**
+ * 限流维度枚举
+ * 决定限流计数按哪个维度进行隔离
+ *
+ * @author Samul_Alen
+ */
+public enum RateLimitKeyType {
+
+    /**
+     * 按登录用户ID限流，未登录时退化为按IP限流
+     */
+    USER,
+
+    /**
+     * 按会话ID限流，没有会话时退化为按IP限流
+     */
+    SESSION,
+
+    /**
+     * 按客户端IP限流
+     */
+    IP
+}
@@ -4,6 +4,9 @@ import com.samul.microde.common.ErrorCode;
 import com.samul.microde.common.BaseResponse;
 import com.samul.microde.common.ResultUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -17,6 +20,14 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(RateLimitException.class)
+    public ResponseEntity<BaseResponse<?>> rateLimitExceptionHandler(RateLimitException e) {
+        log.warn("rateLimitException: {}", e.getDescription());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ResultUtils.error(e.getCode(), e.getMessage(), e.getDescription()));
+    }
+
     @ExceptionHandler(BusinessException.class)
     public BaseResponse<?> businessExceptionHandler(BusinessException e) {
         log.error("businessException: " + e.getMessage(), e);
@@ -0,0 +1,26 @@
+package com.samul.microde.exception;
+
+import com.samul.microde.common.ErrorCode;
+
+/**
+ * 限流异常
+ * 由全局异常处理器转换为 HTTP 429 并携带 Retry-After 响应头
+ *
+ * @author Samul_Alen
+ */
+public class RateLimitException extends BusinessException {
+
+    /**
+     * 建议客户端等待的秒数
+     */
+    private final long retryAfterSeconds;
+
+    public RateLimitException(long retryAfterSeconds) {
+        super(ErrorCode.TOO_MANY_REQUESTS, "请求过于频繁，请" + retryAfterSeconds + "秒后重试");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,168 @@
+package com.samul.microde.interceptor;
+
+import com.samul.microde.annotation.RateLimited;
+import com.samul.microde.config.RateLimitConfig;
+import com.samul.microde.enums.RateLimitKeyType;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.exception.RateLimitException;
+import com.samul.microde.model.domain.User;
+import com.samul.microde.service.UserService;
+import com.samul.microde.utils.IpUtils;
+import com.samul.microde.utils.RateLimiterUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 接口限流拦截器
+ * 拦截标注了 @RateLimited 的接口，按用户/会话/IP 维度执行固定窗口限流
+ * 超限时抛出 RateLimitException，由全局异常处理器返回 429 + Retry-After
+ *
+ * @author Samul_Alen
+ */
+@Component
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String RATE_LIMIT_KEY_PREFIX = "rate:limit:api:";
+
+    /**
+     * 运行时覆盖规则的 Redis Hash，field 为规则名称，value 为 "limit,window"
+     * 例如：HSET rate:limit:rules user-login "20,60"
+     */
+    private static final String RATE_LIMIT_RULES_KEY = "rate:limit:rules";
+
+    @Resource
+    private RateLimiterUtil rateLimiterUtil;
+
+    @Resource
+    private RateLimitConfig rateLimitConfig;
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Redis 中的覆盖规则本地副本，定时刷新，避免每次请求多一次网络往返
+     */
+    private volatile Map<String, RateLimitConfig.Rule> overrideRules = Collections.emptyMap();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!Boolean.TRUE.equals(rateLimitConfig.getEnabled()) || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+
+        String ruleName = StringUtils.isNotBlank(rateLimited.name())
+                ? rateLimited.name()
+                : handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        int limit = rateLimited.limit();
+        int window = rateLimited.window();
+
+        // 配置文件覆盖注解默认值，Redis 覆盖配置文件
+        RateLimitConfig.Rule rule = rateLimitConfig.getRules().get(ruleName);
+        if (rule != null) {
+            limit = rule.getLimit() != null ? rule.getLimit() : limit;
+            window = rule.getWindow() != null ? rule.getWindow() : window;
+        }
+        rule = overrideRules.get(ruleName);
+        if (rule != null) {
+            limit = rule.getLimit() != null ? rule.getLimit() : limit;
+            window = rule.getWindow() != null ? rule.getWindow() : window;
+        }
+        if (limit <= 0 || window <= 0) {
+            // 限额为0视为关闭该规则
+            return true;
+        }
+
+        String key = RATE_LIMIT_KEY_PREFIX + ruleName + ":" + resolveIdentity(rateLimited.key(), request);
+        long retryAfter = rateLimiterUtil.tryAcquire(key, limit, window);
+        if (retryAfter > 0) {
+            throw new RateLimitException(retryAfter);
+        }
+        return true;
+    }
+
+    /**
+     * 定时从 Redis 刷新覆盖规则
+     * 执行间隔通过 rate-limit.rules-refresh-interval 配置（单位：毫秒）
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.rules-refresh-interval:30000}")
+    public void refreshOverrideRules() {
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(RATE_LIMIT_RULES_KEY);
+            Map<String, RateLimitConfig.Rule> rules = new HashMap<>();
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                String[] parts = String.valueOf(entry.getValue()).split(",");
+                if (parts.length != 2) {
+                    log.warn("限流覆盖规则格式错误，应为 limit,window: {}={}", entry.getKey(), entry.getValue());
+                    continue;
+                }
+                int limit;
+                int window;
+                try {
+                    limit = Integer.parseInt(parts[0].trim());
+                    window = Integer.parseInt(parts[1].trim());
+                } catch (NumberFormatException e) {
+                    log.warn("限流覆盖规则不是整数，应为 limit,window: {}={}", entry.getKey(), entry.getValue());
+                    continue;
+                }
+                if (limit <= 0 || window <= 0) {
+                    log.warn("限流覆盖规则的 limit 和 window 必须大于 0: {}={}", entry.getKey(), entry.getValue());
+                    continue;
+                }
+                RateLimitConfig.Rule rule = new RateLimitConfig.Rule();
+                rule.setLimit(limit);
+                rule.setWindow(window);
+                rules.put(String.valueOf(entry.getKey()), rule);
+            }
+            if (!rules.equals(overrideRules)) {
+                log.info("限流覆盖规则已更新: {}", rules.keySet());
+            }
+            overrideRules = rules;
+        } catch (Exception e) {
+            log.error("刷新限流覆盖规则失败，继续使用上一次的规则", e);
+        }
+    }
+
+    /**
+     * 解析限流维度对应的标识
+     */
+    private String resolveIdentity(RateLimitKeyType keyType, HttpServletRequest request) {
+        switch (keyType) {
+            case USER:
+                try {
+                    User loginUser = userService.getLogininUser(request);
+                    return "user:" + loginUser.getId();
+                } catch (BusinessException e) {
+                    // 未登录时按IP限流
+                    return "ip:" + IpUtils.getClientIp(request, rateLimitConfig.getTrustedProxies());
+                }
+            case SESSION:
+                HttpSession session = request.getSession(false);
+                return session != null ? "session:" + session.getId() : "ip:" + IpUtils.getClientIp(request, rateLimitConfig.getTrustedProxies());
+            case IP:
+            default:
+                return "ip:" + IpUtils.getClientIp(request, rateLimitConfig.getTrustedProxies());
+        }
+    }
+}
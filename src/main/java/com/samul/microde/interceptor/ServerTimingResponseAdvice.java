@@ -0,0 +1,59 @@
+package com.samul.microde.interceptor;
+
+import com.samul.microde.config.StageTraceConfig;
+import com.samul.microde.model.dto.StageTrace;
+import com.samul.microde.service.UserService;
+import com.samul.microde.utils.StageTracer;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.annotation.Resource;
+
+/**
+ * 调试响应头
+ * 开启 stage-trace.debug-header-enabled 后，管理员请求带 X-Debug-Trace: true 时，在响应头 Server-Timing 中返回阶段耗时
+ * 阶段耗时会暴露内部实现，不对普通用户返回
+ * 响应体写出后响应头已提交，拦截器的 afterCompletion 来不及设置，所以在写响应体之前设置
+ *
+ * @author Samul_Alen
+ */
+@RestControllerAdvice
+public class ServerTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String DEBUG_TRACE_HEADER = "X-Debug-Trace";
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Resource
+    private StageTraceConfig stageTraceConfig;
+
+    @Resource
+    private UserService userService;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (Boolean.TRUE.equals(stageTraceConfig.getDebugHeaderEnabled())
+                && "true".equalsIgnoreCase(request.getHeaders().getFirst(DEBUG_TRACE_HEADER))
+                && request instanceof ServletServerHttpRequest
+                && userService.isAdmin(((ServletServerHttpRequest) request).getServletRequest())) {
+            StageTrace trace = StageTracer.snapshot();
+            if (trace != null) {
+                response.getHeaders().set(SERVER_TIMING_HEADER, StageTracer.toServerTiming(trace));
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,65 @@
+package com.samul.microde.interceptor;
+
+import com.samul.microde.config.StageTraceConfig;
+import com.samul.microde.model.dto.StageTrace;
+import com.samul.microde.utils.StageTraceBuffer;
+import com.samul.microde.utils.StageTracer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求阶段追踪拦截器
+ * 请求开始时开启当前线程的 StageTracer，结束时：
+ * 超过慢请求阈值的输出阶段耗时明细并写入环形缓冲区，其余请求按采样率写入
+ *
+ * @author Samul_Alen
+ */
+@Component
+@Slf4j
+public class StageTraceInterceptor implements HandlerInterceptor {
+
+    @Resource
+    private StageTraceConfig stageTraceConfig;
+
+    @Resource
+    private StageTraceBuffer stageTraceBuffer;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (Boolean.TRUE.equals(stageTraceConfig.getEnabled()) && handler instanceof HandlerMethod) {
+            StageTracer.begin(request.getMethod() + " " + request.getRequestURI());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!StageTracer.isActive()) {
+            return;
+        }
+        try {
+            long elapsedNanos = StageTracer.elapsedNanos();
+            boolean slow = elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(stageTraceConfig.getSlowThresholdMillis());
+            if (!slow && ThreadLocalRandom.current().nextDouble() >= stageTraceConfig.getSampleRate()) {
+                return;
+            }
+            StageTrace trace = StageTracer.snapshot();
+            trace.setStatus(response.getStatus());
+            trace.setSlow(slow);
+            if (slow) {
+                log.warn("慢请求: {} {}", trace.getName(), StageTracer.format(trace));
+            }
+            stageTraceBuffer.add(trace);
+        } finally {
+            StageTracer.end();
+        }
+    }
+}
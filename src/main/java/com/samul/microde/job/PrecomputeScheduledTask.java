@@ -1,8 +1,8 @@
 package com.samul.microde.job;
 
 import com.samul.microde.config.ScheduledConfig;
-import com.samul.microde.service.CachePreloadService;
 import com.samul.microde.service.PrecomputeService;
+import com.samul.microde.service.TeamRecommendationService;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
@@ -41,10 +41,10 @@ public class PrecomputeScheduledTask {
     private ScheduledConfig scheduledConfig;
 
     @Resource
-    private CachePreloadService cachePreloadService;
+    private RedissonClient redissonClient;
 
     @Resource
-    private RedissonClient redissonClient;
+    private TeamRecommendationService teamRecommendationService;
 
     /**
      * 全量预计算任务
@@ -74,6 +74,9 @@ public class PrecomputeScheduledTask {
                     precomputeService.precomputeComplement(true);
                     log.info("全量互补度预计算完成");
 
+                    // 重建队伍标签向量
+                    teamRecommendationService.rebuildTeamVectors();
+
                     long elapsedTime = System.currentTimeMillis() - startTime;
                     log.info("全量预计算任务完成！总耗时: {}ms ({}秒)", elapsedTime, elapsedTime / 1000.0);
                 } catch (Exception e) {
@@ -121,6 +124,9 @@ public class PrecomputeScheduledTask {
                     precomputeService.precomputeComplement(false);
                     log.info("增量互补度预计算完成");
 
+                    // 重建队伍标签向量（成员标签变化只在这里同步）
+                    teamRecommendationService.rebuildTeamVectors();
+
                     long elapsedTime = System.currentTimeMillis() - startTime;
                     log.info("增量预计算任务完成！总耗时: {}ms", elapsedTime);
                 } catch (Exception e) {
@@ -180,49 +186,6 @@ public class PrecomputeScheduledTask {
         }
     }
 
-    /**
-     * 缓存清理任务
-     * 通过 scheduled.tasks.cache-cleanup-cron 配置执行时间
-     * 默认：每天凌晨 3:00:00
-     */
-    @Scheduled(cron = "${scheduled.tasks.cache-cleanup-cron:0 0 3 * * ?}")
-    public void cacheCleanup() {
-        if (!scheduledConfig.getCacheCleanupEnabled()) {
-            log.debug("缓存清理任务已禁用，跳过执行");
-            return;
-        }
-
-        RLock lock = redissonClient.getLock(LOCK_KEY_PREFIX + "cache:cleanup");
-        try {
-            if (lock.tryLock(LOCK_WAIT_TIME, LOCK_LEASE_TIME, TimeUnit.MILLISECONDS)) {
-                log.info("成功获取缓存清理任务锁，开始执行...");
-
-                try {
-                    // 清理过期的预计算缓存
-                    // 删除超过配置时间的缓存数据
-                    if (cachePreloadService instanceof com.samul.microde.service.impl.CachePreloadServiceImpl) {
-                        ((com.samul.microde.service.impl.CachePreloadServiceImpl) cachePreloadService)
-                            .cleanupExpiredPrecomputeCache();
-                    }
-
-                    log.info("缓存清理任务完成");
-                } catch (Exception e) {
-                    log.error("缓存清理任务执行失败", e);
-                }
-            } else {
-                log.info("缓存清理任务已在其他实例执行，跳过本次执行");
-            }
-        } catch (InterruptedException e) {
-            log.warn("获取缓存清理任务锁时被中断", e);
-            Thread.currentThread().interrupt();
-        } finally {
-            if (lock.isHeldByCurrentThread()) {
-                lock.unlock();
-                log.info("释放缓存清理任务锁");
-            }
-        }
-    }
-
     /**
      * 应用启动时执行一次增量预计算
      * 确保启动时有可用的推荐数据
@@ -0,0 +1,83 @@
+package com.samul.microde.job;
+
+import com.samul.microde.config.ScheduledConfig;
+import com.samul.microde.service.TeamService;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过期队伍清理定时任务
+ * 分批归档已过期的队伍，每批一个事务，单次执行的批数有上限，剩余的留给下次执行
+ * 使用分布式锁防止多实例重复执行
+ *
+ * @author Samul_Alen
+ */
+@Component
+@Slf4j
+public class TeamExpireSweepTask {
+
+    private static final String LOCK_KEY = "microde:lock:team:expire:sweep";
+
+    /**
+     * 单次执行最多处理的批数
+     */
+    private static final int MAX_BATCHES_PER_RUN = 50;
+
+    @Resource
+    private TeamService teamService;
+
+    @Resource
+    private ScheduledConfig scheduledConfig;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 归档过期队伍
+     * 通过 scheduled.tasks.team-expire-sweep-cron 配置执行时间
+     * 默认：每5分钟执行一次
+     */
+    @Scheduled(cron = "${scheduled.tasks.team-expire-sweep-cron:0 */5 * * * ?}")
+    public void sweepExpiredTeams() {
+        if (!scheduledConfig.getTeamExpireSweepEnabled()) {
+            log.debug("过期队伍清理任务已禁用，跳过执行");
+            return;
+        }
+
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        try {
+            if (!lock.tryLock(0, -1, TimeUnit.MILLISECONDS)) {
+                log.info("过期队伍清理任务已在其他实例执行，跳过本次执行");
+                return;
+            }
+            int batchSize = scheduledConfig.getTeamExpireSweepBatchSize();
+            long startTime = System.currentTimeMillis();
+            int total = 0;
+            for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+                int archived = teamService.archiveExpiredTeams(batchSize);
+                total += archived;
+                if (archived < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("过期队伍清理完成，共归档 {} 个队伍，耗时 {} ms", total, System.currentTimeMillis() - startTime);
+            }
+        } catch (InterruptedException e) {
+            log.warn("获取过期队伍清理任务锁时被中断", e);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("过期队伍清理任务执行失败", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+}
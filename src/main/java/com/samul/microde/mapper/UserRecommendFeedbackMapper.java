@@ -3,6 +3,9 @@ package com.samul.microde.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.samul.microde.model.domain.UserRecommendFeedback;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 用户推荐反馈 Mapper
@@ -11,4 +14,12 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface UserRecommendFeedbackMapper extends BaseMapper<UserRecommendFeedback> {
+
+    /**
+     * 多行插入反馈，同一用户对同一被推荐用户的反馈只保留最新一条
+     *
+     * @param feedbacks 反馈列表
+     * @return 影响行数
+     */
+    int batchUpsert(@Param("feedbacks") List<UserRecommendFeedback> feedbacks);
 }
@@ -2,6 +2,9 @@ package com.samul.microde.mapper;
 
 import com.samul.microde.model.domain.UserTeam;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
 
 /**
 * @author lenovo
@@ -11,6 +14,16 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface UserTeamMapper extends BaseMapper<UserTeam> {
 
+    /**
+     * 插入用户队伍关系，依赖 uniq_userId_teamId 唯一索引
+     * 之前退出过（逻辑删除）的记录直接恢复，单条语句完成，无需先查询
+     *
+     * @param userId   用户ID
+     * @param teamId   队伍ID
+     * @param joinTime 加入时间
+     * @return 影响行数
+     */
+    int upsertMember(@Param("userId") long userId, @Param("teamId") long teamId, @Param("joinTime") Date joinTime);
 }
 
 
@@ -27,11 +27,13 @@ public class UserRecommendFeedback implements Serializable {
     /**
      * 用户ID
      */
+    @TableField("user_id")
     private Long userId;
 
     /**
      * 被推荐的用户ID
      */
+    @TableField("recommended_user_id")
     private Long recommendedUserId;
 
     /**
@@ -45,25 +47,30 @@ public class UserRecommendFeedback implements Serializable {
      * 推荐策略
      * all / skill / complement / activity
      */
+    @TableField("recommend_strategy")
     private String recommendStrategy;
 
     /**
      * 推荐时的得分
      */
+    @TableField("recommend_score")
     private Double recommendScore;
 
     /**
      * 推荐时的匹配类型
      */
+    @TableField("match_type")
     private String matchType;
 
     /**
      * 创建时间
      */
+    @TableField("create_time")
     private Date createTime;
 
     /**
      * 更新时间
      */
+    @TableField("update_time")
     private Date updateTime;
 }
@@ -0,0 +1,31 @@
+package com.samul.microde.model.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 令牌对（token 认证模式下登录、刷新时返回）
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class AuthTokenPair implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 访问令牌，请求时放在 Authorization: Bearer {accessToken}
+     */
+    private String accessToken;
+
+    /**
+     * 访问令牌有效期（秒）
+     */
+    private Long expiresIn;
+
+    /**
+     * 刷新令牌，只能使用一次，使用后换发新的刷新令牌
+     */
+    private String refreshToken;
+}
@@ -0,0 +1,56 @@
+package com.samul.microde.model.dto;
+
+import com.samul.microde.utils.BloomFilterUtils;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 用户推荐偏好
+ * 由推荐反馈在线学习得到，推荐时每个请求只读取一次
+ * 默认值即没有任何反馈时的偏好：权重不调整，不加分，不屏蔽
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class RecommendPreference implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 相似度权重倍数
+     */
+    private double similarityMultiplier = 1.0;
+
+    /**
+     * 互补度权重倍数
+     */
+    private double complementMultiplier = 1.0;
+
+    /**
+     * 被推荐用户ID -> 加分（用户点过"喜欢"的候选）
+     */
+    private Map<Long, Double> boosts = Collections.emptyMap();
+
+    /**
+     * "不感兴趣"候选的布隆过滤器位图
+     */
+    private byte[] dislikeBitmap;
+
+    /**
+     * 候选用户是否被用户标记为不感兴趣（布隆过滤器，可能误判为是，不会漏判）
+     */
+    public boolean isSuppressed(long candidateUserId) {
+        return BloomFilterUtils.mightContain(dislikeBitmap, candidateUserId);
+    }
+
+    /**
+     * 候选用户的加分，没有则为 0
+     */
+    public double boostOf(long candidateUserId) {
+        Double boost = boosts.get(candidateUserId);
+        return boost == null ? 0.0 : boost;
+    }
+}
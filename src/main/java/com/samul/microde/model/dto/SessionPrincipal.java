@@ -0,0 +1,37 @@
+package com.samul.microde.model.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 会话登录主体
+ * Session 中只保存鉴权需要的最少字段，完整资料按需从用户快照读取
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class SessionPrincipal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private Long id;
+
+    /**
+     * 用户角色 0 - 普通用户 1 - 管理员
+     */
+    private Integer userRole;
+
+    /**
+     * 状态 0 - 正常
+     */
+    private Integer userStatus;
+
+    /**
+     * 登录时的会话版本号，与 Redis 中的当前版本不一致时登录态失效
+     */
+    private Long version;
+}
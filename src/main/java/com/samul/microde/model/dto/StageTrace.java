@@ -0,0 +1,53 @@
+package com.samul.microde.model.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 一次请求的阶段耗时快照
+ * 由 StageTracer 在请求结束时生成，只有慢请求和被采样的请求才会生成
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class StageTrace implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 请求名称，如 POST /api/user/recommend/smart
+     */
+    private String name;
+
+    /**
+     * 请求开始时间（毫秒时间戳）
+     */
+    private long startTime;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private double totalMillis;
+
+    /**
+     * 阶段名称 -> 耗时（毫秒），按首次记录的顺序
+     */
+    private Map<String, Double> stages;
+
+    /**
+     * 计数项名称 -> 次数，如各缓存的读取次数
+     */
+    private Map<String, Integer> counters;
+
+    /**
+     * HTTP 状态码
+     */
+    private int status;
+
+    /**
+     * 是否超过慢请求阈值
+     */
+    private boolean slow;
+}
@@ -0,0 +1,39 @@
+package com.samul.microde.model.dto;
+
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.model.domain.User;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 队伍详情（含成员数、成员预览和当前用户的加入状态）
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class TeamDetailResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 队伍信息（不含密码）
+     */
+    private Team team;
+
+    /**
+     * 成员数量
+     */
+    private Integer memberCount;
+
+    /**
+     * 成员预览（已脱敏，按加入时间排序）
+     */
+    private List<User> memberPreview;
+
+    /**
+     * 当前用户是否已加入
+     */
+    private Boolean hasJoined;
+}
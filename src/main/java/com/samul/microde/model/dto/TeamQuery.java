@@ -32,4 +32,14 @@ public class TeamQuery extends PageRequest {
      */
     private Integer status;
 
+    /**
+     * 游标分页：上一页返回的游标，为空表示第一页
+     */
+    private String cursor;
+
+    /**
+     * 游标分页：是否返回总数（近似值，来自队伍读模型）
+     */
+    private Boolean withTotal;
+
 }
@@ -0,0 +1,78 @@
+package com.samul.microde.model.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 队伍推荐结果
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class TeamRecommendationResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 队伍ID
+     */
+    private Long teamId;
+
+    /**
+     * 队伍名称
+     */
+    private String name;
+
+    /**
+     * 描述
+     */
+    private String description;
+
+    /**
+     * 最大人数
+     */
+    private Integer maxNum;
+
+    /**
+     * 当前成员数量
+     */
+    private Integer memberCount;
+
+    /**
+     * 0 - 公开，2 - 加密（私有队伍不参与推荐）
+     */
+    private Integer status;
+
+    /**
+     * 过期时间
+     */
+    private Date expireTime;
+
+    /**
+     * 队伍成员标签
+     */
+    private List<String> tags;
+
+    /**
+     * 标签相似度 (0-1)
+     */
+    private Double similarity;
+
+    /**
+     * 技能互补度 (0-1)
+     */
+    private Double complement;
+
+    /**
+     * 综合得分 (0-1)
+     */
+    private Double score;
+
+    /**
+     * 推荐理由列表
+     */
+    private List<String> reasons;
+}
@@ -0,0 +1,33 @@
+package com.samul.microde.model.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 队伍标签向量
+ * 由队伍全部成员的标签聚合而成，用于队伍推荐
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class TeamTagVector implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 队伍ID
+     */
+    private Long teamId;
+
+    /**
+     * 成员数量
+     */
+    private Integer memberCount;
+
+    /**
+     * 成员标签（去重，按拥有该标签的成员数倒序）
+     */
+    private List<String> tags;
+}
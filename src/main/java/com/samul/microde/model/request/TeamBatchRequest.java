@@ -0,0 +1,27 @@
+package com.samul.microde.model.request;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量获取队伍详情请求
+ * @author Samul_Alen
+ */
+@Data
+public class TeamBatchRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 队伍id列表
+     */
+    private List<Long> teamIds;
+
+    /**
+     * 每个队伍返回的成员预览数量（默认 5）
+     */
+    private Integer previewSize;
+
+}
@@ -0,0 +1,21 @@
+package com.samul.microde.model.request;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 刷新令牌请求体
+ *
+ * @author Samul_Alen
+ */
+@Data
+public class TokenRefreshRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 刷新令牌
+     */
+    private String refreshToken;
+}
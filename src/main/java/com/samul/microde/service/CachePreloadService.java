@@ -3,7 +3,10 @@ package com.samul.microde.service;
 import com.samul.microde.model.domain.Team;
 import com.samul.microde.model.domain.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 缓存预热服务
@@ -30,6 +33,15 @@ public interface CachePreloadService {
      */
     List<User> getAllUsersFromCache();
 
+    /**
+     * 逐个遍历Redis中的所有用户（HSCAN 分批读取），不在内存中保留整份用户列表
+     * 缓存为空时先从数据库同步；读取失败时抛出异常，避免调用方拿到不完整的数据
+     *
+     * @param consumer 每个用户调用一次
+     * @return 遍历的用户数
+     */
+    int scanUsersFromCache(Consumer<User> consumer);
+
     /**
      * 从Redis获取所有队伍
      */
@@ -40,6 +52,15 @@ public interface CachePreloadService {
      */
     User getUserByIdFromCache(Long userId);
 
+    /**
+     * 从Redis根据ID批量获取用户（一次 HMGET）
+     * 只返回缓存命中的用户，未命中的由调用方回源数据库
+     *
+     * @param userIds 用户ID
+     * @return 用户ID -> 用户（未脱敏）
+     */
+    Map<Long, User> getUsersByIdsFromCache(Collection<Long> userIds);
+
     /**
      * 从Redis根据ID获取单个队伍
      */
@@ -0,0 +1,20 @@
+package com.samul.microde.service;
+
+import com.samul.microde.model.domain.UserRecommendFeedback;
+
+/**
+ * 推荐反馈写入服务
+ * 请求线程只把反馈放入有界内存队列，后台线程合并后批量写入数据库
+ *
+ * @author Samul_Alen
+ */
+public interface FeedbackIngestionService {
+
+    /**
+     * 提交一条反馈，不等待落库
+     *
+     * @param feedback 反馈
+     * @return 是否已放入队列，队列已满时返回 false
+     */
+    boolean submit(UserRecommendFeedback feedback);
+}
@@ -0,0 +1,53 @@
+package com.samul.microde.service;
+
+/**
+ * 密码哈希服务
+ * 哈希计算在独立的有界线程池中执行，登录高峰时不会占满请求线程的 CPU
+ *
+ * @author Samul_Alen
+ */
+public interface PasswordService {
+
+    /**
+     * 计算密码哈希（每次使用新的随机盐）
+     *
+     * @param rawPassword 明文密码
+     * @return 可直接存库的哈希字符串
+     */
+    String encode(String rawPassword);
+
+    /**
+     * 校验密码
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 库中保存的哈希，兼容旧版 MD5 格式（校验失败时耗时与 PBKDF2 一致）
+     * @return 是否匹配
+     */
+    boolean matches(String rawPassword, String encodedPassword);
+
+    /**
+     * 账号不存在时执行一次同等耗时的校验（与启动时生成的哈希比对，结果总是 false），
+     * 避免通过登录响应时间判断账号是否存在
+     *
+     * @param rawPassword 明文密码
+     */
+    void dummyMatches(String rawPassword);
+
+    /**
+     * 是否需要重新哈希（旧版 MD5 或迭代次数低于当前配置）
+     *
+     * @param encodedPassword 库中保存的哈希
+     * @return 是否需要升级
+     */
+    boolean needsRehash(String encodedPassword);
+
+    /**
+     * 异步重新哈希并更新用户密码，线程池繁忙时放弃，下次登录再试
+     * 库中密码已不是 verifiedPassword（期间修改过密码）时不更新
+     *
+     * @param userId           用户ID
+     * @param rawPassword      明文密码
+     * @param verifiedPassword 本次校验通过的库中哈希
+     */
+    void rehashAsync(long userId, String rawPassword, String verifiedPassword);
+}
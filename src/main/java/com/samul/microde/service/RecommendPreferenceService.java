@@ -0,0 +1,30 @@
+package com.samul.microde.service;
+
+import com.samul.microde.model.domain.UserRecommendFeedback;
+import com.samul.microde.model.dto.RecommendPreference;
+
+import java.util.List;
+
+/**
+ * 推荐偏好服务
+ * 根据推荐反馈在线调整每个用户的打分权重与候选加分，"不感兴趣"的候选用布隆过滤器屏蔽
+ *
+ * @author Samul_Alen
+ */
+public interface RecommendPreferenceService {
+
+    /**
+     * 学习一批已落库的推荐反馈
+     *
+     * @param feedbacks 推荐反馈（同一批内每对用户只有一条）
+     */
+    void applyFeedback(List<UserRecommendFeedback> feedbacks);
+
+    /**
+     * 读取用户推荐偏好（一次 Redis 往返）
+     *
+     * @param userId 用户ID
+     * @return 推荐偏好，没有反馈或读取失败时返回默认偏好
+     */
+    RecommendPreference getPreference(long userId);
+}
@@ -0,0 +1,58 @@
+package com.samul.microde.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 队伍成员名额服务
+ * 在 Redis 中维护每个队伍的成员集合，加入时用 Lua 脚本原子地校验并占用名额
+ * 成员集合同时作为队伍成员名单缓存，由加入、退出流程维护
+ *
+ * @author Samul_Alen
+ */
+public interface TeamMembershipService {
+
+    /**
+     * 原子地占用一个名额
+     * 已加入时抛出"已加入该队伍"，已满时抛出"队伍已满"
+     *
+     * @param teamId   队伍ID
+     * @param userId   用户ID
+     * @param maxNum   队伍最大人数
+     * @param joinTime 加入时间（毫秒）
+     */
+    void reserve(long teamId, long userId, int maxNum, long joinTime);
+
+    /**
+     * 释放名额（退出队伍，或占用后落库失败时补偿）
+     *
+     * @param teamId 队伍ID
+     * @param userId 用户ID
+     */
+    void release(long teamId, long userId);
+
+    /**
+     * 获取队伍成员ID，按加入时间升序
+     * 成员集合不存在时从数据库重建
+     *
+     * @param teamId 队伍ID
+     * @return 成员ID列表
+     */
+    List<Long> getMemberIds(long teamId);
+
+    /**
+     * 批量获取多个队伍的成员ID（一次流水线读取），未加载的队伍用一次 IN 查询从数据库重建
+     *
+     * @param teamIds 队伍ID
+     * @return 队伍ID -> 成员ID列表（按加入时间升序）
+     */
+    Map<Long, List<Long>> getMemberIds(Collection<Long> teamIds);
+
+    /**
+     * 删除队伍的成员集合（队伍删除时调用，下次访问从数据库重建）
+     *
+     * @param teamId 队伍ID
+     */
+    void evictTeam(long teamId);
+}
@@ -0,0 +1,26 @@
+package com.samul.microde.service;
+
+/**
+ * 用户创建队伍配额服务
+ * 每个用户一个 Redis 计数器，用 Lua 脚本原子地校验并占用配额，不同用户之间互不阻塞
+ *
+ * @author Samul_Alen
+ */
+public interface TeamQuotaService {
+
+    /**
+     * 占用一个创建配额，超出上限时抛出异常
+     * 在事务中调用时，事务回滚后自动归还
+     *
+     * @param userId 用户ID
+     * @param limit  最多可创建的队伍数
+     */
+    void reserve(long userId, int limit);
+
+    /**
+     * 归还一个创建配额（删除队伍、创建失败时调用）
+     *
+     * @param userId 用户ID
+     */
+    void release(long userId);
+}
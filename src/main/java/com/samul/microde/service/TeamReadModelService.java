@@ -0,0 +1,85 @@
+package com.samul.microde.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.model.dto.TeamQuery;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 队伍读模型
+ * Redis 中维护队伍快照（Hash）和按创建时间排序的队伍ID索引（ZSet，可按状态过滤）
+ * 列表查询只读 Redis，写操作只增量更新受影响的队伍
+ * 已过期的队伍不出现在读模型中
+ *
+ * @author Samul_Alen
+ */
+public interface TeamReadModelService {
+
+    /**
+     * 从数据库全量重建快照和索引（先写临时 Key 再 RENAME，重建期间读请求不受影响）
+     */
+    void rebuild();
+
+    /**
+     * 队伍新增或修改后调用，从数据库读取最新数据并更新快照和索引
+     *
+     * @param teamId 队伍ID
+     */
+    void onTeamSaved(long teamId);
+
+    /**
+     * 队伍删除后调用，从快照和索引中移除
+     *
+     * @param teamId 队伍ID
+     */
+    void onTeamRemoved(long teamId);
+
+    /**
+     * 分页查询队伍，按创建时间倒序，不返回队伍密码
+     *
+     * @param teamQuery 查询条件（各字段为等值过滤），每页最多 100 条
+     * @return 分页结果
+     */
+    Page<Team> listTeams(TeamQuery teamQuery);
+
+    /**
+     * 查询全部满足条件的队伍，按创建时间倒序，不返回队伍密码
+     *
+     * @param teamQuery 查询条件（各字段为等值过滤），忽略分页参数
+     * @return 队伍列表
+     */
+    List<Team> listAllTeams(TeamQuery teamQuery);
+
+    /**
+     * 统计满足条件的队伍数（读索引，不查数据库）
+     *
+     * @param teamQuery 查询条件（各字段为等值过滤）
+     * @return 队伍数
+     */
+    long countTeams(TeamQuery teamQuery);
+
+    /**
+     * 从快照获取单个队伍
+     *
+     * @param teamId 队伍ID
+     * @return 队伍，不存在时返回 null
+     */
+    Team getTeam(long teamId);
+
+    /**
+     * 从快照批量获取队伍（一次 HMGET），结果顺序与入参一致，不存在的跳过
+     *
+     * @param teamIds 队伍ID
+     * @return 队伍列表
+     */
+    List<Team> getTeams(Collection<Long> teamIds);
+
+    /**
+     * 获取快照中的全部队伍
+     *
+     * @return 队伍列表
+     */
+    List<Team> getAllTeams();
+}
@@ -0,0 +1,44 @@
+package com.samul.microde.service;
+
+import com.samul.microde.model.domain.User;
+import com.samul.microde.model.dto.TeamRecommendationResult;
+
+import java.util.List;
+
+/**
+ * 队伍推荐服务
+ * 每个队伍预计算一个标签向量（成员标签聚合），存入 Redis Hash
+ * 推荐时只读取预计算的向量，用与用户推荐相同的 Jaccard 相似度和技能互补度打分
+ *
+ * @author Samul_Alen
+ */
+public interface TeamRecommendationService {
+
+    /**
+     * 全量重建所有队伍的标签向量（定时任务调用）
+     */
+    void rebuildTeamVectors();
+
+    /**
+     * 队伍成员变化后（创建、加入、退出）重新计算该队伍的标签向量
+     *
+     * @param teamId 队伍ID
+     */
+    void onMembershipChanged(long teamId);
+
+    /**
+     * 队伍删除或归档后移除其标签向量
+     *
+     * @param teamId 队伍ID
+     */
+    void onTeamRemoved(long teamId);
+
+    /**
+     * 为用户推荐队伍，不包含已加入的队伍、私有队伍和已满的队伍
+     *
+     * @param loginUser 当前登录用户
+     * @param topK      返回数量
+     * @return 按综合得分倒序的推荐结果
+     */
+    List<TeamRecommendationResult> recommendTeams(User loginUser, int topK);
+}
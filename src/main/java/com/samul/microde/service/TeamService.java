@@ -1,8 +1,10 @@
 package com.samul.microde.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.samul.microde.common.CursorPage;
 import com.samul.microde.model.domain.Team;
 import com.samul.microde.model.domain.User;
+import com.samul.microde.model.dto.TeamQuery;
 
 /**
 * @author Samul_Alen
@@ -19,4 +21,28 @@ public interface TeamService extends IService<Team> {
      */
     long addTeam(Team team, User loginUser);
 
+    /**
+     * 删除队伍，并归还队长的创建配额
+     *
+     * @param id 队伍ID
+     * @return 是否删除成功
+     */
+    boolean deleteTeam(long id);
+
+    /**
+     * 归档一批已过期的队伍（逻辑删除队伍及其成员关系，归还队长的创建配额）
+     *
+     * @param batchSize 本批最多归档的队伍数
+     * @return 本批归档的队伍数
+     */
+    int archiveExpiredTeams(int batchSize);
+
+    /**
+     * 游标分页查询队伍（按 id 倒序，WHERE id < 游标 LIMIT n，不执行 COUNT），不返回已过期队伍和队伍密码
+     *
+     * @param teamQuery 查询条件（各字段为等值过滤），pageSize 为每页数量
+     * @return 游标分页结果
+     */
+    CursorPage<Team> listTeamsByCursor(TeamQuery teamQuery);
+
 }
@@ -3,6 +3,7 @@ package com.samul.microde.service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.samul.microde.model.domain.User;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.samul.microde.common.CursorPage;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -64,6 +65,24 @@ public interface UserService extends IService<User> {
      */
     Page<User> searchUserByTags(List<String> tagNameList, long pageNum, long pageSize);
 
+    /**
+     * 根据标签游标分页搜索用户（按 id 倒序，WHERE id < 游标 LIMIT n，不执行 COUNT）
+     *
+     * @param tagNameList 用户要拥有的标签
+     * @param cursor      上一页返回的游标，为空表示第一页
+     * @param pageSize    每页数量
+     * @return 游标分页结果（已脱敏，不含总数）
+     */
+    CursorPage<User> searchUserByTagsCursor(List<String> tagNameList, String cursor, int pageSize);
+
+    /**
+     * 统计拥有全部指定标签的用户数（近似值，按标签模糊匹配）
+     *
+     * @param tagNameList 用户要拥有的标签
+     * @return 用户数
+     */
+    long countUsersByTags(List<String> tagNameList);
+
     /**
      *  用户信息修改
      * @param user
@@ -72,7 +91,7 @@ public interface UserService extends IService<User> {
     int updateUser(User user,User loginUser);
 
     /**
-     *  获取当前用户信息
+     *  获取当前用户信息（只包含 id、角色、状态）
      * @param request
      * @return
      */
@@ -1,8 +1,12 @@
 package com.samul.microde.service;
 
+import com.samul.microde.model.domain.User;
 import com.samul.microde.model.domain.UserTeam;
+import com.samul.microde.model.dto.TeamDetailResult;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.List;
+
 /**
 * @author Samul_Alen
 * @description 针对表【user_team(用户队伍关系)】的数据库操作Service
@@ -10,4 +14,41 @@ import com.baomidou.mybatisplus.extension.service.IService;
 */
 public interface UserTeamService extends IService<UserTeam> {
 
+    /**
+     * 加入队伍
+     *
+     * @param teamId    队伍ID
+     * @param password  加密队伍的密码
+     * @param loginUser 当前登录用户
+     */
+    void joinTeam(long teamId, String password, User loginUser);
+
+    /**
+     * 退出队伍
+     *
+     * @param teamId    队伍ID
+     * @param loginUser 当前登录用户
+     */
+    void quitTeam(long teamId, User loginUser);
+
+    /**
+     * 获取队伍成员列表（已脱敏，按加入时间排序）
+     * 加密队伍：只有队长和已加入的成员能查看所有成员，其他人只能看到队长
+     *
+     * @param teamId    队伍ID
+     * @param loginUser 当前登录用户
+     * @return 成员列表
+     */
+    List<User> listTeamMembers(long teamId, User loginUser);
+
+    /**
+     * 批量获取队伍详情：队伍信息、成员数、成员预览和当前用户的加入状态
+     * 队伍、成员名单、用户均为批量读取，不随队伍数量增加请求次数
+     *
+     * @param teamIds     队伍ID（按入参顺序返回，不存在的跳过）
+     * @param previewSize 每个队伍的成员预览数量
+     * @param loginUser   当前登录用户
+     * @return 队伍详情列表
+     */
+    List<TeamDetailResult> listTeamDetails(List<Long> teamIds, int previewSize, User loginUser);
 }
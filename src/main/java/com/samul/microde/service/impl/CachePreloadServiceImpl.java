@@ -1,27 +1,31 @@
 package com.samul.microde.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.samul.microde.cache.CacheMetrics;
 import com.samul.microde.config.ScheduledConfig;
-import com.samul.microde.constant.RedisCacheConstants;
 import com.samul.microde.model.domain.Team;
 import com.samul.microde.model.domain.User;
 import com.samul.microde.service.CachePreloadService;
-import com.samul.microde.service.TeamService;
+import com.samul.microde.service.TeamReadModelService;
 import com.samul.microde.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * 缓存预热服务实现
@@ -34,9 +38,11 @@ import java.util.concurrent.TimeUnit;
 public class CachePreloadServiceImpl implements CachePreloadService {
 
     private static final String ALL_USERS_CACHE_KEY = "microde:users:all";
-    private static final String ALL_TEAMS_CACHE_KEY = "microde:teams:all";
     private static final long CACHE_EXPIRE_MINUTES = 10; // 缓存10分钟
 
+    // HSCAN 每批读取的用户数
+    private static final int USER_SCAN_BATCH_SIZE = 500;
+
     // 分布式锁的 key 前缀
     private static final String LOCK_KEY_PREFIX = "microde:lock:";
 
@@ -50,7 +56,7 @@ public class CachePreloadServiceImpl implements CachePreloadService {
     private UserService userService;
 
     @Resource
-    private TeamService teamService;
+    private TeamReadModelService teamReadModelService;
 
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
@@ -61,6 +67,9 @@ public class CachePreloadServiceImpl implements CachePreloadService {
     @Resource
     private RedissonClient redissonClient;
 
+    @Resource
+    private CacheMetrics cacheMetrics;
+
     /**
      * 应用启动时自动执行预热
      */
@@ -148,31 +157,8 @@ public class CachePreloadServiceImpl implements CachePreloadService {
 
     @Override
     public void preloadAllTeams() {
-        log.info("开始预热队伍数据到Redis...");
-        long startTime = System.currentTimeMillis();
-
-        // 查询所有队伍
-        List<Team> allTeams = teamService.list();
-
-        if (allTeams.isEmpty()) {
-            log.warn("数据库中没有队伍数据");
-            return;
-        }
-
-        // 使用 Redis Hash 存储所有队伍
-        // key: microde:teams:all
-        // field: teamId, value: Team对象
-        redisTemplate.delete(ALL_TEAMS_CACHE_KEY);
-
-        for (Team team : allTeams) {
-            redisTemplate.opsForHash().put(ALL_TEAMS_CACHE_KEY, team.getId().toString(), team);
-        }
-
-        // 设置过期时间
-        redisTemplate.expire(ALL_TEAMS_CACHE_KEY, CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES);
-
-        long endTime = System.currentTimeMillis();
-        log.info("队伍数据预热完成！共加载 {} 个队伍，耗时 {} ms", allTeams.size(), endTime - startTime);
+        // 队伍快照与索引由队伍读模型统一维护
+        teamReadModelService.rebuild();
     }
 
     @Override
@@ -180,6 +166,7 @@ public class CachePreloadServiceImpl implements CachePreloadService {
         try {
             Map<Object, Object> userMap = redisTemplate.opsForHash().entries(ALL_USERS_CACHE_KEY);
 
+            cacheMetrics.record(CacheMetrics.USERS, !userMap.isEmpty());
             if (userMap.isEmpty()) {
                 log.warn("Redis中没有用户缓存，尝试从数据库加载...");
                 syncUsersToRedis();
@@ -196,29 +183,49 @@ public class CachePreloadServiceImpl implements CachePreloadService {
             log.debug("从Redis获取到 {} 个用户", userList.size());
             return userList;
         } catch (Exception e) {
+            cacheMetrics.error(CacheMetrics.USERS);
             log.error("从Redis获取用户失败", e);
             return new ArrayList<>();
         }
     }
 
     @Override
-    public List<Team> getAllTeamsFromCache() {
+    public int scanUsersFromCache(Consumer<User> consumer) {
         try {
-            Map<Object, Object> teamMap = redisTemplate.opsForHash().entries(ALL_TEAMS_CACHE_KEY);
-
-            if (teamMap.isEmpty()) {
-                log.warn("Redis中没有队伍缓存，尝试从数据库加载...");
-                syncTeamsToRedis();
-                teamMap = redisTemplate.opsForHash().entries(ALL_TEAMS_CACHE_KEY);
+            int count = scanUsers(consumer);
+            cacheMetrics.record(CacheMetrics.USERS, count > 0);
+            if (count == 0) {
+                log.warn("Redis中没有用户缓存，尝试从数据库加载...");
+                syncUsersToRedis();
+                count = scanUsers(consumer);
             }
+            log.debug("从Redis遍历了 {} 个用户", count);
+            return count;
+        } catch (RuntimeException e) {
+            cacheMetrics.error(CacheMetrics.USERS);
+            throw e;
+        }
+    }
 
-            List<Team> teamList = new ArrayList<>();
-            for (Object value : teamMap.values()) {
-                if (value instanceof Team) {
-                    teamList.add((Team) value);
+    private int scanUsers(Consumer<User> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().count(USER_SCAN_BATCH_SIZE).build();
+        int count = 0;
+        try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(ALL_USERS_CACHE_KEY, options)) {
+            while (cursor.hasNext()) {
+                Object value = cursor.next().getValue();
+                if (value instanceof User) {
+                    consumer.accept((User) value);
+                    count++;
                 }
             }
+        }
+        return count;
+    }
 
+    @Override
+    public List<Team> getAllTeamsFromCache() {
+        try {
+            List<Team> teamList = teamReadModelService.getAllTeams();
             log.debug("从Redis获取到 {} 个队伍", teamList.size());
             return teamList;
         } catch (Exception e) {
@@ -234,29 +241,49 @@ public class CachePreloadServiceImpl implements CachePreloadService {
         }
         try {
             Object userObj = redisTemplate.opsForHash().get(ALL_USERS_CACHE_KEY, userId.toString());
+            cacheMetrics.record(CacheMetrics.USERS, userObj instanceof User);
             if (userObj instanceof User) {
                 return (User) userObj;
             }
         } catch (Exception e) {
+            cacheMetrics.error(CacheMetrics.USERS);
             log.error("从Redis获取用户失败，userId: {}", userId, e);
         }
         return null;
     }
 
     @Override
-    public Team getTeamByIdFromCache(Long teamId) {
-        if (teamId == null) {
-            return null;
+    public Map<Long, User> getUsersByIdsFromCache(Collection<Long> userIds) {
+        Map<Long, User> userMap = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return userMap;
         }
         try {
-            Object teamObj = redisTemplate.opsForHash().get(ALL_TEAMS_CACHE_KEY, teamId.toString());
-            if (teamObj instanceof Team) {
-                return (Team) teamObj;
+            List<Object> fields = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                fields.add(String.valueOf(userId));
+            }
+            List<Object> values = redisTemplate.opsForHash().multiGet(ALL_USERS_CACHE_KEY, fields);
+            for (Object value : values) {
+                if (value instanceof User) {
+                    User user = (User) value;
+                    userMap.put(user.getId(), user);
+                }
             }
+            cacheMetrics.record(CacheMetrics.USERS, userMap.size(), fields.size() - userMap.size());
         } catch (Exception e) {
-            log.error("从Redis获取队伍失败，teamId: {}", teamId, e);
+            cacheMetrics.error(CacheMetrics.USERS);
+            log.error("从Redis批量获取用户失败，userIds: {}", userIds, e);
         }
-        return null;
+        return userMap;
+    }
+
+    @Override
+    public Team getTeamByIdFromCache(Long teamId) {
+        if (teamId == null) {
+            return null;
+        }
+        return teamReadModelService.getTeam(teamId);
     }
 
     @Override
@@ -270,63 +297,4 @@ public class CachePreloadServiceImpl implements CachePreloadService {
         log.info("开始同步数据库队伍到Redis...");
         preloadAllTeams();
     }
-
-    /**
-     * 清理过期的预计算缓存
-     * 删除超过配置时间的缓存数据
-     */
-    public void cleanupExpiredPrecomputeCache() {
-        try {
-            int deletedCount = 0;
-
-            // 1. 清理推荐结果缓存 (microde:recommend:*)
-            String recommendPattern = RedisCacheConstants.RECOMMEND_CACHE_KEY_PREFIX + "*";
-            Set<String> recommendKeys = redisTemplate.keys(recommendPattern);
-            if (recommendKeys != null && !recommendKeys.isEmpty()) {
-                long count = redisTemplate.delete(recommendKeys);
-                deletedCount += count;
-                log.info("清理推荐结果缓存: {} 个", count);
-            }
-
-            // 2. 清理用户相似度缓存 (microde:similarity:*)
-            String similarityPattern = "microde:similarity:*";
-            Set<String> similarityKeys = redisTemplate.keys(similarityPattern);
-            if (similarityKeys != null && !similarityKeys.isEmpty()) {
-                long count = redisTemplate.delete(similarityKeys);
-                deletedCount += count;
-                log.info("清理用户相似度缓存: {} 个", count);
-            }
-
-            // 3. 清理用户互补度缓存 (microde:complement:*)
-            String complementPattern = "microde:complement:*";
-            Set<String> complementKeys = redisTemplate.keys(complementPattern);
-            if (complementKeys != null && !complementKeys.isEmpty()) {
-                long count = redisTemplate.delete(complementKeys);
-                deletedCount += count;
-                log.info("清理用户互补度缓存: {} 个", count);
-            }
-
-            // 4. 清理用户搜索缓存 (microde:user:search:*)
-            String searchPattern = "microde:user:search:*";
-            Set<String> searchKeys = redisTemplate.keys(searchPattern);
-            if (searchKeys != null && !searchKeys.isEmpty()) {
-                long count = redisTemplate.delete(searchKeys);
-                deletedCount += count;
-                log.info("清理用户搜索缓存: {} 个", count);
-            }
-
-            // 5. 清理当前用户缓存 (microde:user:current:*) - 这些会在下次登录时重建
-            String currentPattern = "microde:user:current:*";
-            Set<String> currentKeys = redisTemplate.keys(currentPattern);
-            if (currentKeys != null && !currentKeys.isEmpty()) {
-                long count = redisTemplate.delete(currentKeys);
-                deletedCount += count;
-                log.info("清理当前用户缓存: {} 个", count);
-            }
-
-            log.info("预计算缓存清理完成，共清理 {} 个缓存键", deletedCount);
-        } catch (Exception e) {
-            log.error("清理预计算缓存失败", e);
-        }
-    }
 }
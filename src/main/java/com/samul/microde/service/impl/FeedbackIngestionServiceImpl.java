@@ -0,0 +1,150 @@
+package com.samul.microde.service.impl;
+
+import com.samul.microde.config.FeedbackConfig;
+import com.samul.microde.mapper.UserRecommendFeedbackMapper;
+import com.samul.microde.model.domain.UserRecommendFeedback;
+import com.samul.microde.service.FeedbackIngestionService;
+import com.samul.microde.service.RecommendPreferenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 推荐反馈写入服务实现
+ * 1. 请求线程 offer 到有界队列，队列满时立即返回，不阻塞请求
+ * 2. 单个后台线程凑满一批或等待超过刷新间隔后写库
+ * 3. 同一批内按 (用户, 被推荐用户) 去重，保留最新一条，再用一条多行 upsert 写入
+ * 4. 写入成功后交给推荐偏好服务在线学习
+ * 应用关闭时由写线程写完队列中剩余的反馈
+ *
+ * @author Samul_Alen
+ */
+@Service
+@Slf4j
+public class FeedbackIngestionServiceImpl implements FeedbackIngestionService {
+
+    @Resource
+    private FeedbackConfig feedbackConfig;
+
+    @Resource
+    private UserRecommendFeedbackMapper userRecommendFeedbackMapper;
+
+    @Resource
+    private RecommendPreferenceService recommendPreferenceService;
+
+    private BlockingQueue<UserRecommendFeedback> queue;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(feedbackConfig.getQueueCapacity());
+        running = true;
+        writerThread = new Thread(this::writeLoop, "feedback-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 剩余反馈只由写线程写完，这里不再消费队列，避免与写线程并发 drain
+        if (writerThread.isAlive()) {
+            log.warn("推荐反馈写线程未在 5 秒内退出，队列中还有 {} 条反馈", queue.size());
+        }
+    }
+
+    @Override
+    public boolean submit(UserRecommendFeedback feedback) {
+        boolean accepted = queue.offer(feedback);
+        if (!accepted) {
+            log.warn("推荐反馈队列已满，丢弃反馈: userId={}, recommendedUserId={}",
+                    feedback.getUserId(), feedback.getRecommendedUserId());
+        }
+        return accepted;
+    }
+
+    private void writeLoop() {
+        int batchSize = feedbackConfig.getBatchSize();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(feedbackConfig.getFlushIntervalMillis());
+        List<UserRecommendFeedback> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // 阻塞等待第一条，之后在刷新间隔内尽量凑满一批
+                UserRecommendFeedback first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    UserRecommendFeedback next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 关闭时被中断，写完当前批次后退出循环
+                flush(batch);
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        // 退出前写完队列中剩余的反馈
+        List<UserRecommendFeedback> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+
+    private void flush(List<UserRecommendFeedback> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, UserRecommendFeedback> deduped = new LinkedHashMap<>(batch.size() * 2);
+        for (UserRecommendFeedback feedback : batch) {
+            deduped.put(feedback.getUserId() + ":" + feedback.getRecommendedUserId(), feedback);
+        }
+        List<UserRecommendFeedback> feedbacks = new ArrayList<>(deduped.values());
+        try {
+            userRecommendFeedbackMapper.batchUpsert(feedbacks);
+            log.debug("批量写入推荐反馈 {} 条（合并前 {} 条）", deduped.size(), batch.size());
+        } catch (Exception e) {
+            log.error("批量写入推荐反馈失败，丢弃 {} 条", deduped.size(), e);
+            return;
+        }
+        // 落库成功后再学习偏好，失败不影响已落库的反馈
+        try {
+            recommendPreferenceService.applyFeedback(feedbacks);
+        } catch (Exception e) {
+            log.warn("更新推荐偏好失败", e);
+        }
+    }
+}
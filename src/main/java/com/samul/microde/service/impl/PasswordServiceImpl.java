@@ -0,0 +1,135 @@
+package com.samul.microde.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.config.PasswordConfig;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.mapper.UserMapper;
+import com.samul.microde.model.domain.User;
+import com.samul.microde.service.PasswordService;
+import com.samul.microde.utils.Pbkdf2PasswordHasher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 密码哈希服务实现
+ * 使用 PBKDF2-HMAC-SHA256 + 每用户随机盐，兼容旧版 MD5 并在登录成功后自动升级
+ *
+ * @author Samul_Alen
+ */
+@Service
+@Slf4j
+public class PasswordServiceImpl implements PasswordService {
+
+    @Resource
+    private PasswordConfig passwordConfig;
+
+    @Resource
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+
+    @Resource
+    private UserMapper userMapper;
+
+    private Pbkdf2PasswordHasher hasher;
+
+    /**
+     * 账号不存在或旧版 MD5 校验失败时用于比对的哈希，迭代次数与当前配置一致，耗时与真实校验相同
+     */
+    private String dummyHash;
+
+    @PostConstruct
+    public void init() {
+        hasher = new Pbkdf2PasswordHasher(passwordConfig.getIterations(),
+                passwordConfig.getSaltLength(), passwordConfig.getKeyLength());
+        dummyHash = hasher.encode(UUID.randomUUID().toString());
+        log.info("密码哈希服务初始化完成: PBKDF2 迭代次数={}", passwordConfig.getIterations());
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        return submitAndWait(() -> hasher.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        // 旧版 MD5 计算很快，不需要进入线程池；校验失败时补一次 PBKDF2，
+        // 避免通过响应时间区分未升级的账号
+        if (Pbkdf2PasswordHasher.isLegacy(encodedPassword)) {
+            if (hasher.matches(rawPassword, encodedPassword)) {
+                return true;
+            }
+            dummyMatches(rawPassword);
+            return false;
+        }
+        return submitAndWait(() -> hasher.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public void dummyMatches(String rawPassword) {
+        submitAndWait(() -> hasher.matches(rawPassword, dummyHash));
+    }
+
+    @Override
+    public boolean needsRehash(String encodedPassword) {
+        return hasher.needsRehash(encodedPassword);
+    }
+
+    @Override
+    public void rehashAsync(long userId, String rawPassword, String verifiedPassword) {
+        try {
+            passwordHashExecutor.execute(() -> {
+                User user = new User();
+                user.setUserPassword(hasher.encode(rawPassword));
+                // 只在密码仍是本次校验通过的哈希时更新，期间修改过的密码不会被旧密码覆盖
+                QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+                queryWrapper.eq("id", userId);
+                queryWrapper.eq("userPassword", verifiedPassword);
+                if (userMapper.update(user, queryWrapper) > 0) {
+                    log.info("用户 {} 的密码哈希已升级", userId);
+                } else {
+                    log.info("用户 {} 的密码已变更，跳过哈希升级", userId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // 线程池繁忙，下次登录再升级
+            log.debug("密码哈希线程池繁忙，跳过用户 {} 的哈希升级", userId);
+        }
+    }
+
+    private <T> T submitAndWait(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = passwordHashExecutor.submit(task);
+        } catch (TaskRejectedException e) {
+            log.warn("密码哈希线程池已满，拒绝本次请求");
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "系统繁忙，请稍后再试");
+        }
+        try {
+            return future.get(passwordConfig.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("密码哈希超时（{}ms）", passwordConfig.getTimeoutMillis());
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "系统繁忙，请稍后再试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "密码校验被中断");
+        } catch (ExecutionException e) {
+            log.error("密码哈希计算失败", e.getCause());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "密码校验失败");
+        }
+    }
+}
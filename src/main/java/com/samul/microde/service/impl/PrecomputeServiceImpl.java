@@ -1,25 +1,36 @@
 package com.samul.microde.service.impl;
 
+import com.samul.microde.cache.PrecomputeRedisStore;
 import com.samul.microde.common.ErrorCode;
+import com.samul.microde.constant.MetricsConstants;
+import com.samul.microde.constant.RedisCacheConstants;
 import com.samul.microde.exception.BusinessException;
+import com.samul.microde.config.ScheduledConfig;
+import com.samul.microde.config.SimilarityIndexConfig;
 import com.samul.microde.model.domain.User;
 import com.samul.microde.service.CachePreloadService;
 import com.samul.microde.service.PrecomputeService;
-import com.samul.microde.service.TagIdMappingService;
 import com.samul.microde.service.UserService;
+import com.samul.microde.utils.MinHashLshIndex;
+import com.samul.microde.utils.PrecomputeRanker;
+import com.samul.microde.utils.TagScoreUtils;
+import com.samul.microde.utils.UserTagProjection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import javax.annotation.Resource;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * 预计算服务实现类
+ * 打分和候选集筛选都基于用户标签列式投影（{@link UserTagProjection}），不再把全部用户反序列化成 List&lt;User&gt;
+ * 用户规模较大时，相似度可以先由近似索引（{@link MinHashLshIndex}）取候选，再在候选中精确打分
  *
  * @author Samul_Alen
  */
@@ -27,11 +38,6 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PrecomputeServiceImpl implements PrecomputeService {
 
-    private static final String SIMILARITY_CACHE_KEY_PREFIX = "microde:similarity:";
-    private static final String COMPLEMENT_CACHE_KEY_PREFIX = "microde:complement:";
-    private static final String ACTIVITY_CACHE_KEY_PREFIX = "microde:activity:";
-    private static final String TAG_USERS_CACHE_KEY_PREFIX = "microde:tags:users:";
-
     // 每个用户保留的最相似/最互补用户数量
     private static final int TOP_USERS_LIMIT = 200;
 
@@ -45,83 +51,75 @@ public class PrecomputeServiceImpl implements PrecomputeService {
     private CachePreloadService cachePreloadService;
 
     @Resource
-    private TagIdMappingService tagIdMappingService;
+    private ScheduledConfig scheduledConfig;
+
+    @Resource
+    private SimilarityIndexConfig similarityIndexConfig;
 
     @Resource
-    private RedisTemplate<String, Object> redisTemplate;
+    private PrecomputeRedisStore precomputeRedisStore;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 共享的用户标签投影，批量预计算开始时重建，其余调用在有效期内复用
+     */
+    private volatile UserTagProjection sharedProjection;
+
+    /**
+     * 同一时刻只有一个线程重建投影；已有投影时其余线程不等待，继续使用旧投影
+     */
+    private final ReentrantLock projectionLock = new ReentrantLock();
+
+    /**
+     * 基于共享投影构建的近似索引，与投影一起构建、一起发布，请求线程只读取
+     */
+    private volatile MinHashLshIndex sharedIndex;
 
     @Override
     public void precomputeSimilarity(boolean forceFullRecompute) {
         log.info("开始预计算用户相似度数据...");
 
         long startTime = System.currentTimeMillis();
-        List<User> allUsers = cachePreloadService.getAllUsersFromCache();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        UserTagProjection projection = getProjection(true);
 
-        if (CollectionUtils.isEmpty(allUsers)) {
+        if (projection.size() == 0) {
             log.warn("没有用户数据，跳过相似度预计算");
             return;
         }
 
-        // 获取标签到ID的映射
-        Map<String, Integer> tagIdMap = getTagIdMap();
-        if (tagIdMap.isEmpty()) {
-            log.warn("标签映射为空，跳过相似度预计算");
-            return;
-        }
-
-        ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
-
         // 批量计算所有用户的相似度
         int processedCount = 0;
-        for (User user : allUsers) {
-            String cacheKey = SIMILARITY_CACHE_KEY_PREFIX + user.getId();
-
+        for (int i = 0; i < projection.size(); i++) {
+            long userId = projection.id(i);
             // 如果不是全量重算且缓存已存在，跳过
-            if (!forceFullRecompute && Boolean.TRUE.equals(redisTemplate.hasKey(cacheKey))) {
+            if (!forceFullRecompute
+                    && precomputeRedisStore.hasTopUsers(RedisCacheConstants.SIMILARITY_KEY_PREFIX, userId)) {
                 continue;
             }
 
-            List<String> userTags = parseTags(user.getTags());
-            if (CollectionUtils.isEmpty(userTags)) {
+            List<String> userTags = projection.tagsOf(i);
+            if (userTags.isEmpty()) {
                 continue;
             }
 
             // 计算与其他所有用户的相似度
-            Map<Long, Double> similarityMap = new HashMap<>();
-            for (User otherUser : allUsers) {
-                if (user.getId() == otherUser.getId()) {
-                    continue;
-                }
-
-                List<String> otherTags = parseTags(otherUser.getTags());
-                if (CollectionUtils.isEmpty(otherTags)) {
-                    continue;
-                }
-
-                double similarity = calculateJaccardSimilarity(userTags, otherTags);
-                if (similarity > 0) {
-                    similarityMap.put(otherUser.getId(), similarity);
-                }
-            }
+            Map<Long, Double> similarityMap = rankBySimilarity(projection, userId, userTags);
 
-            // 取前N个最相似的用户
-            similarityMap.entrySet().stream()
-                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-                    .limit(TOP_USERS_LIMIT)
-                    .forEach(entry -> {
-                        zSetOps.add(cacheKey, entry.getKey().toString(), entry.getValue());
-                    });
-
-            // 设置过期时间
-            redisTemplate.expire(cacheKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+            // 整体替换旧列表
+            precomputeRedisStore.replaceTopUsers(RedisCacheConstants.SIMILARITY_KEY_PREFIX, userId,
+                    similarityMap, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
             processedCount++;
 
             // 每100个用户打印一次进度
             if (processedCount % 100 == 0) {
-                log.info("相似度预计算进度: {}/{}", processedCount, allUsers.size());
+                log.info("相似度预计算进度: {}/{}", processedCount, projection.size());
             }
         }
 
+        recordJob(sample, "similarity", forceFullRecompute ? "full" : "incremental", processedCount);
         long endTime = System.currentTimeMillis();
         log.info("相似度预计算完成！处理 {} 个用户，耗时 {} ms", processedCount, endTime - startTime);
     }
@@ -131,63 +129,44 @@ public class PrecomputeServiceImpl implements PrecomputeService {
         log.info("开始预计算用户互补度数据...");
 
         long startTime = System.currentTimeMillis();
-        List<User> allUsers = cachePreloadService.getAllUsersFromCache();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        UserTagProjection projection = getProjection(true);
 
-        if (CollectionUtils.isEmpty(allUsers)) {
+        if (projection.size() == 0) {
             log.warn("没有用户数据，跳过互补度预计算");
             return;
         }
 
-        ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
         int processedCount = 0;
 
-        for (User user : allUsers) {
-            String cacheKey = COMPLEMENT_CACHE_KEY_PREFIX + user.getId();
-
+        for (int i = 0; i < projection.size(); i++) {
+            long userId = projection.id(i);
             // 如果不是全量重算且缓存已存在，跳过
-            if (!forceFullRecompute && Boolean.TRUE.equals(redisTemplate.hasKey(cacheKey))) {
+            if (!forceFullRecompute
+                    && precomputeRedisStore.hasTopUsers(RedisCacheConstants.COMPLEMENT_KEY_PREFIX, userId)) {
                 continue;
             }
 
-            List<String> userTags = parseTags(user.getTags());
-            if (CollectionUtils.isEmpty(userTags)) {
+            List<String> userTags = projection.tagsOf(i);
+            if (userTags.isEmpty()) {
                 continue;
             }
 
             // 计算与其他所有用户的互补度
-            Map<Long, Double> complementMap = new HashMap<>();
-            for (User otherUser : allUsers) {
-                if (user.getId() == otherUser.getId()) {
-                    continue;
-                }
-
-                List<String> otherTags = parseTags(otherUser.getTags());
-                if (CollectionUtils.isEmpty(otherTags)) {
-                    continue;
-                }
-
-                double complementScore = calculateComplementScoreOptimized(userTags, otherTags);
-                if (complementScore > 0) {
-                    complementMap.put(otherUser.getId(), complementScore);
-                }
-            }
+            Map<Long, Double> complementMap =
+                    PrecomputeRanker.rankByComplement(projection, userId, userTags, TOP_USERS_LIMIT);
 
-            // 取前N个最互补的用户
-            complementMap.entrySet().stream()
-                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-                    .limit(TOP_USERS_LIMIT)
-                    .forEach(entry -> {
-                        zSetOps.add(cacheKey, entry.getKey().toString(), entry.getValue());
-                    });
-
-            redisTemplate.expire(cacheKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+            // 整体替换旧列表
+            precomputeRedisStore.replaceTopUsers(RedisCacheConstants.COMPLEMENT_KEY_PREFIX, userId,
+                    complementMap, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
             processedCount++;
 
             if (processedCount % 100 == 0) {
-                log.info("互补度预计算进度: {}/{}", processedCount, allUsers.size());
+                log.info("互补度预计算进度: {}/{}", processedCount, projection.size());
             }
         }
 
+        recordJob(sample, "complement", forceFullRecompute ? "full" : "incremental", processedCount);
         long endTime = System.currentTimeMillis();
         log.info("互补度预计算完成！处理 {} 个用户，耗时 {} ms", processedCount, endTime - startTime);
     }
@@ -221,7 +200,7 @@ public class PrecomputeServiceImpl implements PrecomputeService {
             score += 0.15;
         }
         if (user.getTags() != null && !user.getTags().isEmpty()) {
-            List<String> tags = parseTags(user.getTags());
+            List<String> tags = TagScoreUtils.parseTags(user.getTags());
             if (!CollectionUtils.isEmpty(tags)) {
                 double tagCount = Math.min(tags.size(), 5) * 0.12; // 最多5个标签，每个0.12分
                 score += Math.min(tagCount, 0.3);
@@ -237,8 +216,7 @@ public class PrecomputeServiceImpl implements PrecomputeService {
         Double activityScore = Math.min(score, 1.0);
 
         // 缓存活跃度
-        String cacheKey = ACTIVITY_CACHE_KEY_PREFIX + userId;
-        redisTemplate.opsForValue().set(cacheKey, activityScore.toString(), CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        precomputeRedisStore.setActivityScore(userId, activityScore, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
 
         return activityScore;
     }
@@ -246,130 +224,63 @@ public class PrecomputeServiceImpl implements PrecomputeService {
     @Override
     public void precomputeUserSimilarity(Long userId) {
         log.info("为用户 {} 预计算相似度", userId);
+        Timer.Sample sample = Timer.start(meterRegistry);
         User currentUser = cachePreloadService.getUserByIdFromCache(userId);
         if (currentUser == null) {
             throw new BusinessException(ErrorCode.NOT_FOUND, "用户不存在");
         }
 
-        List<User> allUsers = cachePreloadService.getAllUsersFromCache();
-        List<String> currentTags = parseTags(currentUser.getTags());
+        // 当前用户的标签以缓存中的最新值为准，其他用户复用共享投影
+        List<String> currentTags = TagScoreUtils.parseTags(currentUser.getTags());
 
         if (CollectionUtils.isEmpty(currentTags)) {
             log.warn("用户 {} 没有标签，跳过相似度预计算", userId);
             return;
         }
 
-        ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
-        String cacheKey = SIMILARITY_CACHE_KEY_PREFIX + userId;
-        redisTemplate.delete(cacheKey);
-
-        Map<Long, Double> similarityMap = new HashMap<>();
-        for (User otherUser : allUsers) {
-            if (userId == otherUser.getId()) {
-                continue;
-            }
-
-            List<String> otherTags = parseTags(otherUser.getTags());
-            if (CollectionUtils.isEmpty(otherTags)) {
-                continue;
-            }
-
-            double similarity = calculateJaccardSimilarity(currentTags, otherTags);
-            if (similarity > 0) {
-                similarityMap.put(otherUser.getId(), similarity);
-            }
-        }
-
-        // 取前200个
-        similarityMap.entrySet().stream()
-                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-                .limit(TOP_USERS_LIMIT)
-                .forEach(entry -> {
-                    zSetOps.add(cacheKey, entry.getKey().toString(), entry.getValue());
-                });
+        Map<Long, Double> similarityMap = rankBySimilarity(getProjection(false), userId, currentTags);
 
-        redisTemplate.expire(cacheKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        // 整体替换旧列表
+        precomputeRedisStore.replaceTopUsers(RedisCacheConstants.SIMILARITY_KEY_PREFIX, userId,
+                similarityMap, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        recordJob(sample, "similarity", "single", 1);
         log.info("用户 {} 相似度预计算完成，计算了 {} 个相似用户", userId, similarityMap.size());
     }
 
     @Override
     public void precomputeUserComplement(Long userId) {
         log.info("为用户 {} 预计算互补度", userId);
+        Timer.Sample sample = Timer.start(meterRegistry);
         User currentUser = cachePreloadService.getUserByIdFromCache(userId);
         if (currentUser == null) {
             throw new BusinessException(ErrorCode.NOT_FOUND, "用户不存在");
         }
 
-        List<User> allUsers = cachePreloadService.getAllUsersFromCache();
-        List<String> currentTags = parseTags(currentUser.getTags());
+        // 当前用户的标签以缓存中的最新值为准，其他用户复用共享投影
+        List<String> currentTags = TagScoreUtils.parseTags(currentUser.getTags());
 
         if (CollectionUtils.isEmpty(currentTags)) {
             log.warn("用户 {} 没有标签，跳过互补度预计算", userId);
             return;
         }
 
-        ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
-        String cacheKey = COMPLEMENT_CACHE_KEY_PREFIX + userId;
-        redisTemplate.delete(cacheKey);
-
-        Map<Long, Double> complementMap = new HashMap<>();
-        for (User otherUser : allUsers) {
-            if (userId == otherUser.getId()) {
-                continue;
-            }
-
-            List<String> otherTags = parseTags(otherUser.getTags());
-            if (CollectionUtils.isEmpty(otherTags)) {
-                continue;
-            }
-
-            double complementScore = calculateComplementScoreOptimized(currentTags, otherTags);
-            if (complementScore > 0) {
-                complementMap.put(otherUser.getId(), complementScore);
-            }
-        }
-
-        complementMap.entrySet().stream()
-                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-                .limit(TOP_USERS_LIMIT)
-                .forEach(entry -> {
-                    zSetOps.add(cacheKey, entry.getKey().toString(), entry.getValue());
-                });
+        Map<Long, Double> complementMap =
+                PrecomputeRanker.rankByComplement(getProjection(false), userId, currentTags, TOP_USERS_LIMIT);
 
-        redisTemplate.expire(cacheKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        precomputeRedisStore.replaceTopUsers(RedisCacheConstants.COMPLEMENT_KEY_PREFIX, userId,
+                complementMap, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        recordJob(sample, "complement", "single", 1);
         log.info("用户 {} 互补度预计算完成，计算了 {} 个互补用户", userId, complementMap.size());
     }
 
     @Override
     public List<Long> getTopSimilarUsers(Long userId, int limit) {
-        String cacheKey = SIMILARITY_CACHE_KEY_PREFIX + userId;
-        ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
-
-        Set<Object> results = zSetOps.reverseRange(cacheKey, 0, limit - 1);
-
-        if (CollectionUtils.isEmpty(results)) {
-            return new ArrayList<>();
-        }
-
-        return results.stream()
-                .map(obj -> Long.parseLong(obj.toString()))
-                .collect(Collectors.toList());
+        return precomputeRedisStore.getTopUsers(RedisCacheConstants.SIMILARITY_KEY_PREFIX, userId, limit);
     }
 
     @Override
     public List<Long> getTopComplementUsers(Long userId, int limit) {
-        String cacheKey = COMPLEMENT_CACHE_KEY_PREFIX + userId;
-        ZSetOperations<String, Object> zSetOps = redisTemplate.opsForZSet();
-
-        Set<Object> results = zSetOps.reverseRange(cacheKey, 0, limit - 1);
-
-        if (CollectionUtils.isEmpty(results)) {
-            return new ArrayList<>();
-        }
-
-        return results.stream()
-                .map(obj -> Long.parseLong(obj.toString()))
-                .collect(Collectors.toList());
+        return precomputeRedisStore.getTopUsers(RedisCacheConstants.COMPLEMENT_KEY_PREFIX, userId, limit);
     }
 
     @Override
@@ -379,53 +290,42 @@ public class PrecomputeServiceImpl implements PrecomputeService {
         }
 
         // 先尝试从缓存获取
-        String cacheKey = TAG_USERS_CACHE_KEY_PREFIX + String.join(",", tags);
-        List<Long> cachedUsers = (List<Long>) redisTemplate.opsForValue().get(cacheKey);
+        String tagsKey = String.join(",", tags);
+        List<Long> cachedUsers = precomputeRedisStore.getTagUsers(tagsKey);
         if (cachedUsers != null) {
             return cachedUsers;
         }
 
-        // 从Redis获取所有用户并筛选
-        List<User> allUsers = cachePreloadService.getAllUsersFromCache();
+        // 在标签投影上筛选：与标签位图有交集即匹配
+        UserTagProjection projection = getProjection(false);
+        long[] tagMask = projection.mask(tags);
         List<Long> matchedUserIds = new ArrayList<>();
 
-        for (User user : allUsers) {
-            List<String> userTags = parseTags(user.getTags());
-            if (CollectionUtils.isEmpty(userTags)) {
-                continue;
-            }
-
-            // 检查是否有交集
-            for (String tag : tags) {
-                if (userTags.contains(tag)) {
-                    matchedUserIds.add(user.getId());
-                    break;
-                }
+        for (int i = 0; i < projection.size(); i++) {
+            if (projection.status(i) == 0 && projection.intersects(i, tagMask)) {
+                matchedUserIds.add(projection.id(i));
             }
         }
 
         // 缓存结果 (1小时过期)
-        redisTemplate.opsForValue().set(cacheKey, matchedUserIds, 1, TimeUnit.HOURS);
+        precomputeRedisStore.setTagUsers(tagsKey, matchedUserIds, 1, TimeUnit.HOURS);
 
         return matchedUserIds;
     }
 
     @Override
-public List<Long> getPrecisionCandidateUsers(Long currentUserId, List<String> preferredTags, int limit) {
+    public List<Long> getPrecisionCandidateUsers(Long currentUserId, List<String> preferredTags, int limit) {
         // 第一步：基于用户偏好标签筛选出有交集的用户
         List<Long> candidateIds;
 
         if (CollectionUtils.isEmpty(preferredTags)) {
             // 没有偏好标签，获取活跃度高的用户
-            List<User> allUsers = cachePreloadService.getAllUsersFromCache();
-            candidateIds = allUsers.stream()
-                    .sorted((u1, u2) -> {
-                        Double score1 = getActivityScore(u1.getId());
-                        Double score2 = getActivityScore(u2.getId());
-                        return score2.compareTo(score1);
-                    })
+            // 活跃度一次 MGET 取回，排序时不再逐个读 Redis
+            List<Long> allUserIds = getNormalUserIds(getProjection(false), null);
+            Map<Long, Double> activityScores = getActivityScores(allUserIds);
+            candidateIds = allUserIds.stream()
+                    .sorted((id1, id2) -> activityScores.get(id2).compareTo(activityScores.get(id1)))
                     .limit(limit * 2)
-                    .map(User::getId)
                     .collect(Collectors.toList());
         } else {
             // 有偏好标签，找出有标签交集的用户
@@ -433,18 +333,20 @@ public List<Long> getPrecisionCandidateUsers(Long currentUserId, List<String> pr
 
             // 如果标签匹配的用户太少，放宽条件
             if (tagMatchedUsers.size() < limit) {
-                List<User> allUsers = cachePreloadService.getAllUsersFromCache();
-                candidateIds = allUsers.stream()
-                        .filter(u -> u.getId() != currentUserId)
-                        .map(User::getId)
-                        .collect(Collectors.toList());
+                candidateIds = getNormalUserIds(getProjection(false), currentUserId);
             } else {
                 candidateIds = tagMatchedUsers;
             }
         }
 
         // 第二步：从预计算的相似度/互补度数据中获取高得分用户
-        Set<Long> topSimilarUsers = new HashSet<>(getTopSimilarUsers(currentUserId, 100));
+        List<Long> similarUsers = getTopSimilarUsers(currentUserId, 100);
+        if (similarUsers.isEmpty() && currentUserId != null
+                && !precomputeRedisStore.hasTopUsers(RedisCacheConstants.SIMILARITY_KEY_PREFIX, currentUserId)) {
+            // 预计算列表缺失（新用户、列表过期）时实时查找；已缓存的空列表不再重算
+            similarUsers = findSimilarUsers(currentUserId, 100);
+        }
+        Set<Long> topSimilarUsers = new HashSet<>(similarUsers);
         Set<Long> topComplementUsers = new HashSet<>(getTopComplementUsers(currentUserId, 100));
 
         // 优先选择高相似度 + 高互补度的用户
@@ -473,107 +375,170 @@ public List<Long> getPrecisionCandidateUsers(Long currentUserId, List<String> pr
     }
 
     /**
-     * 优化的互补度计算 (基于预定义映射)
+     * 记录预计算耗时与处理的用户数
+     *
+     * @param job  similarity 或 complement
+     * @param mode full、incremental 或 single
      */
-    private double calculateComplementScoreOptimized(List<String> myTags, List<String> otherTags) {
-        if (CollectionUtils.isEmpty(myTags) || CollectionUtils.isEmpty(otherTags)) {
-            return 0.0;
-        }
+    private void recordJob(Timer.Sample sample, String job, String mode, int processedCount) {
+        sample.stop(meterRegistry.timer(MetricsConstants.PRECOMPUTE_DURATION, "job", job, "mode", mode));
+        meterRegistry.counter(MetricsConstants.PRECOMPUTE_USERS, "job", job, "mode", mode).increment(processedCount);
+    }
 
-        Set<String> myTagSet = new HashSet<>(myTags);
-        double complementScore = 0.0;
-
-        // 技能互补映射表
-        Map<String, List<String>> COMPLEMENT_MAP = new HashMap<String, List<String>>() {{
-            put("React", Arrays.asList("Spring Boot", "Java", "Go", "Node.js"));
-            put("Vue", Arrays.asList("Spring Boot", "Java", "Django", "Flask"));
-            put("Spring Boot", Arrays.asList("React", "Vue", "Angular", "iOS", "Android"));
-            put("Java", Arrays.asList("React", "Vue", "iOS", "Android", "Flutter"));
-            put("Python", Arrays.asList("React", "Vue", "iOS", "Android", "DevOps"));
-            put("前端", Arrays.asList("后端", "Java", "Go", "C++"));
-            put("后端", Arrays.asList("前端", "React", "Vue", "iOS"));
-            put("Android", Arrays.asList("iOS", "后端", "Java"));
-            put("iOS", Arrays.asList("Android", "后端", "Swift"));
-            put("Flutter", Arrays.asList("后端", "Java", "Go"));
-        }};
-
-        // 计算对方标签中有多少是与我互补的
-        for (String tag : otherTags) {
-            if (COMPLEMENT_MAP.containsKey(tag)) {
-                List<String> complementTags = COMPLEMENT_MAP.get(tag);
-                for (String myTag : myTags) {
-                    if (complementTags.contains(myTag)) {
-                        complementScore += 0.5;
-                    }
-                }
-            } else if (!myTagSet.contains(tag)) {
-                complementScore += 0.2;
+    /**
+     * 获取用户标签投影
+     * 批量预计算每次重建一次，整个任务使用同一份；单用户重算和候选集筛选复用有效期内的投影，过期时由一个调用方重建，
+     * 重建期间（包括定时任务重建时）其余调用方直接使用旧投影，只有还没有任何投影时才等待
+     * 近似索引在发布投影前构建，定时任务重建投影后请求线程直接使用现成的索引
+     *
+     * @param rebuild 是否重新构建
+     */
+    private UserTagProjection getProjection(boolean rebuild) {
+        UserTagProjection projection = sharedProjection;
+        if (!rebuild && isFresh(projection)) {
+            return projection;
+        }
+        if (!rebuild && projection != null) {
+            if (!projectionLock.tryLock()) {
+                return projection;
             }
+        } else {
+            projectionLock.lock();
         }
+        try {
+            UserTagProjection current = sharedProjection;
+            if (!rebuild && isFresh(current)) {
+                return current;
+            }
+            projection = buildProjection();
+            // 构建失败得到的空投影不缓存，下次调用重试；请求方继续使用旧投影
+            if (projection.size() > 0) {
+                sharedIndex = buildSimilarityIndex(projection);
+                sharedProjection = projection;
+            } else if (!rebuild && current != null) {
+                return current;
+            }
+            return projection;
+        } finally {
+            projectionLock.unlock();
+        }
+    }
 
-        // 归一化到 0-1
-        return Math.min(complementScore / otherTags.size(), 1.0);
+    private boolean isFresh(UserTagProjection projection) {
+        return projection != null && System.currentTimeMillis() - projection.getBuiltAt()
+                < TimeUnit.SECONDS.toMillis(scheduledConfig.getProjectionMaxAgeSeconds());
     }
 
     /**
-     * 获取标签到ID的映射
+     * 从 Redis 用户缓存流式构建投影，每个 User 解析完标签即可回收
      */
-    private Map<String, Integer> getTagIdMap() {
+    private UserTagProjection buildProjection() {
+        long startTime = System.currentTimeMillis();
+        UserTagProjection.Builder builder = UserTagProjection.builder();
         try {
-            return tagIdMappingService.getTagIdMap();
+            cachePreloadService.scanUsersFromCache(user ->
+                    builder.add(user.getId(), TagScoreUtils.parseTags(user.getTags()), user.getUserStatus()));
         } catch (Exception e) {
-            log.error("获取标签映射失败", e);
-            return new HashMap<>();
+            log.error("构建用户标签投影失败", e);
+            return UserTagProjection.builder().build();
         }
+        UserTagProjection projection = builder.build();
+        log.info("用户标签投影构建完成: {} 个用户，{} 个标签，占用 {} KB，耗时 {} ms", projection.size(),
+                projection.tagCount(), projection.footprintBytes() / 1024, System.currentTimeMillis() - startTime);
+        return projection;
     }
 
     /**
-     * 计算Jaccard相似度
+     * 相似度前 N 名
+     * 启用近似索引且用户数达到阈值时，只在索引给出的候选中精确打分，否则对全部用户打分
      */
-    private double calculateJaccardSimilarity(List<String> tags1, List<String> tags2) {
-        if (CollectionUtils.isEmpty(tags1) || CollectionUtils.isEmpty(tags2)) {
-            return 0.0;
-        }
-
-        Set<String> set1 = new HashSet<>(tags1);
-        Set<String> set2 = new HashSet<>(tags2);
-
-        Set<String> intersection = new HashSet<>(set1);
-        intersection.retainAll(set2);
-
-        Set<String> union = new HashSet<>(set1);
-        union.addAll(set2);
+    private Map<Long, Double> rankBySimilarity(UserTagProjection projection, long userId, List<String> userTags) {
+        MinHashLshIndex index = getSimilarityIndex(projection);
+        int[] candidateIndexes = index != null
+                ? index.candidates(userTags, similarityIndexConfig.getMaxCandidates())
+                : null;
+        return PrecomputeRanker.rankBySimilarity(projection, userId, userTags, candidateIndexes, TOP_USERS_LIMIT);
+    }
 
-        if (union.isEmpty()) {
-            return 0.0;
+    /**
+     * 实时查找相似用户（预计算列表缺失时），结果按预计算的有效期写回（空结果写入占位），之后的请求直接读取预计算列表
+     */
+    private List<Long> findSimilarUsers(Long userId, int limit) {
+        if (userId == null) {
+            return new ArrayList<>();
         }
+        UserTagProjection projection = getProjection(false);
+        int selfIndex = projection.indexOf(userId);
+        List<String> userTags;
+        if (selfIndex >= 0) {
+            userTags = projection.tagsOf(selfIndex);
+        } else {
+            // 投影构建之后注册的用户
+            User user = cachePreloadService.getUserByIdFromCache(userId);
+            userTags = user != null ? TagScoreUtils.parseTags(user.getTags()) : new ArrayList<>();
+        }
+        if (userTags.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Double> similarityMap = rankBySimilarity(projection, userId, userTags);
+        precomputeRedisStore.replaceTopUsers(RedisCacheConstants.SIMILARITY_KEY_PREFIX, userId,
+                similarityMap, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        return similarityMap.keySet().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
 
-        return (double) intersection.size() / union.size();
+    /**
+     * 获取投影对应的近似索引，未启用、用户数未达到阈值或索引尚未就绪时返回 null（对全部用户精确打分）
+     */
+    private MinHashLshIndex getSimilarityIndex(UserTagProjection projection) {
+        MinHashLshIndex index = sharedIndex;
+        return index != null && index.getProjection() == projection ? index : null;
     }
 
     /**
-     * 从缓存获取用户的活跃度得分
+     * 为投影构建近似索引，未启用或用户数未达到阈值时返回 null
      */
-    private Double getActivityScore(Long userId) {
-        String cacheKey = ACTIVITY_CACHE_KEY_PREFIX + userId;
-        String score = (String) redisTemplate.opsForValue().get(cacheKey);
-        if (score != null) {
-            return Double.parseDouble(score);
+    private MinHashLshIndex buildSimilarityIndex(UserTagProjection projection) {
+        if (!Boolean.TRUE.equals(similarityIndexConfig.getEnabled())
+                || projection.size() < similarityIndexConfig.getMinUsers()) {
+            return null;
         }
-        return precomputeActivityScore(userId);
+        long startTime = System.currentTimeMillis();
+        MinHashLshIndex index = MinHashLshIndex.build(projection, similarityIndexConfig.getBands(),
+                similarityIndexConfig.getRows(), similarityIndexConfig.getSeed());
+        log.info("相似度近似索引构建完成: {} 个用户，{} × {}，占用 {} KB，耗时 {} ms", projection.size(),
+                similarityIndexConfig.getBands(), similarityIndexConfig.getRows(),
+                index.footprintBytes() / 1024, System.currentTimeMillis() - startTime);
+        return index;
     }
 
-    private List<String> parseTags(String tagsJson) {
-        if (tagsJson == null || tagsJson.isEmpty()) {
-            return new ArrayList<>();
+    /**
+     * 投影中正常状态的用户ID
+     *
+     * @param excludeUserId 排除的用户ID，可为空
+     */
+    private List<Long> getNormalUserIds(UserTagProjection projection, Long excludeUserId) {
+        List<Long> userIds = new ArrayList<>(projection.size());
+        for (int i = 0; i < projection.size(); i++) {
+            long userId = projection.id(i);
+            if (projection.status(i) == 0 && (excludeUserId == null || userId != excludeUserId)) {
+                userIds.add(userId);
+            }
         }
-        try {
-            com.google.gson.Gson gson = new com.google.gson.Gson();
-            return gson.fromJson(tagsJson, new com.google.gson.reflect.TypeToken<List<String>>() {
-            }.getType());
-        } catch (Exception e) {
-            log.error("解析标签失败: {}", tagsJson, e);
-            return new ArrayList<>();
+        return userIds;
+    }
+
+    /**
+     * 批量获取用户的活跃度得分，缓存未命中的现场计算并写回
+     */
+    private Map<Long, Double> getActivityScores(List<Long> userIds) {
+        Map<Long, Double> scores = precomputeRedisStore.getActivityScores(userIds);
+        for (Long userId : userIds) {
+            if (!scores.containsKey(userId)) {
+                scores.put(userId, precomputeActivityScore(userId));
+            }
         }
+        return scores;
     }
 }
@@ -0,0 +1,261 @@
+package com.samul.microde.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.samul.microde.cache.CacheMetrics;
+import com.samul.microde.constant.RedisCacheConstants;
+import com.samul.microde.mapper.UserRecommendFeedbackMapper;
+import com.samul.microde.model.domain.User;
+import com.samul.microde.model.domain.UserRecommendFeedback;
+import com.samul.microde.model.dto.RecommendPreference;
+import com.samul.microde.service.CachePreloadService;
+import com.samul.microde.service.RecommendPreferenceService;
+import com.samul.microde.utils.BloomFilterUtils;
+import com.samul.microde.utils.TagScoreUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 推荐偏好服务实现
+ * 每个用户一个 Hash 保存学到的偏好，一个位图保存"不感兴趣"的布隆过滤器：
+ * 1. 喜欢 / 不感兴趣都会把打分权重往"解释该候选的那一项"上推或拉：候选与我越相似，调整的是相似度权重，越互补调整的是互补度权重
+ * 2. 喜欢的候选记一个有上限的加分；不感兴趣的候选进入布隆过滤器，推荐时直接跳过
+ * 权重与加分在 Lua 中原子调整并限制在上下限内，一批反馈用一次 pipeline 写入
+ * 布隆过滤器不能删除元素，因此不做增量 SETBIT：批次内有反馈的用户按反馈表重建整个位图，
+ * 改为"喜欢"的候选随之移出，超过有效期的"不感兴趣"也不再计入
+ *
+ * @author Samul_Alen
+ */
+@Service
+@Slf4j
+public class RecommendPreferenceServiceImpl implements RecommendPreferenceService {
+
+    private static final String FIELD_SIMILARITY = "w:sim";
+
+    private static final String FIELD_COMPLEMENT = "w:comp";
+
+    private static final String FIELD_BOOST_PREFIX = "b:";
+
+    /**
+     * 权重学习率：一次反馈最多把权重倍数调整 5%
+     */
+    private static final double LEARNING_RATE = 0.05;
+
+    /**
+     * 权重偏移范围，对应权重倍数 0.5 ~ 2.0
+     */
+    private static final double MIN_WEIGHT_OFFSET = -0.5;
+
+    private static final double MAX_WEIGHT_OFFSET = 1.0;
+
+    /**
+     * 每次"喜欢"的加分及加分上限
+     */
+    private static final double BOOST_STEP = 0.05;
+
+    private static final double MAX_BOOST = 0.15;
+
+    /**
+     * 偏好过期时间：30 天没有新反馈则回到默认偏好
+     */
+    private static final long PREFERENCE_EXPIRE_SECONDS = TimeUnit.DAYS.toSeconds(30);
+
+    /**
+     * 每个用户的布隆过滤器最多收录最近的"不感兴趣"条数，超出后误判率会明显升高
+     */
+    private static final int MAX_DISLIKES = 300;
+
+    /**
+     * 应用一条反馈
+     * KEYS[1] 偏好 Hash
+     * ARGV[1] 相似度权重增量，ARGV[2] 互补度权重增量，ARGV[3] 权重偏移下限，ARGV[4] 权重偏移上限，
+     * ARGV[5] 候选加分字段，ARGV[6] 反馈值，ARGV[7] 加分步长，ARGV[8] 加分上限，ARGV[9] 过期秒数
+     */
+    private static final byte[] APPLY_FEEDBACK_SCRIPT = (
+            "local function clampIncr(field, delta, lo, hi) " +
+                    "  local v = tonumber(redis.call('HGET', KEYS[1], field) or '0') + delta " +
+                    "  if v < lo then v = lo elseif v > hi then v = hi end " +
+                    "  redis.call('HSET', KEYS[1], field, tostring(v)) " +
+                    "end " +
+                    "local lo, hi = tonumber(ARGV[3]), tonumber(ARGV[4]) " +
+                    "clampIncr('" + FIELD_SIMILARITY + "', tonumber(ARGV[1]), lo, hi) " +
+                    "clampIncr('" + FIELD_COMPLEMENT + "', tonumber(ARGV[2]), lo, hi) " +
+                    "if ARGV[6] == '1' then " +
+                    "  clampIncr(ARGV[5], tonumber(ARGV[7]), 0, tonumber(ARGV[8])) " +
+                    "else " +
+                    "  redis.call('HDEL', KEYS[1], ARGV[5]) " +
+                    "end " +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[9]) " +
+                    "return 1").getBytes(StandardCharsets.UTF_8);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private CachePreloadService cachePreloadService;
+
+    @Resource
+    private CacheMetrics cacheMetrics;
+
+    @Resource
+    private UserRecommendFeedbackMapper userRecommendFeedbackMapper;
+
+    @Override
+    public void applyFeedback(List<UserRecommendFeedback> feedbacks) {
+        if (CollectionUtils.isEmpty(feedbacks)) {
+            return;
+        }
+        Set<Long> userIds = new HashSet<>();
+        for (UserRecommendFeedback feedback : feedbacks) {
+            userIds.add(feedback.getUserId());
+            userIds.add(feedback.getRecommendedUserId());
+        }
+        Map<Long, User> users = cachePreloadService.getUsersByIdsFromCache(userIds);
+        Map<Long, List<String>> tagsById = new HashMap<>(users.size() * 2);
+        for (Map.Entry<Long, User> entry : users.entrySet()) {
+            tagsById.put(entry.getKey(), TagScoreUtils.parseTags(entry.getValue().getTags()));
+        }
+
+        List<byte[][]> scriptArgs = new ArrayList<>(feedbacks.size());
+        Set<Long> feedbackUserIds = new HashSet<>();
+        for (UserRecommendFeedback feedback : feedbacks) {
+            feedbackUserIds.add(feedback.getUserId());
+            List<String> myTags = tagsById.get(feedback.getUserId());
+            List<String> candidateTags = tagsById.get(feedback.getRecommendedUserId());
+            double similarityDelta = 0.0;
+            if (myTags != null && candidateTags != null) {
+                // 候选相似多于互补：喜欢则提高相似度权重，不感兴趣则降低；互补度权重反向调整
+                double similarity = TagScoreUtils.similarity(myTags, candidateTags);
+                double complement = TagScoreUtils.complement(myTags, candidateTags);
+                similarityDelta = LEARNING_RATE * feedback.getFeedback() * (similarity - complement);
+            }
+            scriptArgs.add(buildScriptArgs(feedback, similarityDelta));
+        }
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] keysAndArgs : scriptArgs) {
+                connection.eval(APPLY_FEEDBACK_SCRIPT, ReturnType.INTEGER, 1, keysAndArgs);
+            }
+            return null;
+        });
+        rebuildDislikeFilters(feedbackUserIds);
+        log.debug("推荐偏好已更新 {} 条反馈", feedbacks.size());
+    }
+
+    /**
+     * 按反馈表重建用户的"不感兴趣"布隆过滤器
+     * 一次 IN 查询取出这些用户有效期内最近的"不感兴趣"，本地置位后整块写回；没有则删除位图
+     *
+     * @param userIds 用户ID
+     */
+    private void rebuildDislikeFilters(Set<Long> userIds) {
+        QueryWrapper<UserRecommendFeedback> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("user_id", "recommended_user_id");
+        queryWrapper.in("user_id", userIds);
+        queryWrapper.eq("feedback", -1);
+        queryWrapper.ge("update_time", new Date(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(PREFERENCE_EXPIRE_SECONDS)));
+        queryWrapper.orderByDesc("update_time");
+        Map<Long, byte[]> bitmaps = new HashMap<>(userIds.size() * 2);
+        Map<Long, Integer> counts = new HashMap<>(userIds.size() * 2);
+        for (UserRecommendFeedback dislike : userRecommendFeedbackMapper.selectList(queryWrapper)) {
+            Long userId = dislike.getUserId();
+            int count = counts.getOrDefault(userId, 0);
+            if (count >= MAX_DISLIKES) {
+                continue;
+            }
+            counts.put(userId, count + 1);
+            BloomFilterUtils.put(bitmaps.computeIfAbsent(userId, k -> new byte[BloomFilterUtils.NUM_BITS / 8]),
+                    dislike.getRecommendedUserId());
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long userId : userIds) {
+                byte[] key = bytes(RedisCacheConstants.RECOMMEND_DISLIKE_KEY_PREFIX + userId);
+                byte[] bitmap = bitmaps.get(userId);
+                if (bitmap == null) {
+                    connection.del(key);
+                } else {
+                    connection.setEx(key, PREFERENCE_EXPIRE_SECONDS, bitmap);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public RecommendPreference getPreference(long userId) {
+        RecommendPreference preference = new RecommendPreference();
+        List<Object> results;
+        try {
+            // 偏好 Hash 与布隆位图一次往返读取；位图按原始字节返回
+            results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.hGetAll(bytes(RedisCacheConstants.RECOMMEND_PREF_KEY_PREFIX + userId));
+                connection.get(bytes(RedisCacheConstants.RECOMMEND_DISLIKE_KEY_PREFIX + userId));
+                return null;
+            }, null);
+        } catch (Exception e) {
+            cacheMetrics.error(CacheMetrics.RECOMMEND_PREFERENCE);
+            log.warn("读取用户 {} 的推荐偏好失败，使用默认偏好", userId, e);
+            return preference;
+        }
+
+        Object hash = results.get(0);
+        Object bitmap = results.get(1);
+        // 没有任何反馈的用户读到的是默认偏好，记为未命中
+        cacheMetrics.record(CacheMetrics.RECOMMEND_PREFERENCE,
+                (hash instanceof Map && !((Map<?, ?>) hash).isEmpty()) || bitmap instanceof byte[]);
+        if (hash instanceof Map && !((Map<?, ?>) hash).isEmpty()) {
+            Map<Long, Double> boosts = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) hash).entrySet()) {
+                String field = entry.getKey().toString();
+                double value = Double.parseDouble(entry.getValue().toString());
+                if (FIELD_SIMILARITY.equals(field)) {
+                    preference.setSimilarityMultiplier(1.0 + value);
+                } else if (FIELD_COMPLEMENT.equals(field)) {
+                    preference.setComplementMultiplier(1.0 + value);
+                } else if (field.startsWith(FIELD_BOOST_PREFIX)) {
+                    boosts.put(Long.parseLong(field.substring(FIELD_BOOST_PREFIX.length())), value);
+                }
+            }
+            preference.setBoosts(boosts);
+        }
+        if (bitmap instanceof byte[]) {
+            preference.setDislikeBitmap((byte[]) bitmap);
+        }
+        return preference;
+    }
+
+    private static byte[][] buildScriptArgs(UserRecommendFeedback feedback, double similarityDelta) {
+        long userId = feedback.getUserId();
+        boolean like = feedback.getFeedback() == 1;
+        return new byte[][]{
+                bytes(RedisCacheConstants.RECOMMEND_PREF_KEY_PREFIX + userId),
+                bytes(String.valueOf(similarityDelta)),
+                bytes(String.valueOf(-similarityDelta)),
+                bytes(String.valueOf(MIN_WEIGHT_OFFSET)),
+                bytes(String.valueOf(MAX_WEIGHT_OFFSET)),
+                bytes(FIELD_BOOST_PREFIX + feedback.getRecommendedUserId()),
+                bytes(like ? "1" : "-1"),
+                bytes(String.valueOf(BOOST_STEP)),
+                bytes(String.valueOf(MAX_BOOST)),
+                bytes(String.valueOf(PREFERENCE_EXPIRE_SECONDS))
+        };
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
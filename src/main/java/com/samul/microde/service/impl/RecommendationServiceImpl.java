@@ -2,17 +2,25 @@ package com.samul.microde.service.impl;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.exception.BusinessException;
 import com.samul.microde.mapper.UserMapper;
 import com.samul.microde.model.domain.User;
+import com.samul.microde.model.domain.UserRecommendFeedback;
+import com.samul.microde.model.dto.RecommendPreference;
 import com.samul.microde.model.dto.RecommendRequest;
 import com.samul.microde.model.dto.RecommendationResult;
+import com.samul.microde.constant.MetricsConstants;
 import com.samul.microde.constant.RedisCacheConstants;
 import com.samul.microde.service.CachePreloadService;
+import com.samul.microde.service.FeedbackIngestionService;
 import com.samul.microde.service.PrecomputeService;
+import com.samul.microde.service.RecommendPreferenceService;
 import com.samul.microde.service.RecommendationService;
 import com.samul.microde.service.UserService;
+import com.samul.microde.utils.StageTracer;
+import com.samul.microde.utils.TagScoreUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -51,7 +59,20 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
-    private static final Gson GSON = new Gson();
+    @Resource
+    private FeedbackIngestionService feedbackIngestionService;
+
+    @Resource
+    private RecommendPreferenceService recommendPreferenceService;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 指标中 strategy 标签的取值，其他值都记为 all，避免请求参数撑大标签基数
+     */
+    private static final Set<String> METRIC_STRATEGIES =
+            new HashSet<>(Arrays.asList("similar", "skill", "complement", "activity"));
 
     // 最大候选用户数量 - 使用预计算后，候选集更精准，数量可以减少
     private static final int MAX_CANDIDATE_USERS = 200;
@@ -59,25 +80,22 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
     // 缓存过期时间（5分钟）
     private static final long CACHE_EXPIRE_MINUTES = 5;
 
-    /**
-     * 技能互补映射表
-     * 前端技能 <-> 后端技能
-     */
-    private static final Map<String, List<String>> COMPLEMENT_MAP = new HashMap<String, List<String>>() {{
-        put("React", Arrays.asList("Spring Boot", "Java", "Go", "Node.js"));
-        put("Vue", Arrays.asList("Spring Boot", "Java", "Django", "Flask"));
-        put("Spring Boot", Arrays.asList("React", "Vue", "Angular", "iOS", "Android"));
-        put("Java", Arrays.asList("React", "Vue", "iOS", "Android", "Flutter"));
-        put("Python", Arrays.asList("React", "Vue", "iOS", "Android", "DevOps"));
-        put("前端", Arrays.asList("后端", "Java", "Go", "C++"));
-        put("后端", Arrays.asList("前端", "React", "Vue", "iOS"));
-        put("Android", Arrays.asList("iOS", "后端", "Java"));
-        put("iOS", Arrays.asList("Android", "后端", "Swift"));
-        put("Flutter", Arrays.asList("后端", "Java", "Go"));
-    }};
-
     @Override
     public Page<RecommendationResult> recommendUsers(RecommendRequest request) {
+        String strategyTag = METRIC_STRATEGIES.contains(request.getStrategy()) ? request.getStrategy() : "all";
+        long startNanos = System.nanoTime();
+        try {
+            return doRecommendUsers(request, strategyTag, startNanos);
+        } finally {
+            // 提前返回（如没有候选用户）与异常也计入总耗时
+            meterRegistry.timer(MetricsConstants.RECOMMEND, "strategy", strategyTag)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Page<RecommendationResult> doRecommendUsers(RecommendRequest request, String strategyTag, long startNanos) {
+        long stageStart = startNanos;
+
         // 获取当前用户
         Long currentUserId = request.getUserId();
         User currentUser = null;
@@ -99,6 +117,7 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
             );
             log.info("使用预计算精准候选集筛选，获得 {} 个候选用户", candidateUserIds.size());
         } catch (Exception e) {
+            meterRegistry.counter(MetricsConstants.RECOMMEND_FALLBACK, "strategy", strategyTag).increment();
             log.warn("获取精准候选集失败，使用降级方案: {}", e.getMessage());
             // 降级方案：从所有用户中随机选择
             List<User> allUsers = cachePreloadService.getAllUsersFromCache();
@@ -117,9 +136,18 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
                     .collect(Collectors.toList());
         }
 
+        // 用户从反馈中学到的偏好（一次 Redis 往返），"不感兴趣"的候选直接跳过
+        RecommendPreference preference = currentUserId != null
+                ? recommendPreferenceService.getPreference(currentUserId)
+                : new RecommendPreference();
+        stageStart = recordStage(strategyTag, "candidate", stageStart);
+
         // 获取候选用户详情
         List<User> candidateUsers = new ArrayList<>();
         for (Long userId : candidateUserIds) {
+            if (preference.isSuppressed(userId)) {
+                continue;
+            }
             User user = cachePreloadService.getUserByIdFromCache(userId);
             if (user != null && user.getUserStatus() == 0) {
                 // 排除当前用户
@@ -129,6 +157,8 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
             }
         }
 
+        stageStart = recordStage(strategyTag, "hydrate", stageStart);
+
         // 转换为推荐结果并计算得分
         List<RecommendationResult> allResults = new ArrayList<>();
         for (User user : candidateUsers) {
@@ -150,7 +180,7 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
 
             // 计算推荐得分（使用动态权重）
             RecommendationResult result = calculateRecommendationScoreWithDynamicWeight(
-                    currentUser, user, request.getStrategy(), currentUserId);
+                    currentUser, user, request.getStrategy(), currentUserId, preference);
 
             // 过滤低于最小相似度的结果
             Integer minSimilarity = request.getMinSimilarity();
@@ -159,6 +189,8 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
             }
         }
 
+        stageStart = recordStage(strategyTag, "score", stageStart);
+
         // 根据得分排序
         allResults.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
 
@@ -179,6 +211,7 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
         resultPage.setTotal(allResults.size());
         // 手动设置总页数
         resultPage.setPages((allResults.size() + pageSize - 1) / pageSize);
+        recordStage(strategyTag, "sort", stageStart);
 
         log.info("返回分页结果: 当前页={}, 每页大小={}, 总记录数={}, 返回记录数={}",
                 pageNum, pageSize, allResults.size(), pageResults.size());
@@ -186,6 +219,20 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
         return resultPage;
     }
 
+    /**
+     * 记录推荐阶段耗时，同时计入当前请求的 StageTracer
+     *
+     * @param stageStart 阶段开始的 nanoTime
+     * @return 当前 nanoTime，作为下一阶段的开始
+     */
+    private long recordStage(String strategy, String stage, long stageStart) {
+        long now = System.nanoTime();
+        meterRegistry.timer(MetricsConstants.RECOMMEND_STAGE, "strategy", strategy, "stage", stage)
+                .record(now - stageStart, TimeUnit.NANOSECONDS);
+        StageTracer.record(stage, now - stageStart);
+        return now;
+    }
+
     /**
      * 生成缓存键
      * 基于用户ID、策略、偏好标签、分页信息生成唯一键
@@ -224,7 +271,7 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
      */
     private RecommendationResult calculateRecommendationScore(User currentUser, User candidateUser, String strategy) {
         return calculateRecommendationScoreWithDynamicWeight(currentUser, candidateUser, strategy,
-                currentUser != null ? currentUser.getId() : null);
+                currentUser != null ? currentUser.getId() : null, new RecommendPreference());
     }
 
     /**
@@ -234,10 +281,12 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
      * @param candidateUser   候选用户
      * @param strategy        推荐策略
      * @param currentUserId   当前用户ID
+     * @param preference      当前用户的推荐偏好
      * @return 推荐结果
      */
     private RecommendationResult calculateRecommendationScoreWithDynamicWeight(
-            User currentUser, User candidateUser, String strategy, Long currentUserId) {
+            User currentUser, User candidateUser, String strategy, Long currentUserId,
+            RecommendPreference preference) {
 
         RecommendationResult result = new RecommendationResult();
         result.setUserId(candidateUser.getId());
@@ -291,6 +340,12 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
         }
         // 默认综合策略保持初始权重
 
+        // 按用户反馈学到的偏好缩放相似度、互补度权重，总权重不变（差额由活跃度承担，不低于 0）
+        double weightBefore = similarityWeight + complementWeight;
+        similarityWeight *= preference.getSimilarityMultiplier();
+        complementWeight *= preference.getComplementMultiplier();
+        activityWeight = Math.max(activityWeight + weightBefore - similarityWeight - complementWeight, 0.0);
+
         // 计算各项得分（优先使用预计算数据）
         double similarityScore = 0.0;
         double complementScore = 0.0;
@@ -339,7 +394,8 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
                 + complementScore * complementWeight
                 + activityScore * activityWeight
                 + precomputedScore * precomputedWeight
-                + Math.random() * randomWeight;
+                + Math.random() * randomWeight
+                + preference.boostOf(candidateUser.getId());
 
         // 生成推荐理由
         if (similarityScore > 0.5) {
@@ -354,6 +410,9 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
         if (precomputedScore > 0.5) {
             reasons.add("基于大数据的智能匹配");
         }
+        if (preference.boostOf(candidateUser.getId()) > 0) {
+            reasons.add("你之前对该用户感兴趣");
+        }
 
         // 设置匹配类型
         if ("similar".equals(strategy) || "skill".equals(strategy)) {
@@ -374,54 +433,12 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
 
     @Override
     public Double calculateTagSimilarity(List<String> tags1, List<String> tags2) {
-        if (CollectionUtils.isEmpty(tags1) || CollectionUtils.isEmpty(tags2)) {
-            return 0.0;
-        }
-
-        // Jaccard 相似系数: |A ∩ B| / |A ∪ B|
-        Set<String> set1 = new HashSet<>(tags1);
-        Set<String> set2 = new HashSet<>(tags2);
-
-        Set<String> intersection = new HashSet<>(set1);
-        intersection.retainAll(set2);
-
-        Set<String> union = new HashSet<>(set1);
-        union.addAll(set2);
-
-        if (union.isEmpty()) {
-            return 0.0;
-        }
-
-        return (double) intersection.size() / union.size();
+        return TagScoreUtils.similarity(tags1, tags2);
     }
 
     @Override
     public Double calculateComplementScore(List<String> myTags, List<String> otherTags) {
-        if (CollectionUtils.isEmpty(myTags) || CollectionUtils.isEmpty(otherTags)) {
-            return 0.0;
-        }
-
-        Set<String> myTagSet = new HashSet<>(myTags);
-        double complementScore = 0.0;
-
-        // 计算对方标签中有多少是与我互补的
-        for (String tag : otherTags) {
-            if (COMPLEMENT_MAP.containsKey(tag)) {
-                // 检查这个标签是否与我的标签互补
-                List<String> complementTags = COMPLEMENT_MAP.get(tag);
-                for (String myTag : myTags) {
-                    if (complementTags.contains(myTag)) {
-                        complementScore += 0.5;
-                    }
-                }
-            } else if (!myTagSet.contains(tag)) {
-                // 对方有而我没有的技能，也有一定的互补性
-                complementScore += 0.2;
-            }
-        }
-
-        // 归一化到 0-1
-        return Math.min(complementScore / otherTags.size(), 1.0);
+        return TagScoreUtils.complement(myTags, otherTags);
     }
 
     @Override
@@ -470,24 +487,29 @@ public class RecommendationServiceImpl extends ServiceImpl<UserMapper, User>
 
     @Override
     public Boolean recordFeedback(Long userId, Long recommendedUserId, Integer feedback) {
-        // TODO: 实现反馈记录功能
-        // 1. 将反馈存储到数据库（可创建新表 user_recommend_feedback）
-        // 2. 根据反馈调整推荐权重
-        log.info("记录推荐反馈: userId={}, recommendedUserId={}, feedback={}", userId, recommendedUserId, feedback);
+        if (userId == null || userId <= 0 || recommendedUserId == null || recommendedUserId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户ID不合法");
+        }
+        if (userId.equals(recommendedUserId)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "不能对自己反馈");
+        }
+        if (feedback == null || (feedback != 1 && feedback != -1)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "反馈值只能是 1 或 -1");
+        }
+        UserRecommendFeedback record = new UserRecommendFeedback();
+        record.setUserId(userId);
+        record.setRecommendedUserId(recommendedUserId);
+        record.setFeedback(feedback);
+        record.setCreateTime(new Date());
+        // 写入有界队列，由后台线程批量落库；队列满说明写库跟不上，直接拒绝而不是拖慢请求
+        if (!feedbackIngestionService.submit(record)) {
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "反馈提交过于频繁，请稍后再试");
+        }
         return true;
     }
 
     @Override
     public List<String> parseTags(String tagsJson) {
-        if (StringUtils.isBlank(tagsJson)) {
-            return new ArrayList<>();
-        }
-        try {
-            return GSON.fromJson(tagsJson, new TypeToken<List<String>>() {
-            }.getType());
-        } catch (Exception e) {
-            log.error("解析标签失败: {}", tagsJson, e);
-            return new ArrayList<>();
-        }
+        return TagScoreUtils.parseTags(tagsJson);
     }
 }
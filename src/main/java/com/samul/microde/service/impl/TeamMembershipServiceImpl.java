@@ -0,0 +1,346 @@
+package com.samul.microde.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.constant.RedisCacheConstants;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.mapper.UserTeamMapper;
+import com.samul.microde.model.domain.UserTeam;
+import com.samul.microde.service.TeamMembershipService;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 队伍成员名额服务实现
+ * 成员集合不存在时（首次访问、过期、Redis 重启）在分布式锁内从 user_team 表重建
+ * 退出发生在查询之后、写回之前时，退出的 ZREM 落在不存在的 Key 上，写回会把已退出的成员加回去；
+ * 因此退出和删除队伍都会自增成员版本号，重建时在 Lua 中确认 Key 仍不存在且版本号未变才写回
+ *
+ * @author Samul_Alen
+ */
+@Service
+@Slf4j
+public class TeamMembershipServiceImpl implements TeamMembershipService {
+
+    private static final String LOCK_KEY_PREFIX = "microde:lock:team:members:";
+
+    /**
+     * 成员集合过期时间（秒），每次写入时续期，长期无人访问的队伍自动回收
+     */
+    private static final long MEMBERS_EXPIRE_SECONDS = TimeUnit.DAYS.toSeconds(7);
+
+    private static final long RESULT_NOT_LOADED = -1L;
+
+    private static final long RESULT_ALREADY_JOINED = -2L;
+
+    private static final long RESULT_FULL = -3L;
+
+    /**
+     * 成员版本号过期时间（秒），只需覆盖一次重建的耗时，每次自增时续期
+     */
+    private static final long VERSION_EXPIRE_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    /**
+     * 重建期间成员有变更时的最大重试次数
+     */
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private static final long REBUILD_VERSION_CHANGED = -1L;
+
+    /**
+     * 占用名额
+     * KEYS[1] 成员集合；ARGV[1] 用户ID，ARGV[2] 最大人数，ARGV[3] 加入时间，ARGV[4] 过期秒数
+     * 返回：当前人数；-1 集合未加载；-2 已加入；-3 已满
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+                    "if redis.call('ZSCORE', KEYS[1], ARGV[1]) then return -2 end " +
+                    "if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[2]) then return -3 end " +
+                    "redis.call('ZADD', KEYS[1], ARGV[3], ARGV[1]) " +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+                    "return redis.call('ZCARD', KEYS[1])", Long.class);
+
+    /**
+     * 写回从数据库查到的成员
+     * KEYS[1] 成员集合，KEYS[2] 成员版本号；ARGV[1] 查询前读到的版本号，ARGV[2] 过期秒数，ARGV[3..] 加入时间、用户ID 交替
+     * 返回：1 已写回；0 集合已存在，未写入；-1 查询后成员有变更，未写入
+     */
+    private static final DefaultRedisScript<Long> REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+                    "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return -1 end " +
+                    "for i = 3, #ARGV, 2 do redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+                    "if #ARGV > 2 then redis.call('EXPIRE', KEYS[1], ARGV[2]) end " +
+                    "return 1", Long.class);
+
+    /**
+     * 移除成员（退出队伍）或删除整个集合（删除队伍），并自增成员版本号
+     * KEYS[1] 成员集合，KEYS[2] 成员版本号；ARGV[1] 用户ID，为空时删除整个集合，ARGV[2] 版本号过期秒数
+     */
+    private static final DefaultRedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "if ARGV[1] == '' then redis.call('DEL', KEYS[1]) else redis.call('ZREM', KEYS[1], ARGV[1]) end " +
+                    "redis.call('INCR', KEYS[2]) " +
+                    "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+                    "return 1", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private UserTeamMapper userTeamMapper;
+
+    @Override
+    public void reserve(long teamId, long userId, int maxNum, long joinTime) {
+        long result = executeReserve(teamId, userId, maxNum, joinTime);
+        if (result == RESULT_NOT_LOADED) {
+            loadMembers(teamId);
+            result = executeReserve(teamId, userId, maxNum, joinTime);
+        }
+        if (result == RESULT_NOT_LOADED) {
+            // 重建后仍不存在说明队伍没有任何成员记录，数据异常
+            log.error("队伍 {} 的成员集合重建失败", teamId);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入队伍失败");
+        }
+        if (result == RESULT_ALREADY_JOINED) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "已加入该队伍");
+        }
+        if (result == RESULT_FULL) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满");
+        }
+    }
+
+    @Override
+    public void release(long teamId, long userId) {
+        try {
+            executeRemove(teamId, String.valueOf(userId));
+        } catch (Exception e) {
+            // 释放失败时删除整个集合，下次访问从数据库重建，避免名额泄漏
+            log.error("释放队伍名额失败，teamId: {}, userId: {}", teamId, userId, e);
+            evictTeam(teamId);
+        }
+    }
+
+    @Override
+    public List<Long> getMemberIds(long teamId) {
+        String key = membersKey(teamId);
+        Set<String> members = stringRedisTemplate.opsForZSet().range(key, 0, -1);
+        if (members == null || members.isEmpty()) {
+            loadMembers(teamId);
+            members = stringRedisTemplate.opsForZSet().range(key, 0, -1);
+        }
+        return toMemberIds(members);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Long, List<Long>> getMemberIds(Collection<Long> teamIds) {
+        Map<Long, List<Long>> result = new LinkedHashMap<>();
+        if (teamIds == null || teamIds.isEmpty()) {
+            return result;
+        }
+        List<Long> orderedIds = new ArrayList<>(new LinkedHashSet<>(teamIds));
+        List<Object> ranges = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long teamId : orderedIds) {
+                connection.zRange(membersKey(teamId).getBytes(StandardCharsets.UTF_8), 0, -1);
+            }
+            return null;
+        });
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < orderedIds.size(); i++) {
+            Long teamId = orderedIds.get(i);
+            Set<String> members = (Set<String>) ranges.get(i);
+            if (members == null || members.isEmpty()) {
+                missingIds.add(teamId);
+            }
+            result.put(teamId, toMemberIds(members));
+        }
+        if (!missingIds.isEmpty()) {
+            result.putAll(loadMembers(missingIds));
+        }
+        return result;
+    }
+
+    private List<Long> toMemberIds(Set<String> members) {
+        if (members == null || members.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> memberIds = new ArrayList<>(members.size());
+        for (String member : members) {
+            memberIds.add(Long.parseLong(member));
+        }
+        return memberIds;
+    }
+
+    @Override
+    public void evictTeam(long teamId) {
+        executeRemove(teamId, "");
+    }
+
+    private void executeRemove(long teamId, String member) {
+        stringRedisTemplate.execute(REMOVE_SCRIPT, Arrays.asList(membersKey(teamId), versionKey(teamId)),
+                member, String.valueOf(VERSION_EXPIRE_SECONDS));
+    }
+
+    private long executeReserve(long teamId, long userId, int maxNum, long joinTime) {
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT,
+                Collections.singletonList(membersKey(teamId)),
+                String.valueOf(userId), String.valueOf(maxNum), String.valueOf(joinTime),
+                String.valueOf(MEMBERS_EXPIRE_SECONDS));
+        return result == null ? RESULT_NOT_LOADED : result;
+    }
+
+    /**
+     * 从 user_team 表重建成员集合
+     * 同一队伍只允许一个线程重建，其余线程等待后直接使用重建结果；重建期间有成员退出时重新查询
+     */
+    private void loadMembers(long teamId) {
+        String key = membersKey(teamId);
+        RLock lock = redissonClient.getLock(LOCK_KEY_PREFIX + teamId);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(3, 10, TimeUnit.SECONDS);
+            if (!locked) {
+                throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "系统繁忙，请稍后再试");
+            }
+            for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+                if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+                    return;
+                }
+                // 先读版本号再查库，写回时版本号变化说明查询结果可能包含已退出的成员
+                String version = stringRedisTemplate.opsForValue().get(versionKey(teamId));
+                QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("userId", "joinTime");
+                queryWrapper.eq("teamId", teamId);
+                List<UserTeam> userTeams = userTeamMapper.selectList(queryWrapper);
+                List<String> args = rebuildArgs(version, userTeams);
+                if (args.size() == 2) {
+                    return;
+                }
+                Long result = stringRedisTemplate.execute(REBUILD_SCRIPT,
+                        Arrays.asList(key, versionKey(teamId)), args.toArray());
+                if (result == null || result != REBUILD_VERSION_CHANGED) {
+                    log.debug("队伍 {} 的成员集合已从数据库重建，成员数: {}", teamId, (args.size() - 2) / 2);
+                    return;
+                }
+            }
+            log.warn("队伍 {} 的成员在重建期间持续变更，放弃本次重建", teamId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加载队伍成员失败");
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * REBUILD_SCRIPT 的参数：版本号、过期秒数，之后是加入时间、用户ID 交替
+     *
+     * @param version 查询前读到的版本号，不存在时为 null
+     */
+    private List<String> rebuildArgs(String version, List<UserTeam> userTeams) {
+        List<String> args = new ArrayList<>(2 + userTeams.size() * 2);
+        args.add(version == null ? "0" : version);
+        args.add(String.valueOf(MEMBERS_EXPIRE_SECONDS));
+        for (UserTeam userTeam : userTeams) {
+            if (userTeam.getUserId() == null) {
+                continue;
+            }
+            args.add(String.valueOf(userTeam.getJoinTime() != null ? userTeam.getJoinTime().getTime() : 0L));
+            args.add(String.valueOf(userTeam.getUserId()));
+        }
+        return args;
+    }
+
+    /**
+     * 用一次 IN 查询重建多个队伍的成员集合，流水线写回
+     * 不加分布式锁：每个队伍与单个队伍重建一样由 REBUILD_SCRIPT 写回，集合已存在或查询后有成员退出的队伍不写入，下次访问再重建
+     *
+     * @return 队伍ID -> 成员ID列表（按加入时间升序），没有成员记录的队伍为空列表
+     */
+    private Map<Long, List<Long>> loadMembers(List<Long> teamIds) {
+        // 先读版本号再查库
+        List<String> versionKeys = new ArrayList<>(teamIds.size());
+        for (Long teamId : teamIds) {
+            versionKeys.add(versionKey(teamId));
+        }
+        List<String> versions = stringRedisTemplate.opsForValue().multiGet(versionKeys);
+        QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("teamId", "userId", "joinTime");
+        queryWrapper.in("teamId", teamIds);
+        queryWrapper.orderByAsc("joinTime");
+        Map<Long, List<UserTeam>> teamRows = new LinkedHashMap<>();
+        Map<Long, List<Long>> result = new LinkedHashMap<>();
+        for (Long teamId : teamIds) {
+            result.put(teamId, new ArrayList<>());
+        }
+        for (UserTeam userTeam : userTeamMapper.selectList(queryWrapper)) {
+            if (userTeam.getTeamId() == null || userTeam.getUserId() == null) {
+                continue;
+            }
+            List<Long> memberIds = result.get(userTeam.getTeamId());
+            if (memberIds != null && !memberIds.contains(userTeam.getUserId())) {
+                memberIds.add(userTeam.getUserId());
+                teamRows.computeIfAbsent(userTeam.getTeamId(), k -> new ArrayList<>()).add(userTeam);
+            }
+        }
+        if (teamRows.isEmpty()) {
+            return result;
+        }
+        byte[] script = REBUILD_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        List<byte[][]> scriptArgs = new ArrayList<>(teamRows.size());
+        for (int i = 0; i < teamIds.size(); i++) {
+            Long teamId = teamIds.get(i);
+            List<UserTeam> rows = teamRows.get(teamId);
+            if (rows == null) {
+                continue;
+            }
+            List<String> args = rebuildArgs(versions != null ? versions.get(i) : null, rows);
+            byte[][] keysAndArgs = new byte[2 + args.size()][];
+            keysAndArgs[0] = membersKey(teamId).getBytes(StandardCharsets.UTF_8);
+            keysAndArgs[1] = versionKey(teamId).getBytes(StandardCharsets.UTF_8);
+            for (int j = 0; j < args.size(); j++) {
+                keysAndArgs[2 + j] = args.get(j).getBytes(StandardCharsets.UTF_8);
+            }
+            scriptArgs.add(keysAndArgs);
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] keysAndArgs : scriptArgs) {
+                connection.eval(script, ReturnType.INTEGER, 2, keysAndArgs);
+            }
+            return null;
+        });
+        log.debug("{} 个队伍的成员集合已从数据库批量重建", teamRows.size());
+        return result;
+    }
+
+    private String membersKey(long teamId) {
+        return RedisCacheConstants.TEAM_MEMBERS_KEY_PREFIX + teamId;
+    }
+
+    private String versionKey(long teamId) {
+        return RedisCacheConstants.TEAM_MEMBERS_VERSION_KEY_PREFIX + teamId;
+    }
+}
@@ -0,0 +1,149 @@
+package com.samul.microde.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.mapper.TeamMapper;
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.service.TeamQuotaService;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户创建队伍配额服务实现
+ * 计数器不存在时在该用户的分布式锁内按数据库中的队伍数初始化
+ * 计数器带过期时间，过期后重新按数据库初始化，与数据库对账
+ *
+ * @author Samul_Alen
+ */
+@Service
+@Slf4j
+public class TeamQuotaServiceImpl implements TeamQuotaService {
+
+    private static final String QUOTA_KEY_PREFIX = "microde:team:quota:";
+
+    private static final String LOCK_KEY_PREFIX = "microde:lock:team:quota:";
+
+    /**
+     * 计数器过期时间（秒），每次占用时续期
+     */
+    private static final long QUOTA_EXPIRE_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private static final long RESULT_NOT_LOADED = -1L;
+
+    private static final long RESULT_EXCEEDED = -2L;
+
+    /**
+     * 占用配额
+     * KEYS[1] 计数器；ARGV[1] 上限，ARGV[2] 过期秒数
+     * 返回：占用后的数量；-1 计数器未初始化；-2 已达上限
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local c = redis.call('GET', KEYS[1]) " +
+                    "if not c then return -1 end " +
+                    "if tonumber(c) >= tonumber(ARGV[1]) then return -2 end " +
+                    "local n = redis.call('INCR', KEYS[1]) " +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+                    "return n", Long.class);
+
+    /**
+     * 归还配额，计数器不存在或已为 0 时不处理
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local c = redis.call('GET', KEYS[1]) " +
+                    "if c and tonumber(c) > 0 then return redis.call('DECR', KEYS[1]) end " +
+                    "return 0", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Override
+    public void reserve(long userId, int limit) {
+        long result = executeReserve(userId, limit);
+        if (result == RESULT_NOT_LOADED) {
+            loadQuota(userId);
+            result = executeReserve(userId, limit);
+        }
+        if (result == RESULT_NOT_LOADED) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建队伍失败");
+        }
+        if (result == RESULT_EXCEEDED) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户最多创建 " + limit + " 个队伍");
+        }
+        // 事务回滚时归还配额
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(userId);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void release(long userId) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(quotaKey(userId)));
+        } catch (Exception e) {
+            // 归还失败时删除计数器，下次按数据库重新初始化
+            log.error("归还队伍创建配额失败，userId: {}", userId, e);
+            stringRedisTemplate.delete(quotaKey(userId));
+        }
+    }
+
+    private long executeReserve(long userId, int limit) {
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT, Collections.singletonList(quotaKey(userId)),
+                String.valueOf(limit), String.valueOf(QUOTA_EXPIRE_SECONDS));
+        return result == null ? RESULT_NOT_LOADED : result;
+    }
+
+    /**
+     * 按数据库中该用户已创建的队伍数初始化计数器
+     * 锁粒度为单个用户，不同用户创建队伍互不影响
+     */
+    private void loadQuota(long userId) {
+        RLock lock = redissonClient.getLock(LOCK_KEY_PREFIX + userId);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(3, 10, TimeUnit.SECONDS);
+            if (!locked) {
+                throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "系统繁忙，请稍后再试");
+            }
+            QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("userId", userId);
+            long count = teamMapper.selectCount(queryWrapper);
+            stringRedisTemplate.opsForValue().setIfAbsent(quotaKey(userId), String.valueOf(count),
+                    QUOTA_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建队伍失败");
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private String quotaKey(long userId) {
+        return QUOTA_KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,462 @@
+package com.samul.microde.service.impl;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.samul.microde.cache.CacheMetrics;
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.constant.RedisCacheConstants;
+import com.samul.microde.enums.TeamStatusEnum;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.mapper.TeamMapper;
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.model.dto.TeamQuery;
+import com.samul.microde.service.TeamReadModelService;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 队伍读模型实现
+ * 快照比索引多保留 1 分钟：只要索引存在，快照一定存在，增量更新不会写出残缺的快照
+ * 是否已加载以标记 Key 为准，比索引少保留 1 分钟：没有队伍时索引不存在，但读模型仍然是已加载的，不会反复回源重建
+ * 过期时间索引（ZSet，score 为 expireTime）：查询前按分数区间摘除已过期的队伍，O(log n)，
+ * 数据库中的过期队伍由定时任务分批归档
+ *
+ * @author Samul_Alen
+ */
+@Service
+@Slf4j
+public class TeamReadModelServiceImpl implements TeamReadModelService {
+
+    private static final String ALL_INDEX_KEY = RedisCacheConstants.TEAM_INDEX_KEY_PREFIX + "all";
+
+    private static final String EXPIRE_INDEX_KEY = RedisCacheConstants.TEAM_INDEX_KEY_PREFIX + "expire";
+
+    private static final String STATUS_INDEX_KEY_PREFIX = RedisCacheConstants.TEAM_INDEX_KEY_PREFIX + "status:";
+
+    /**
+     * 已加载标记，重建完成后最后写入
+     */
+    private static final String LOADED_KEY = RedisCacheConstants.TEAM_INDEX_KEY_PREFIX + "loaded";
+
+    private static final String REBUILD_LOCK_KEY = "microde:lock:team:read-model:rebuild";
+
+    /**
+     * 索引过期时间（分钟），定时同步任务每 5 分钟重建一次
+     */
+    private static final long INDEX_EXPIRE_MINUTES = 10;
+
+    private static final long SNAPSHOT_EXPIRE_MINUTES = INDEX_EXPIRE_MINUTES + 1;
+
+    private static final long LOADED_EXPIRE_MINUTES = INDEX_EXPIRE_MINUTES - 1;
+
+    /**
+     * 分页查询每页最大数量
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 每次最多摘除的过期队伍数
+     */
+    private static final int PRUNE_BATCH_SIZE = 500;
+
+    /**
+     * 增量更新索引，读模型未加载时（已过期、待重建）不写入，避免产生残缺索引
+     * 新建出来的索引（原来没有队伍）设置与重建相同的过期时间
+     * KEYS[1] 已加载标记，KEYS[2] 总索引，KEYS[3] 过期时间索引，KEYS[4..] 各状态索引
+     * ARGV[1] 队伍ID，ARGV[2] 创建时间，ARGV[3] 所属状态索引的序号（从 1 开始），ARGV[4] 过期时间（为空表示不过期），
+     * ARGV[5] 索引过期时间（秒）
+     * 返回：0 未加载，1 已更新，2 已更新且总索引是新建的（快照也需要设置过期时间）
+     */
+    private static final DefaultRedisScript<Long> UPDATE_INDEX_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+                    "local function zadd(key, score) " +
+                    "  redis.call('ZADD', key, score, ARGV[1]) " +
+                    "  if redis.call('TTL', key) == -1 then redis.call('EXPIRE', key, ARGV[5]) end " +
+                    "end " +
+                    "local created = redis.call('EXISTS', KEYS[2]) == 0 " +
+                    "zadd(KEYS[2], ARGV[2]) " +
+                    "if ARGV[4] == '' then redis.call('ZREM', KEYS[3], ARGV[1]) " +
+                    "else zadd(KEYS[3], ARGV[4]) end " +
+                    "for i = 4, #KEYS do " +
+                    "  if (i - 3) == tonumber(ARGV[3]) then zadd(KEYS[i], ARGV[2]) " +
+                    "  else redis.call('ZREM', KEYS[i], ARGV[1]) end " +
+                    "end " +
+                    "if created then return 2 end " +
+                    "return 1", Long.class);
+
+    /**
+     * 摘除已过期的队伍
+     * KEYS[1] 过期时间索引，KEYS[2] 快照，KEYS[3..] 总索引和各状态索引；ARGV[1] 当前时间，ARGV[2] 本次最多摘除数量
+     * 返回：摘除的队伍数
+     */
+    private static final DefaultRedisScript<Long> PRUNE_EXPIRED_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+                    "for _, id in ipairs(ids) do " +
+                    "  for i = 3, #KEYS do redis.call('ZREM', KEYS[i], id) end " +
+                    "  redis.call('HDEL', KEYS[2], id) " +
+                    "  redis.call('ZREM', KEYS[1], id) " +
+                    "end " +
+                    "return #ids", Long.class);
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private CacheMetrics cacheMetrics;
+
+    @Override
+    public void rebuild() {
+        log.info("开始重建队伍读模型...");
+        long startTime = System.currentTimeMillis();
+
+        List<Team> allTeams = teamMapper.selectList(null);
+        if (allTeams.isEmpty()) {
+            log.warn("数据库中没有队伍数据");
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, Object> snapshot = new HashMap<>(allTeams.size() * 2);
+        Set<ZSetOperations.TypedTuple<String>> allIndex = new HashSet<>();
+        Set<ZSetOperations.TypedTuple<String>> expireIndex = new HashSet<>();
+        Map<Integer, Set<ZSetOperations.TypedTuple<String>>> statusIndexes = new HashMap<>();
+        for (Team team : allTeams) {
+            // 已过期的队伍不进入读模型，等待定时任务归档
+            if (isExpired(team, now)) {
+                continue;
+            }
+            String teamId = String.valueOf(team.getId());
+            if (team.getExpireTime() != null) {
+                expireIndex.add(new DefaultTypedTuple<>(teamId, (double) team.getExpireTime().getTime()));
+            }
+            snapshot.put(teamId, team);
+            DefaultTypedTuple<String> tuple = new DefaultTypedTuple<>(teamId, score(team));
+            allIndex.add(tuple);
+            if (team.getStatus() != null) {
+                statusIndexes.computeIfAbsent(team.getStatus(), k -> new HashSet<>()).add(tuple);
+            }
+        }
+
+        // 先写临时 Key，写完后 RENAME 原子替换，重建期间读请求看到的始终是完整数据
+        String tmpSuffix = ":tmp:" + UUID.randomUUID();
+        if (snapshot.isEmpty()) {
+            redisTemplate.delete(RedisCacheConstants.ALL_TEAMS_CACHE_KEY);
+        } else {
+            String tmpSnapshotKey = RedisCacheConstants.ALL_TEAMS_CACHE_KEY + tmpSuffix;
+            redisTemplate.opsForHash().putAll(tmpSnapshotKey, snapshot);
+            redisTemplate.expire(tmpSnapshotKey, SNAPSHOT_EXPIRE_MINUTES, TimeUnit.MINUTES);
+            redisTemplate.rename(tmpSnapshotKey, RedisCacheConstants.ALL_TEAMS_CACHE_KEY);
+        }
+
+        for (TeamStatusEnum statusEnum : TeamStatusEnum.values()) {
+            replaceIndex(statusIndexKey(statusEnum.getValue()), statusIndexes.get(statusEnum.getValue()), tmpSuffix);
+        }
+        replaceIndex(EXPIRE_INDEX_KEY, expireIndex, tmpSuffix);
+        replaceIndex(ALL_INDEX_KEY, allIndex, tmpSuffix);
+        // 空读模型也写入标记，没有队伍时不会每个请求都回源重建
+        stringRedisTemplate.opsForValue().set(LOADED_KEY, String.valueOf(now), LOADED_EXPIRE_MINUTES, TimeUnit.MINUTES);
+
+        log.info("队伍读模型重建完成！共加载 {} 个队伍，耗时 {} ms", snapshot.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public void onTeamSaved(long teamId) {
+        try {
+            Team team = teamMapper.selectById(teamId);
+            if (team == null || isExpired(team, System.currentTimeMillis())) {
+                onTeamRemoved(teamId);
+                return;
+            }
+            List<String> keys = new ArrayList<>();
+            keys.add(LOADED_KEY);
+            keys.add(ALL_INDEX_KEY);
+            keys.add(EXPIRE_INDEX_KEY);
+            int statusPosition = 0;
+            TeamStatusEnum[] statusEnums = TeamStatusEnum.values();
+            for (int i = 0; i < statusEnums.length; i++) {
+                keys.add(statusIndexKey(statusEnums[i].getValue()));
+                if (Objects.equals(team.getStatus(), statusEnums[i].getValue())) {
+                    statusPosition = i + 1;
+                }
+            }
+            String expireTime = team.getExpireTime() != null ? String.valueOf(team.getExpireTime().getTime()) : "";
+            Long updated = stringRedisTemplate.execute(UPDATE_INDEX_SCRIPT, keys, String.valueOf(teamId),
+                    String.valueOf((long) score(team)), String.valueOf(statusPosition), expireTime,
+                    String.valueOf(TimeUnit.MINUTES.toSeconds(INDEX_EXPIRE_MINUTES)));
+            if (updated != null && updated > 0L) {
+                redisTemplate.opsForHash().put(RedisCacheConstants.ALL_TEAMS_CACHE_KEY, String.valueOf(teamId), team);
+                if (updated == 2L) {
+                    // 原来没有队伍，快照是新建的
+                    redisTemplate.expire(RedisCacheConstants.ALL_TEAMS_CACHE_KEY, SNAPSHOT_EXPIRE_MINUTES, TimeUnit.MINUTES);
+                }
+            }
+        } catch (Exception e) {
+            // 增量更新失败不影响写操作，下一次定时重建会修正
+            log.error("增量更新队伍读模型失败，teamId: {}", teamId, e);
+        }
+    }
+
+    @Override
+    public void onTeamRemoved(long teamId) {
+        try {
+            String member = String.valueOf(teamId);
+            stringRedisTemplate.opsForZSet().remove(ALL_INDEX_KEY, member);
+            stringRedisTemplate.opsForZSet().remove(EXPIRE_INDEX_KEY, member);
+            for (TeamStatusEnum statusEnum : TeamStatusEnum.values()) {
+                stringRedisTemplate.opsForZSet().remove(statusIndexKey(statusEnum.getValue()), member);
+            }
+            redisTemplate.opsForHash().delete(RedisCacheConstants.ALL_TEAMS_CACHE_KEY, member);
+        } catch (Exception e) {
+            log.error("从队伍读模型移除队伍失败，teamId: {}", teamId, e);
+        }
+    }
+
+    @Override
+    public Page<Team> listTeams(TeamQuery teamQuery) {
+        if (teamQuery.getPageSize() <= 0 || teamQuery.getPageSize() > MAX_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "每页数量需在1-" + MAX_PAGE_SIZE + "之间");
+        }
+        ensureLoaded();
+        pruneExpired();
+        long pageNum = Math.max(1, teamQuery.getPageNum());
+        long pageSize = teamQuery.getPageSize();
+        String indexKey = teamQuery.getStatus() != null ? statusIndexKey(teamQuery.getStatus()) : ALL_INDEX_KEY;
+        long start = (pageNum - 1) * pageSize;
+
+        Page<Team> page = new Page<>(pageNum, pageSize);
+        if (!hasFieldFilter(teamQuery)) {
+            // 只按状态过滤：直接对索引分页，只读取当前页的快照
+            Long total = stringRedisTemplate.opsForZSet().zCard(indexKey);
+            Set<String> ids = stringRedisTemplate.opsForZSet().reverseRange(indexKey, start, start + pageSize - 1);
+            page.setTotal(total == null ? 0 : total);
+            page.setRecords(hidePassword(getTeams(toLongIds(ids))));
+            return page;
+        }
+        // 有其他等值条件时在快照上过滤后分页
+        List<Team> matched = filterTeams(indexKey, teamQuery);
+        page.setTotal(matched.size());
+        int from = (int) Math.min(start, matched.size());
+        int to = (int) Math.min(start + pageSize, matched.size());
+        page.setRecords(hidePassword(new ArrayList<>(matched.subList(from, to))));
+        return page;
+    }
+
+    @Override
+    public List<Team> listAllTeams(TeamQuery teamQuery) {
+        ensureLoaded();
+        pruneExpired();
+        String indexKey = teamQuery.getStatus() != null ? statusIndexKey(teamQuery.getStatus()) : ALL_INDEX_KEY;
+        return hidePassword(filterTeams(indexKey, teamQuery));
+    }
+
+    @Override
+    public long countTeams(TeamQuery teamQuery) {
+        ensureLoaded();
+        pruneExpired();
+        String indexKey = teamQuery.getStatus() != null ? statusIndexKey(teamQuery.getStatus()) : ALL_INDEX_KEY;
+        if (!hasFieldFilter(teamQuery)) {
+            Long total = stringRedisTemplate.opsForZSet().zCard(indexKey);
+            return total == null ? 0 : total;
+        }
+        return filterTeams(indexKey, teamQuery).size();
+    }
+
+    @Override
+    public Team getTeam(long teamId) {
+        try {
+            Object teamObj = redisTemplate.opsForHash().get(RedisCacheConstants.ALL_TEAMS_CACHE_KEY, String.valueOf(teamId));
+            cacheMetrics.record(CacheMetrics.TEAMS, teamObj instanceof Team);
+            if (teamObj instanceof Team) {
+                return (Team) teamObj;
+            }
+        } catch (Exception e) {
+            cacheMetrics.error(CacheMetrics.TEAMS);
+            log.error("从Redis获取队伍失败，teamId: {}", teamId, e);
+        }
+        return null;
+    }
+
+    @Override
+    public List<Team> getTeams(Collection<Long> teamIds) {
+        if (teamIds == null || teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> fields = new ArrayList<>(teamIds.size());
+        for (Long teamId : teamIds) {
+            fields.add(String.valueOf(teamId));
+        }
+        List<Object> values = redisTemplate.opsForHash().multiGet(RedisCacheConstants.ALL_TEAMS_CACHE_KEY, fields);
+        List<Team> teams = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value instanceof Team) {
+                teams.add((Team) value);
+            }
+        }
+        cacheMetrics.record(CacheMetrics.TEAMS, teams.size(), fields.size() - teams.size());
+        return teams;
+    }
+
+    @Override
+    public List<Team> getAllTeams() {
+        ensureLoaded();
+        pruneExpired();
+        List<Object> values = redisTemplate.opsForHash().values(RedisCacheConstants.ALL_TEAMS_CACHE_KEY);
+        List<Team> teams = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value instanceof Team) {
+                teams.add((Team) value);
+            }
+        }
+        return teams;
+    }
+
+    /**
+     * 按索引顺序读取全部队伍并做等值过滤（与原 QueryWrapper(entity) 的非空字段等值语义一致）
+     */
+    private List<Team> filterTeams(String indexKey, TeamQuery teamQuery) {
+        Set<String> ids = stringRedisTemplate.opsForZSet().reverseRange(indexKey, 0, -1);
+        List<Team> matched = new ArrayList<>();
+        for (Team team : getTeams(toLongIds(ids))) {
+            if (teamQuery.getName() != null && !teamQuery.getName().equals(team.getName())) {
+                continue;
+            }
+            if (teamQuery.getDescription() != null && !teamQuery.getDescription().equals(team.getDescription())) {
+                continue;
+            }
+            if (teamQuery.getMaxNum() != null && !teamQuery.getMaxNum().equals(team.getMaxNum())) {
+                continue;
+            }
+            if (teamQuery.getUserId() != null && !teamQuery.getUserId().equals(team.getUserId())) {
+                continue;
+            }
+            matched.add(team);
+        }
+        return matched;
+    }
+
+    private boolean hasFieldFilter(TeamQuery teamQuery) {
+        return teamQuery.getName() != null || teamQuery.getDescription() != null
+                || teamQuery.getMaxNum() != null || teamQuery.getUserId() != null;
+    }
+
+    /**
+     * 读模型未加载时重建（同一时刻只有一个实例重建，其余请求读取已有数据）
+     */
+    private void ensureLoaded() {
+        if (isLoaded()) {
+            return;
+        }
+        RLock lock = redissonClient.getLock(REBUILD_LOCK_KEY);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(3, 60, TimeUnit.SECONDS);
+            if (locked && !isLoaded()) {
+                rebuild();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 从索引和快照中摘除已到期的队伍
+     * 没有到期队伍时只有一次 ZRANGEBYSCORE，O(log n)
+     */
+    private void pruneExpired() {
+        try {
+            List<String> keys = new ArrayList<>();
+            keys.add(EXPIRE_INDEX_KEY);
+            keys.add(RedisCacheConstants.ALL_TEAMS_CACHE_KEY);
+            keys.add(ALL_INDEX_KEY);
+            for (TeamStatusEnum statusEnum : TeamStatusEnum.values()) {
+                keys.add(statusIndexKey(statusEnum.getValue()));
+            }
+            String now = String.valueOf(System.currentTimeMillis());
+            Long pruned;
+            do {
+                pruned = stringRedisTemplate.execute(PRUNE_EXPIRED_SCRIPT, keys, now, String.valueOf(PRUNE_BATCH_SIZE));
+            } while (pruned != null && pruned == PRUNE_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("摘除过期队伍失败", e);
+        }
+    }
+
+    private boolean isExpired(Team team, long now) {
+        return team.getExpireTime() != null && team.getExpireTime().getTime() <= now;
+    }
+
+    /**
+     * 标记比索引先过期，标记存在时索引不存在说明当前没有队伍，不需要重建
+     */
+    private boolean isLoaded() {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(LOADED_KEY));
+    }
+
+    private void replaceIndex(String key, Set<ZSetOperations.TypedTuple<String>> tuples, String tmpSuffix) {
+        if (tuples == null || tuples.isEmpty()) {
+            stringRedisTemplate.delete(key);
+            return;
+        }
+        String tmpKey = key + tmpSuffix;
+        stringRedisTemplate.opsForZSet().add(tmpKey, tuples);
+        stringRedisTemplate.expire(tmpKey, INDEX_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        stringRedisTemplate.rename(tmpKey, key);
+    }
+
+    private List<Team> hidePassword(List<Team> teams) {
+        for (Team team : teams) {
+            team.setPassword(null);
+        }
+        return teams;
+    }
+
+    private List<Long> toLongIds(Set<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(Long.parseLong(id));
+        }
+        return result;
+    }
+
+    private double score(Team team) {
+        return team.getCreateTime() != null ? team.getCreateTime().getTime() : 0D;
+    }
+
+    private String statusIndexKey(int status) {
+        return STATUS_INDEX_KEY_PREFIX + status;
+    }
+}
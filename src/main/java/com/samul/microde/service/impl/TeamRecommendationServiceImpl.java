@@ -0,0 +1,430 @@
+package com.samul.microde.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.samul.microde.constant.RedisCacheConstants;
+import com.samul.microde.enums.TeamStatusEnum;
+import com.samul.microde.mapper.UserMapper;
+import com.samul.microde.mapper.UserTeamMapper;
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.model.domain.User;
+import com.samul.microde.model.domain.UserTeam;
+import com.samul.microde.model.dto.TeamRecommendationResult;
+import com.samul.microde.model.dto.TeamTagVector;
+import com.samul.microde.service.CachePreloadService;
+import com.samul.microde.service.RecommendationService;
+import com.samul.microde.service.TeamMembershipService;
+import com.samul.microde.service.TeamReadModelService;
+import com.samul.microde.service.TeamRecommendationService;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 队伍推荐服务实现
+ * 标签向量由定时任务全量重建，成员变化时增量更新单个队伍
+ * 向量过期或 Redis 重启后，首个推荐请求在分布式锁内重建；是否已构建以标记 Key 为准，没有队伍时也不会反复重建
+ * 推荐请求读本机副本，每个实例最多每 30 秒 HGETALL 一次，成员变化最多延迟 30 秒反映到推荐结果
+ *
+ * @author Samul_Alen
+ */
+@Service
+@Slf4j
+public class TeamRecommendationServiceImpl implements TeamRecommendationService {
+
+    private static final String REBUILD_LOCK_KEY = "microde:lock:team:vectors:rebuild";
+
+    /**
+     * 已构建标记，重建完成后最后写入
+     */
+    private static final String LOADED_KEY = RedisCacheConstants.TEAM_VECTORS_KEY + ":loaded";
+
+    /**
+     * 标签向量过期时间（小时），增量预计算每 6 小时重建一次
+     */
+    private static final long VECTORS_EXPIRE_HOURS = 12;
+
+    /**
+     * 已构建标记的过期时间（分钟），比向量早 1 分钟过期，标记存在时向量一定完整
+     */
+    private static final long LOADED_EXPIRE_MINUTES = TimeUnit.HOURS.toMinutes(VECTORS_EXPIRE_HOURS) - 1;
+
+    /**
+     * 本机向量副本的最长复用时间（毫秒）
+     */
+    private static final long LOCAL_VECTORS_MAX_AGE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * 一次 IN 查询的队伍数量
+     */
+    private static final int QUERY_BATCH_SIZE = 500;
+
+    /**
+     * 相似度权重，其余为互补度权重
+     */
+    private static final double SIMILARITY_WEIGHT = 0.6;
+
+    private static final double COMPLEMENT_WEIGHT = 0.4;
+
+    /**
+     * 候选数量为 topK 的倍数，给私有、已满的队伍留出过滤余量
+     */
+    private static final int CANDIDATE_FACTOR = 3;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private TeamReadModelService teamReadModelService;
+
+    @Resource
+    private TeamMembershipService teamMembershipService;
+
+    @Resource
+    private CachePreloadService cachePreloadService;
+
+    @Resource
+    private RecommendationService recommendationService;
+
+    @Resource
+    private UserTeamMapper userTeamMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    /**
+     * 本机向量副本，只读，整体替换
+     */
+    private volatile LocalVectors localVectors;
+
+    /**
+     * 同一时刻只有一个线程刷新本机副本，其余线程继续使用旧副本
+     */
+    private final ReentrantLock localRefreshLock = new ReentrantLock();
+
+    @Override
+    public void rebuildTeamVectors() {
+        log.info("开始重建队伍标签向量...");
+        long startTime = System.currentTimeMillis();
+
+        List<Team> teams = teamReadModelService.getAllTeams();
+        if (teams.isEmpty()) {
+            redisTemplate.delete(RedisCacheConstants.TEAM_VECTORS_KEY);
+            markLoaded();
+            log.warn("没有可用的队伍，标签向量为空");
+            return;
+        }
+
+        // 1. 批量查询成员关系
+        List<Long> teamIds = teams.stream().map(Team::getId).collect(Collectors.toList());
+        Map<Long, List<Long>> teamMembers = new HashMap<>(teamIds.size() * 2);
+        for (int from = 0; from < teamIds.size(); from += QUERY_BATCH_SIZE) {
+            List<Long> batch = teamIds.subList(from, Math.min(from + QUERY_BATCH_SIZE, teamIds.size()));
+            QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("teamId", "userId");
+            queryWrapper.in("teamId", batch);
+            for (UserTeam userTeam : userTeamMapper.selectList(queryWrapper)) {
+                teamMembers.computeIfAbsent(userTeam.getTeamId(), k -> new ArrayList<>()).add(userTeam.getUserId());
+            }
+        }
+
+        // 2. 批量取成员标签
+        Set<Long> userIds = new HashSet<>();
+        teamMembers.values().forEach(userIds::addAll);
+        Map<Long, List<String>> userTags = loadUserTags(userIds);
+
+        // 3. 写临时 Key 后 RENAME，重建期间推荐请求读到的始终是完整数据
+        Map<String, Object> vectors = new HashMap<>(teamIds.size() * 2);
+        for (Long teamId : teamIds) {
+            List<Long> memberIds = teamMembers.getOrDefault(teamId, new ArrayList<>());
+            vectors.put(String.valueOf(teamId), buildVector(teamId, memberIds, userTags));
+        }
+        String tmpKey = RedisCacheConstants.TEAM_VECTORS_KEY + ":tmp:" + UUID.randomUUID();
+        redisTemplate.opsForHash().putAll(tmpKey, vectors);
+        redisTemplate.expire(tmpKey, VECTORS_EXPIRE_HOURS, TimeUnit.HOURS);
+        redisTemplate.rename(tmpKey, RedisCacheConstants.TEAM_VECTORS_KEY);
+        markLoaded();
+
+        log.info("队伍标签向量重建完成！共 {} 个队伍，耗时 {} ms", vectors.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public void onMembershipChanged(long teamId) {
+        try {
+            if (!isLoaded()) {
+                // 向量尚未构建，等待下次推荐请求或定时任务全量重建
+                return;
+            }
+            List<Long> memberIds = teamMembershipService.getMemberIds(teamId);
+            TeamTagVector vector = buildVector(teamId, memberIds, loadUserTags(memberIds));
+            redisTemplate.opsForHash().put(RedisCacheConstants.TEAM_VECTORS_KEY, String.valueOf(teamId), vector);
+            // 原来没有队伍时 Hash 是新建的，补上过期时间
+            Long ttl = redisTemplate.getExpire(RedisCacheConstants.TEAM_VECTORS_KEY);
+            if (ttl != null && ttl == -1L) {
+                redisTemplate.expire(RedisCacheConstants.TEAM_VECTORS_KEY, VECTORS_EXPIRE_HOURS, TimeUnit.HOURS);
+            }
+        } catch (Exception e) {
+            // 增量更新失败不影响加入/退出，下一次定时重建会修正
+            log.error("更新队伍标签向量失败，teamId: {}", teamId, e);
+        }
+    }
+
+    @Override
+    public void onTeamRemoved(long teamId) {
+        try {
+            redisTemplate.opsForHash().delete(RedisCacheConstants.TEAM_VECTORS_KEY, String.valueOf(teamId));
+        } catch (Exception e) {
+            log.error("移除队伍标签向量失败，teamId: {}", teamId, e);
+        }
+    }
+
+    @Override
+    public List<TeamRecommendationResult> recommendTeams(User loginUser, int topK) {
+        // 登录态只包含 id、角色、状态，标签从用户快照读取
+        List<String> myTags = loadUserTags(Collections.singletonList(loginUser.getId())).get(loginUser.getId());
+        if (CollectionUtils.isEmpty(myTags)) {
+            return new ArrayList<>();
+        }
+        Set<Long> joinedTeamIds = getJoinedTeamIds(loginUser.getId());
+
+        // 1. 对全部预计算向量打分，小顶堆保留得分最高的候选
+        int candidateSize = topK * CANDIDATE_FACTOR;
+        PriorityQueue<TeamRecommendationResult> heap =
+                new PriorityQueue<>(candidateSize + 1, Comparator.comparingDouble(TeamRecommendationResult::getScore));
+        for (TeamTagVector vector : loadVectors()) {
+            if (joinedTeamIds.contains(vector.getTeamId()) || CollectionUtils.isEmpty(vector.getTags())) {
+                continue;
+            }
+            double similarity = recommendationService.calculateTagSimilarity(myTags, vector.getTags());
+            double complement = recommendationService.calculateComplementScore(myTags, vector.getTags());
+            double score = SIMILARITY_WEIGHT * similarity + COMPLEMENT_WEIGHT * complement;
+            if (score <= 0) {
+                continue;
+            }
+            TeamRecommendationResult result = new TeamRecommendationResult();
+            result.setTeamId(vector.getTeamId());
+            result.setMemberCount(vector.getMemberCount());
+            result.setTags(vector.getTags());
+            result.setSimilarity(similarity);
+            result.setComplement(complement);
+            result.setScore(score);
+            heap.offer(result);
+            if (heap.size() > candidateSize) {
+                heap.poll();
+            }
+        }
+        List<TeamRecommendationResult> candidates = new ArrayList<>(heap);
+        candidates.sort(Comparator.comparingDouble(TeamRecommendationResult::getScore).reversed());
+
+        // 2. 一次 HMGET 从队伍快照补全队伍信息，过滤私有、已满、已过期（快照中不存在）的队伍
+        Map<Long, Team> teamMap = new HashMap<>();
+        List<Long> candidateIds = candidates.stream().map(TeamRecommendationResult::getTeamId).collect(Collectors.toList());
+        for (Team team : teamReadModelService.getTeams(candidateIds)) {
+            teamMap.put(team.getId(), team);
+        }
+        List<TeamRecommendationResult> results = new ArrayList<>(topK);
+        for (TeamRecommendationResult candidate : candidates) {
+            Team team = teamMap.get(candidate.getTeamId());
+            if (team == null || team.getStatus() == null || team.getStatus() == TeamStatusEnum.PRIVATE.getValue()) {
+                continue;
+            }
+            if (team.getMaxNum() != null && candidate.getMemberCount() != null && candidate.getMemberCount() >= team.getMaxNum()) {
+                continue;
+            }
+            candidate.setName(team.getName());
+            candidate.setDescription(team.getDescription());
+            candidate.setMaxNum(team.getMaxNum());
+            candidate.setStatus(team.getStatus());
+            candidate.setExpireTime(team.getExpireTime());
+            candidate.setReasons(buildReasons(myTags, candidate));
+            results.add(candidate);
+            if (results.size() >= topK) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 读取全部标签向量：优先用本机副本，过期后由一个线程从 Redis 刷新，其余线程继续用旧副本
+     */
+    private List<TeamTagVector> loadVectors() {
+        LocalVectors current = localVectors;
+        if (current != null && current.isFresh()) {
+            return current.vectors;
+        }
+        if (current != null && !localRefreshLock.tryLock()) {
+            return current.vectors;
+        }
+        if (current == null) {
+            localRefreshLock.lock();
+        }
+        try {
+            current = localVectors;
+            if (current != null && current.isFresh()) {
+                return current.vectors;
+            }
+            if (!ensureLoaded()) {
+                // 其他实例仍在重建：不缓存空结果，保留旧副本，下一个请求重试
+                return current != null ? current.vectors : Collections.emptyList();
+            }
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(RedisCacheConstants.TEAM_VECTORS_KEY);
+            List<TeamTagVector> vectors = new ArrayList<>(entries.size());
+            for (Object value : entries.values()) {
+                if (value instanceof TeamTagVector) {
+                    vectors.add((TeamTagVector) value);
+                }
+            }
+            localVectors = new LocalVectors(Collections.unmodifiableList(vectors));
+            return localVectors.vectors;
+        } finally {
+            localRefreshLock.unlock();
+        }
+    }
+
+    /**
+     * 向量未构建时重建（同一时刻只有一个实例重建）
+     *
+     * @return 向量是否已就绪；等锁超时且其他实例尚未重建完成时返回 false
+     */
+    private boolean ensureLoaded() {
+        if (isLoaded()) {
+            return true;
+        }
+        RLock lock = redissonClient.getLock(REBUILD_LOCK_KEY);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(3, 60, TimeUnit.SECONDS);
+            if (locked && !isLoaded()) {
+                rebuildTeamVectors();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+        return isLoaded();
+    }
+
+    private boolean isLoaded() {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(LOADED_KEY));
+    }
+
+    private void markLoaded() {
+        stringRedisTemplate.opsForValue().set(LOADED_KEY, String.valueOf(System.currentTimeMillis()),
+                LOADED_EXPIRE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    private Set<Long> getJoinedTeamIds(long userId) {
+        QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("teamId");
+        queryWrapper.eq("userId", userId);
+        return userTeamMapper.selectList(queryWrapper).stream()
+                .map(UserTeam::getTeamId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 批量取用户标签，优先读用户快照（一次 HMGET），未命中的一次回源数据库
+     */
+    private Map<Long, List<String>> loadUserTags(Collection<Long> userIds) {
+        Map<Long, List<String>> userTags = new HashMap<>(userIds.size() * 2);
+        if (userIds.isEmpty()) {
+            return userTags;
+        }
+        Map<Long, User> userMap = cachePreloadService.getUsersByIdsFromCache(userIds);
+        List<Long> missingIds = userIds.stream().filter(id -> !userMap.containsKey(id)).collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            for (User user : userMapper.selectBatchIds(missingIds)) {
+                userMap.put(user.getId(), user);
+            }
+        }
+        for (User user : userMap.values()) {
+            userTags.put(user.getId(), recommendationService.parseTags(user.getTags()));
+        }
+        return userTags;
+    }
+
+    /**
+     * 聚合成员标签：去重后按拥有该标签的成员数倒序
+     */
+    private TeamTagVector buildVector(long teamId, List<Long> memberIds, Map<Long, List<String>> userTags) {
+        Map<String, Integer> tagCounts = new LinkedHashMap<>();
+        for (Long memberId : memberIds) {
+            List<String> tags = userTags.get(memberId);
+            if (tags == null) {
+                continue;
+            }
+            for (String tag : new HashSet<>(tags)) {
+                tagCounts.merge(tag, 1, Integer::sum);
+            }
+        }
+        List<String> tags = tagCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        TeamTagVector vector = new TeamTagVector();
+        vector.setTeamId(teamId);
+        vector.setMemberCount(memberIds.size());
+        vector.setTags(tags);
+        return vector;
+    }
+
+    private static final class LocalVectors {
+
+        private final List<TeamTagVector> vectors;
+
+        private final long loadedAt = System.currentTimeMillis();
+
+        private LocalVectors(List<TeamTagVector> vectors) {
+            this.vectors = vectors;
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() - loadedAt < LOCAL_VECTORS_MAX_AGE_MILLIS;
+        }
+    }
+
+    private List<String> buildReasons(List<String> myTags, TeamRecommendationResult result) {
+        List<String> reasons = new ArrayList<>();
+        List<String> commonTags = result.getTags().stream().filter(myTags::contains).limit(3).collect(Collectors.toList());
+        if (!commonTags.isEmpty()) {
+            reasons.add("队伍成员同样擅长: " + String.join("、", commonTags));
+        }
+        if (result.getComplement() >= 0.3) {
+            reasons.add("队伍成员与你技能互补");
+        }
+        if (reasons.isEmpty()) {
+            reasons.add("系统推荐");
+        }
+        return reasons;
+    }
+}
@@ -2,22 +2,34 @@ package com.samul.microde.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.samul.microde.common.CursorPage;
 import com.samul.microde.common.ErrorCode;
 import com.samul.microde.exception.BusinessException;
 import com.samul.microde.mapper.TeamMapper;
 import com.samul.microde.model.domain.Team;
 import com.samul.microde.model.domain.User;
 import com.samul.microde.model.domain.UserTeam;
+import com.samul.microde.model.dto.TeamQuery;
 import com.samul.microde.enums.TeamStatusEnum;
+import com.samul.microde.service.TeamMembershipService;
+import com.samul.microde.service.TeamQuotaService;
+import com.samul.microde.service.TeamReadModelService;
+import com.samul.microde.service.TeamRecommendationService;
 import com.samul.microde.service.TeamService;
 import com.samul.microde.service.UserTeamService;
+import com.samul.microde.utils.CursorUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * @author lenovo
@@ -28,9 +40,31 @@ import java.util.Optional;
 public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team>
         implements TeamService {
 
+    /**
+     * 每个用户最多创建的队伍数
+     */
+    private static final int MAX_TEAMS_PER_USER = 5;
+
+    /**
+     * 游标分页每页最大数量
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Resource
     private UserTeamService userTeamService;
 
+    @Resource
+    private TeamQuotaService teamQuotaService;
+
+    @Resource
+    private TeamMembershipService teamMembershipService;
+
+    @Resource
+    private TeamReadModelService teamReadModelService;
+
+    @Resource
+    private TeamRecommendationService teamRecommendationService;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public long addTeam(Team team, User loginUser) {
@@ -84,14 +118,8 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team>
         if (expireTime != null && new Date().after(expireTime)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "超时时间 > 当前时间");
         }
-        //  g. 校验用户最多创建 5 个队伍
-        // todo 有 bug，可能同时创建 100 个队伍
-        QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("userId", userId);
-        long hasTeamNum = this.count(queryWrapper);
-        if (hasTeamNum >= 5) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户最多创建 5 个队伍");
-        }
+        //  g. 校验用户最多创建 5 个队伍（Redis 原子占用配额，并发创建也不会超出，事务回滚时自动归还）
+        teamQuotaService.reserve(userId, MAX_TEAMS_PER_USER);
         // 4. 插入队伍信息到队伍表
         team.setId(null);
         team.setUserId(userId);
@@ -113,8 +141,110 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team>
         if (!result) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "创建队伍失败");
         }
+        // 6. 事务提交后增量更新队伍读模型
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                teamReadModelService.onTeamSaved(teamId);
+                teamRecommendationService.onMembershipChanged(teamId);
+            }
+        });
         return teamId;
     }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean deleteTeam(long id) {
+        Team team = this.getById(id);
+        if (team == null) {
+            throw new BusinessException(ErrorCode.NULL_ERROR, "队伍不存在");
+        }
+        boolean result = this.removeById(id);
+        if (!result) {
+            return false;
+        }
+        // 事务提交后归还队长的创建配额，清理成员集合和队伍读模型
+        final long leaderId = team.getUserId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                teamQuotaService.release(leaderId);
+                teamMembershipService.evictTeam(id);
+                teamReadModelService.onTeamRemoved(id);
+                teamRecommendationService.onTeamRemoved(id);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int archiveExpiredTeams(int batchSize) {
+        QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "userId");
+        queryWrapper.lt("expireTime", new Date());
+        queryWrapper.orderByAsc("id");
+        queryWrapper.last("limit " + batchSize);
+        List<Team> expiredTeams = this.list(queryWrapper);
+        if (expiredTeams.isEmpty()) {
+            return 0;
+        }
+        List<Long> teamIds = expiredTeams.stream().map(Team::getId).collect(Collectors.toList());
+        this.removeByIds(teamIds);
+        QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+        userTeamQueryWrapper.in("teamId", teamIds);
+        userTeamService.remove(userTeamQueryWrapper);
+        // 事务提交后归还队长的创建配额，清理成员集合和队伍读模型
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Team team : expiredTeams) {
+                    if (team.getUserId() != null) {
+                        teamQuotaService.release(team.getUserId());
+                    }
+                    teamMembershipService.evictTeam(team.getId());
+                    teamReadModelService.onTeamRemoved(team.getId());
+                    teamRecommendationService.onTeamRemoved(team.getId());
+                }
+            }
+        });
+        return expiredTeams.size();
+    }
+
+    @Override
+    public CursorPage<Team> listTeamsByCursor(TeamQuery teamQuery) {
+        int pageSize = teamQuery.getPageSize();
+        if (pageSize <= 0 || pageSize > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "每页数量需在1-" + MAX_CURSOR_PAGE_SIZE + "之间");
+        }
+        Long lastId = CursorUtils.decode(teamQuery.getCursor());
+        QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+        queryWrapper.lt(lastId != null, "id", lastId);
+        queryWrapper.eq(teamQuery.getName() != null, "name", teamQuery.getName());
+        queryWrapper.eq(teamQuery.getDescription() != null, "description", teamQuery.getDescription());
+        queryWrapper.eq(teamQuery.getMaxNum() != null, "maxNum", teamQuery.getMaxNum());
+        queryWrapper.eq(teamQuery.getUserId() != null, "userId", teamQuery.getUserId());
+        queryWrapper.eq(teamQuery.getStatus() != null, "status", teamQuery.getStatus());
+        queryWrapper.and(wrapper -> wrapper.isNull("expireTime").or().gt("expireTime", new Date()));
+        queryWrapper.orderByDesc("id");
+        // 多取一条判断是否还有下一页
+        queryWrapper.last("limit " + (pageSize + 1));
+        List<Team> teams = this.list(queryWrapper);
+
+        CursorPage<Team> cursorPage = new CursorPage<>();
+        boolean hasMore = teams.size() > pageSize;
+        if (hasMore) {
+            teams = new ArrayList<>(teams.subList(0, pageSize));
+            cursorPage.setNextCursor(CursorUtils.encode(teams.get(pageSize - 1).getId()));
+        }
+        teams.forEach(team -> team.setPassword(null));
+        cursorPage.setRecords(teams);
+        cursorPage.setHasMore(hasMore);
+        if (Boolean.TRUE.equals(teamQuery.getWithTotal())) {
+            cursorPage.setTotal(teamReadModelService.countTeams(teamQuery));
+        }
+        return cursorPage;
+    }
 }
 
 
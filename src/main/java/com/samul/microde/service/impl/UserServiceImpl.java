@@ -3,32 +3,29 @@ package com.samul.microde.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.samul.microde.common.CursorPage;
 import com.samul.microde.common.ErrorCode;
 import com.samul.microde.exception.BusinessException;
 import com.samul.microde.mapper.UserMapper;
 import com.samul.microde.model.domain.User;
+import com.samul.microde.service.PasswordService;
 import com.samul.microde.service.UserService;
+import com.samul.microde.utils.CursorUtils;
+import com.samul.microde.utils.TagScoreUtils;
 import com.samul.microde.utils.UserSessionManager;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.DigestUtils;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.samul.microde.constant.UserConstant.ADMIN_ROLE;
-import static com.samul.microde.constant.UserConstant.USER_LOGIN_STATE;
 
 /**
  * 用户服务实现类
@@ -43,11 +40,27 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private UserSessionManager userSessionManager;
+
+    @Resource
+    private PasswordService passwordService;
+
+    /**
+     * 账户不能包含的特殊字符，预编译避免每次请求重复编译
+     */
+    private static final Pattern INVALID_ACCOUNT_PATTERN =
+            Pattern.compile("[`~!@#$%^&*()+=|{}':;',\\\\[\\\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]");
 
     /**
-     * 盐值，混淆密码
+     * 游标分页每页最大数量
      */
-    private static final String SALT = "yupi";
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * 游标分页单次请求最多扫描的批数
+     */
+    private static final int CURSOR_MAX_ROUNDS = 5;
 
     /**
      * 用户注册
@@ -74,9 +87,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "星球编号过长");
         }
         // 账户不能包含特殊字符
-        String validPattern = "[`~!@#$%^&*()+=|{}':;',\\\\[\\\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]";
-        Matcher matcher = Pattern.compile(validPattern).matcher(userAccount);
-        if (matcher.find()) {
+        if (INVALID_ACCOUNT_PATTERN.matcher(userAccount).find()) {
             return -1;
         }
         // 密码和校验密码相同
@@ -97,8 +108,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if (count > 0) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "编号重复");
         }
-        // 2. 加密
-        String encryptPassword = DigestUtils.md5DigestAsHex((SALT + userPassword).getBytes());
+        // 2. 加密（PBKDF2 + 随机盐）
+        String encryptPassword = passwordService.encode(userPassword);
         // 3. 插入数据
         User user = new User();
         user.setUserAccount(userAccount);
@@ -133,27 +144,36 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             return null;
         }
         // 账户不能包含特殊字符
-        String validPattern = "[`~!@#$%^&*()+=|{}':;',\\\\[\\\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]";
-        Matcher matcher = Pattern.compile(validPattern).matcher(userAccount);
-        if (matcher.find()) {
+        if (INVALID_ACCOUNT_PATTERN.matcher(userAccount).find()) {
             return null;
         }
-        // 2. 加密
-        String encryptPassword = DigestUtils.md5DigestAsHex((SALT + userPassword).getBytes());
-        // 查询用户是否存在
+        // 2. 查询用户并校验密码（每个用户的盐不同，不能再按哈希值查询）
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("userAccount", userAccount);
-        queryWrapper.eq("userPassword", encryptPassword);
         User user = userMapper.selectOne(queryWrapper);
-        // 用户不存在
+        // 用户不存在时同样做一次 PBKDF2 校验，响应时间与密码错误一致
         if (user == null) {
+            passwordService.dummyMatches(userPassword);
+            log.info("user login failed, userAccount cannot match userPassword");
+            return null;
+        }
+        // 密码错误
+        if (!passwordService.matches(userPassword, user.getUserPassword())) {
             log.info("user login failed, userAccount cannot match userPassword");
             return null;
         }
+        // 旧版 MD5 或迭代次数过低的哈希，登录成功后异步升级
+        if (passwordService.needsRehash(user.getUserPassword())) {
+            passwordService.rehashAsync(user.getId(), userPassword, user.getUserPassword());
+        }
+        // 被封禁的用户不允许登录
+        if (user.getUserStatus() != null && user.getUserStatus() != 0) {
+            throw new BusinessException(ErrorCode.NO_AUTH, "账号已被封禁");
+        }
         // 3. 用户脱敏
         User safetyUser = getSafetyUser(user);
-        // 4. 记录用户的登录态
-        UserSessionManager.addUserToSession(safetyUser, request);
+        // 4. 记录用户的登录态（只保存精简的登录主体）
+        userSessionManager.addUserToSession(safetyUser, request);
         return safetyUser;
     }
 
@@ -191,7 +211,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      */
     @Override
     public int userLogout(HttpServletRequest request) {
-        UserSessionManager.removeCurrentUser(request);
+        userSessionManager.removeCurrentUser(request);
         return 1;
     }
 
@@ -216,7 +236,14 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if (userold == null) {
             throw new BusinessException(ErrorCode.NULL_ERROR);
         }
-        return userMapper.updateById(user);
+        int result = userMapper.updateById(user);
+        // 角色或状态变更后，旧会话中的登录主体已过时，使其立即失效
+        boolean roleChanged = user.getUserRole() != null && !user.getUserRole().equals(userold.getUserRole());
+        boolean statusChanged = user.getUserStatus() != null && !user.getUserStatus().equals(userold.getUserStatus());
+        if (result > 0 && (roleChanged || statusChanged)) {
+            userSessionManager.invalidateUserSessions(userId);
+        }
+        return result;
     }
 
     /**
@@ -227,9 +254,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      */
     public boolean isAdmin(HttpServletRequest request) {
         // 仅管理员可查询
-        Object userObj = request.getSession().getAttribute(USER_LOGIN_STATE);
-        User user = (User) userObj;
-        return user != null && user.getUserRole() == ADMIN_ROLE;
+        try {
+            return isAdmin(getLogininUser(request));
+        } catch (BusinessException e) {
+            return false;
+        }
     }
 
     /**
@@ -244,13 +273,14 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
 
     /**
      * 获取当前用户信息
+     * 只包含 id、角色、状态，需要完整资料时请从用户快照读取
      *
      * @param request
      * @return
      */
     @Override
     public User getLogininUser(HttpServletRequest request) {
-        return UserSessionManager.getCurrentUser(request);
+        return userSessionManager.getCurrentUser(request);
     }
 
 
@@ -286,26 +316,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         // 1. 先查询所有用户
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
         List<User> userList = userMapper.selectList(queryWrapper);
-        Gson gson = new Gson();
         // 2. 在内存中判断包含要求的标签
         // 将 stream() 改为 parallelStream 使用并发流。缺点：需要线程池，默认使用的线程池是 forkJoinPool
         // parallelStream 使用的是公共线程池，当有另一个高耗能的处理任务，如大量查询，则会占用很多线程，使当前线程无法进行的风险
-        List<User> userRecordList = userList.stream().filter(user -> {
-            String tagsStr = user.getTags();
-            if (StringUtils.isBlank(tagsStr)) {
-                return false;
-            }
-            Set<String> temptagNameSet = gson.fromJson(tagsStr, new TypeToken<Set<String>>() {
-            }.getType());
-            // 如果 temptagNameSet 不为空就用默认的值，如果为空就使用传递的新对象 new HashSet<>() 少写了一次判空
-            temptagNameSet = Optional.ofNullable(temptagNameSet).orElse(new HashSet<>());
-            for (String tagName : tagNameList) {
-                if (!temptagNameSet.contains(tagName)) {
-                    return false;
-                }
-            }
-            return true;
-        }).map(this::getSafetyUser).collect(Collectors.toList());
+        List<User> userRecordList = userList.stream()
+                .filter(user -> TagScoreUtils.hasAllTags(user.getTags(), tagNameList))
+                .map(this::getSafetyUser)
+                .collect(Collectors.toList());
 
         // 3. 分页处理
         int fromIndex = (int) ((pageNum - 1) * pageSize);
@@ -319,7 +336,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             return userSearchPage;
         }
 
-        List<User> pagedList = userRecordList.subList(fromIndex, toIndex);
+        // 复制成 ArrayList：该分页结果会被写入 Redis，SubList 无法被反序列化
+        List<User> pagedList = new ArrayList<>(userRecordList.subList(fromIndex, toIndex));
 
         Page<User> userSearchPage = new Page<>(pageNum, pageSize);
         userSearchPage.setRecords(pagedList);
@@ -327,6 +345,72 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         return userSearchPage;
     }
 
+    /**
+     * 根据标签游标分页搜索用户
+     * 1. SQL 按主键倒序范围扫描，用 like 预过滤标签（带引号匹配 JSON 数组中的完整标签）
+     * 2. 内存中精确校验标签，被剔除的记录不足一页时从本批最后一条继续向后取
+     * 3. 单次请求最多扫描 CURSOR_MAX_ROUNDS 批，避免极端情况下长时间扫描，剩余部分由下一页继续
+     */
+    @Override
+    public CursorPage<User> searchUserByTagsCursor(List<String> tagNameList, String cursor, int pageSize) {
+        if (CollectionUtils.isEmpty(tagNameList)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        if (pageSize <= 0 || pageSize > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "每页数量需在1-" + MAX_CURSOR_PAGE_SIZE + "之间");
+        }
+        Long lastId = CursorUtils.decode(cursor);
+        List<User> matched = new ArrayList<>(pageSize);
+        boolean exhausted = false;
+        Long scannedId = lastId;
+        for (int round = 0; round < CURSOR_MAX_ROUNDS && matched.size() <= pageSize; round++) {
+            int batchSize = pageSize + 1 - matched.size();
+            QueryWrapper<User> queryWrapper = tagLikeQuery(tagNameList);
+            queryWrapper.lt(scannedId != null, "id", scannedId);
+            queryWrapper.orderByDesc("id");
+            queryWrapper.last("limit " + batchSize);
+            List<User> batch = userMapper.selectList(queryWrapper);
+            for (User user : batch) {
+                if (TagScoreUtils.hasAllTags(user.getTags(), tagNameList)) {
+                    matched.add(user);
+                }
+                scannedId = user.getId();
+            }
+            if (batch.size() < batchSize) {
+                exhausted = true;
+                break;
+            }
+        }
+
+        CursorPage<User> cursorPage = new CursorPage<>();
+        boolean hasMore = matched.size() > pageSize || !exhausted;
+        List<User> records = matched.size() > pageSize ? matched.subList(0, pageSize) : matched;
+        if (hasMore) {
+            // 凑满一页时从本页最后一条继续，否则从已扫描到的位置继续
+            long nextId = matched.size() > pageSize ? records.get(pageSize - 1).getId() : scannedId;
+            cursorPage.setNextCursor(CursorUtils.encode(nextId));
+        }
+        cursorPage.setRecords(records.stream().map(this::getSafetyUser).collect(Collectors.toList()));
+        cursorPage.setHasMore(hasMore);
+        return cursorPage;
+    }
+
+    @Override
+    public long countUsersByTags(List<String> tagNameList) {
+        if (CollectionUtils.isEmpty(tagNameList)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        return userMapper.selectCount(tagLikeQuery(tagNameList));
+    }
+
+    private QueryWrapper<User> tagLikeQuery(List<String> tagNameList) {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        for (String tagName : tagNameList) {
+            queryWrapper.like("tags", "\"" + tagName + "\"");
+        }
+        return queryWrapper;
+    }
+
     /**
      * 根据标签搜索用户(SQL 查询版）
      *
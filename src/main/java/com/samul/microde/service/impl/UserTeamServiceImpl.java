@@ -1,20 +1,278 @@
 package com.samul.microde.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.enums.TeamStatusEnum;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.mapper.TeamMapper;
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.model.domain.User;
 import com.samul.microde.model.domain.UserTeam;
+import com.samul.microde.model.dto.TeamDetailResult;
+import com.samul.microde.service.CachePreloadService;
+import com.samul.microde.service.TeamMembershipService;
+import com.samul.microde.service.TeamReadModelService;
+import com.samul.microde.service.TeamRecommendationService;
+import com.samul.microde.service.UserService;
 import com.samul.microde.service.UserTeamService;
 import com.samul.microde.mapper.UserTeamMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
 * @author lenovo
 * @description 针对表【user_team(用户队伍关系)】的数据库操作Service实现
 * @createDate 2024-01-01 18:22:04
 */
 @Service
+@Slf4j
 public class UserTeamServiceImpl extends ServiceImpl<UserTeamMapper, UserTeam>
     implements UserTeamService{
 
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private TeamMembershipService teamMembershipService;
+
+    @Resource
+    private TeamReadModelService teamReadModelService;
+
+    @Resource
+    private TeamRecommendationService teamRecommendationService;
+
+    @Resource
+    private CachePreloadService cachePreloadService;
+
+    @Resource
+    private UserService userService;
+
+    /**
+     * 加入队伍
+     * 1. 主键查询队伍并校验状态、密码
+     * 2. Redis Lua 脚本原子地校验"是否已加入 / 是否已满"并占用名额，并发加入不会超员
+     * 3. 单条 upsert 落库，失败时释放名额
+     */
+    @Override
+    public void joinTeam(long teamId, String password, User loginUser) {
+        if (teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍id不合法");
+        }
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        Team team = getTeamOrThrow(teamId);
+        TeamStatusEnum statusEnum = TeamStatusEnum.getEnumByValue(team.getStatus());
+        if (statusEnum == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍状态不合法");
+        }
+        // 私有队伍不能加入
+        if (TeamStatusEnum.PRIVATE.equals(statusEnum)) {
+            throw new BusinessException(ErrorCode.NO_AUTH, "私有队伍不能加入");
+        }
+        // 加密队伍需要校验密码（去除首尾空格后比较）
+        if (TeamStatusEnum.SECRET.equals(statusEnum)) {
+            if (StringUtils.isBlank(password)) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "加密队伍需要输入密码");
+            }
+            if (!password.trim().equals(StringUtils.trim(team.getPassword()))) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "密码错误");
+            }
+        }
+
+        long userId = loginUser.getId();
+        Date joinTime = new Date();
+        teamMembershipService.reserve(teamId, userId, team.getMaxNum(), joinTime.getTime());
+        try {
+            baseMapper.upsertMember(userId, teamId, joinTime);
+        } catch (RuntimeException e) {
+            log.error("加入队伍落库失败，释放名额，teamId: {}, userId: {}", teamId, userId, e);
+            teamMembershipService.release(teamId, userId);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入队伍失败");
+        }
+        teamRecommendationService.onMembershipChanged(teamId);
+    }
+
+    @Override
+    public void quitTeam(long teamId, User loginUser) {
+        if (teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍id不合法");
+        }
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        long userId = loginUser.getId();
+        Team team = getTeamOrThrow(teamId);
+        // 队长不能退出队伍
+        if (team.getUserId().equals(userId)) {
+            throw new BusinessException(ErrorCode.NO_AUTH, "队长不能退出队伍");
+        }
+        // 删除用户队伍关系（逻辑删除，再次加入时由 upsert 恢复）
+        QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("userId", userId);
+        queryWrapper.eq("teamId", teamId);
+        boolean result = this.remove(queryWrapper);
+        // 无论是否删除成功都释放名额，保证 Redis 与数据库一致
+        teamMembershipService.release(teamId, userId);
+        if (!result) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "未加入该队伍");
+        }
+        teamRecommendationService.onMembershipChanged(teamId);
+    }
+
+    /**
+     * 获取队伍成员列表
+     * 1. 队伍信息读队伍快照，快照未命中时主键查询
+     * 2. 成员ID读 Redis 成员集合（按加入时间排序），同时用于判断当前用户是否已加入
+     * 3. 一次 HMGET 从用户快照批量取用户，未命中的（快照未加载、被封禁用户）一次回源数据库
+     */
+    @Override
+    public List<User> listTeamMembers(long teamId, User loginUser) {
+        if (teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍id不合法");
+        }
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        Team team = teamReadModelService.getTeam(teamId);
+        if (team == null) {
+            team = getTeamOrThrow(teamId);
+        }
+        long userId = loginUser.getId();
+        List<Long> memberIds = teamMembershipService.getMemberIds(teamId);
+        boolean isLeader = team.getUserId().equals(userId);
+        boolean isMember = memberIds.contains(userId);
+        // 加密队伍：只有队长和已加入的成员才能查看所有成员，其他人只能看到队长
+        if (team.getStatus() == TeamStatusEnum.SECRET.getValue() && !isLeader && !isMember) {
+            memberIds = Collections.singletonList(team.getUserId());
+        }
+        return hydrateUsers(memberIds);
+    }
+
+    /**
+     * 批量获取队伍详情
+     * 1. 一次 HMGET 从队伍快照取队伍，未命中的一次主键批量回源
+     * 2. 一次流水线读取所有队伍的成员名单
+     * 3. 汇总所有队伍需要预览的成员，一次 HMGET 从用户快照取用户
+     */
+    @Override
+    public List<TeamDetailResult> listTeamDetails(List<Long> teamIds, int previewSize, User loginUser) {
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(teamIds));
+        Map<Long, Team> teamMap = new HashMap<>();
+        for (Team team : teamReadModelService.getTeams(distinctIds)) {
+            teamMap.put(team.getId(), team);
+        }
+        List<Long> missingTeamIds = distinctIds.stream().filter(id -> !teamMap.containsKey(id)).collect(Collectors.toList());
+        if (!missingTeamIds.isEmpty()) {
+            for (Team team : teamMapper.selectBatchIds(missingTeamIds)) {
+                teamMap.put(team.getId(), team);
+            }
+        }
+        List<Long> foundIds = distinctIds.stream().filter(teamMap::containsKey).collect(Collectors.toList());
+        Map<Long, List<Long>> rosters = teamMembershipService.getMemberIds(foundIds);
+
+        long userId = loginUser.getId();
+        Map<Long, List<Long>> previewIds = new HashMap<>();
+        Set<Long> allPreviewIds = new HashSet<>();
+        for (Long teamId : foundIds) {
+            Team team = teamMap.get(teamId);
+            List<Long> memberIds = rosters.getOrDefault(teamId, new ArrayList<>());
+            List<Long> preview;
+            // 加密队伍：未加入的用户只能看到队长
+            if (team.getStatus() == TeamStatusEnum.SECRET.getValue() && !team.getUserId().equals(userId)
+                    && !memberIds.contains(userId)) {
+                preview = Collections.singletonList(team.getUserId());
+            } else {
+                preview = memberIds.subList(0, Math.min(previewSize, memberIds.size()));
+            }
+            previewIds.put(teamId, preview);
+            allPreviewIds.addAll(preview);
+        }
+        Map<Long, User> userMap = loadUsers(allPreviewIds);
+
+        List<TeamDetailResult> results = new ArrayList<>(foundIds.size());
+        for (Long teamId : foundIds) {
+            Team team = teamMap.get(teamId);
+            team.setPassword(null);
+            List<Long> memberIds = rosters.getOrDefault(teamId, new ArrayList<>());
+            TeamDetailResult result = new TeamDetailResult();
+            result.setTeam(team);
+            result.setMemberCount(memberIds.size());
+            result.setMemberPreview(toSafetyUsers(previewIds.get(teamId), userMap));
+            result.setHasJoined(memberIds.contains(userId));
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * 按ID顺序批量取用户并脱敏
+     */
+    private List<User> hydrateUsers(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return toSafetyUsers(userIds, loadUsers(userIds));
+    }
+
+    /**
+     * 批量取用户：优先读用户快照（一次 HMGET），未命中的（快照未加载、被封禁用户）一次回源数据库
+     */
+    private Map<Long, User> loadUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<Long, User> userMap = cachePreloadService.getUsersByIdsFromCache(userIds);
+        List<Long> missingIds = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (!userMap.containsKey(userId)) {
+                missingIds.add(userId);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (User user : userService.listByIds(missingIds)) {
+                userMap.put(user.getId(), user);
+            }
+        }
+        return userMap;
+    }
+
+    private List<User> toSafetyUsers(List<Long> userIds, Map<Long, User> userMap) {
+        List<User> users = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            User user = userMap.get(userId);
+            if (user != null) {
+                users.add(userService.getSafetyUser(user));
+            }
+        }
+        return users;
+    }
+
+    private Team getTeamOrThrow(long teamId) {
+        Team team = teamMapper.selectById(teamId);
+        if (team == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍不存在");
+        }
+        return team;
+    }
 }
 
 
@@ -0,0 +1,148 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.model.dto.SessionPrincipal;
+import lombok.Data;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 访问令牌编解码
+ * 格式：base64url(v1.用户ID.角色.状态.会话版本.签发时间.过期时间) + "." + base64url(HMAC-SHA256 签名)
+ * 时间均为毫秒时间戳，校验只依赖本地密钥，不访问 Redis
+ *
+ * @author Samul_Alen
+ */
+public class AuthTokenCodec {
+
+    private static final String VERSION = "v1";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec secretKey;
+
+    /**
+     * Mac 非线程安全，每个线程复用一个实例
+     */
+    private final ThreadLocal<Mac> macHolder;
+
+    public AuthTokenCodec(byte[] secret) {
+        if (secret == null || secret.length < 32) {
+            throw new IllegalArgumentException("令牌签名密钥长度不能少于32字节");
+        }
+        this.secretKey = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.macHolder = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * 生成随机密钥 / 刷新令牌
+     *
+     * @param length 字节数
+     * @return base64url 字符串
+     */
+    public static String randomToken(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * 签发访问令牌
+     */
+    public String encode(SessionPrincipal principal, long issuedAt, long expireAt) {
+        String payload = VERSION + "." + principal.getId() + "." + principal.getUserRole() + "."
+                + principal.getUserStatus() + "." + principal.getVersion() + "." + issuedAt + "." + expireAt;
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + ENCODER.encodeToString(sign(encodedPayload));
+    }
+
+    /**
+     * 校验并解析访问令牌
+     *
+     * @param token 访问令牌
+     * @param now   当前时间（毫秒）
+     * @return 令牌内容，签名错误、格式错误或已过期时返回 null
+     */
+    public Claims decode(String token, long now) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String encodedPayload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return null;
+            }
+            String[] parts = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split("\\.");
+            if (parts.length != 7 || !VERSION.equals(parts[0])) {
+                return null;
+            }
+            long expireAt = Long.parseLong(parts[6]);
+            if (expireAt <= now) {
+                return null;
+            }
+            SessionPrincipal principal = new SessionPrincipal();
+            principal.setId(Long.parseLong(parts[1]));
+            principal.setUserRole(Integer.parseInt(parts[2]));
+            principal.setUserStatus(Integer.parseInt(parts[3]));
+            principal.setVersion(Long.parseLong(parts[4]));
+            Claims claims = new Claims();
+            claims.setPrincipal(principal);
+            claims.setIssuedAt(Long.parseLong(parts[5]));
+            claims.setExpireAt(expireAt);
+            return claims;
+        } catch (IllegalArgumentException e) {
+            // base64 或数字格式错误（NumberFormatException 也是 IllegalArgumentException）
+            return null;
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        Mac mac = macHolder.get();
+        return mac.doFinal(encodedPayload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化令牌签名算法失败", e);
+        }
+    }
+
+    /**
+     * 访问令牌内容
+     */
+    @Data
+    public static class Claims {
+
+        private SessionPrincipal principal;
+
+        /**
+         * 签发时间（毫秒）
+         */
+        private long issuedAt;
+
+        /**
+         * 过期时间（毫秒）
+         */
+        private long expireAt;
+    }
+}
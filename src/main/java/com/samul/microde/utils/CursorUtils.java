@@ -0,0 +1,57 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.exception.BusinessException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标编解码工具
+ * 游标对调用方不透明，内容为上一页最后一条记录的 id
+ *
+ * @author Samul_Alen
+ */
+public final class CursorUtils {
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private CursorUtils() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param lastId 当前页最后一条记录的 id
+     * @return 游标
+     */
+    public static String encode(long lastId) {
+        byte[] raw = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标，为空表示第一页
+     * @return 上一页最后一条记录的 id，第一页返回 null
+     */
+    public static Long decode(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标不合法");
+        }
+        long lastId = raw.startsWith(CURSOR_PREFIX) ? NumberUtils.toLong(raw.substring(CURSOR_PREFIX.length()), -1L) : -1L;
+        if (lastId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标不合法");
+        }
+        return lastId;
+    }
+}
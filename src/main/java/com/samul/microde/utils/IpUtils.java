@@ -0,0 +1,137 @@
+package com.samul.microde.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+
+/**
+ * 客户端IP解析工具
+ * 只有直连地址（remoteAddr）是受信任的代理时才读取代理头，否则代理头可以被客户端任意伪造
+ *
+ * @author Samul_Alen
+ */
+public class IpUtils {
+
+    private static final String UNKNOWN = "unknown";
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final String[] PROXY_HEADERS = {
+            "X-Real-IP", "Proxy-Client-IP", "WL-Proxy-Client-IP"
+    };
+
+    private IpUtils() {
+    }
+
+    /**
+     * 获取客户端IP
+     *
+     * @param request        HTTP请求
+     * @param trustedProxies 受信任的代理地址，支持单个IP和 CIDR（如 10.0.0.0/8）
+     * @return 客户端IP
+     */
+    public static String getClientIp(HttpServletRequest request, Collection<String> trustedProxies) {
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedProxies == null || trustedProxies.isEmpty() || !isTrusted(remoteAddr, trustedProxies)) {
+            return remoteAddr;
+        }
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (StringUtils.isNotBlank(forwardedFor)) {
+            // 每级代理把上一跳追加在末尾，从右往左跳过受信任的代理，第一个不受信任的地址即客户端；
+            // 更靠左的地址由客户端自己填写，不可信
+            String[] hops = forwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (StringUtils.isBlank(hop) || UNKNOWN.equalsIgnoreCase(hop)) {
+                    break;
+                }
+                if (i == 0 || !isTrusted(hop, trustedProxies)) {
+                    return hop;
+                }
+            }
+        }
+        for (String header : PROXY_HEADERS) {
+            String ip = request.getHeader(header);
+            if (StringUtils.isNotBlank(ip) && !UNKNOWN.equalsIgnoreCase(ip)) {
+                return ip.trim();
+            }
+        }
+        return remoteAddr;
+    }
+
+    /**
+     * 地址是否在受信任的代理列表中
+     */
+    static boolean isTrusted(String address, Collection<String> trustedProxies) {
+        byte[] target = parseLiteral(address);
+        if (target == null) {
+            return false;
+        }
+        for (String trusted : trustedProxies) {
+            if (matches(target, trusted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(byte[] target, String trusted) {
+        if (StringUtils.isBlank(trusted)) {
+            return false;
+        }
+        String rule = trusted.trim();
+        int slash = rule.indexOf('/');
+        byte[] network = parseLiteral(slash >= 0 ? rule.substring(0, slash) : rule);
+        if (network == null || network.length != target.length) {
+            return false;
+        }
+        int prefix = network.length * 8;
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(rule.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (prefix < 0 || prefix > network.length * 8) {
+                return false;
+            }
+        }
+        int fullBytes = prefix / 8;
+        for (int i = 0; i < fullBytes; i++) {
+            if (network[i] != target[i]) {
+                return false;
+            }
+        }
+        int remainingBits = prefix % 8;
+        if (remainingBits == 0) {
+            return true;
+        }
+        int mask = 0xFF << (8 - remainingBits);
+        return (network[fullBytes] & mask) == (target[fullBytes] & mask);
+    }
+
+    /**
+     * 解析IP字面量，不是IP字面量时返回 null（不做DNS解析）
+     */
+    private static byte[] parseLiteral(String address) {
+        if (StringUtils.isBlank(address)) {
+            return null;
+        }
+        String literal = address.trim();
+        boolean ipv6 = literal.indexOf(':') >= 0;
+        if (!ipv6 && !literal.matches("\\d{1,3}(\\.\\d{1,3}){3}")) {
+            return null;
+        }
+        if (ipv6 && !literal.matches("[0-9a-fA-F:.]+")) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(literal).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
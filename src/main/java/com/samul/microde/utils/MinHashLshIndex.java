@@ -0,0 +1,230 @@
+package com.samul.microde.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 标签相似度近似近邻索引（MinHash + LSH 分桶）
+ * 每个用户的标签集合算出 bands × rows 个 MinHash 值，每 rows 个值组成一段，每段哈希后分桶；
+ * 至少一段落在同一个桶里的用户作为候选，再由调用方按精确 Jaccard 打分
+ * 两个用户成为候选的概率为 1 - (1 - s^rows)^bands（s 为 Jaccard 相似度），bands 越多、rows 越少召回越高，候选也越多
+ * 每段的桶是一个排好序的 long 数组（高 32 位为段哈希，低 32 位为用户下标），查询为二分查找，每个用户每段 8 字节
+ * 构建完成后只读，可以在多个线程间共享
+ *
+ * @author Samul_Alen
+ */
+public final class MinHashLshIndex {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final UserTagProjection projection;
+
+    private final int bands;
+
+    private final int rows;
+
+    /**
+     * 每个 MinHash 函数的种子
+     */
+    private final long[] seeds;
+
+    /**
+     * buckets[band]：(段哈希 << 32 | 用户下标)，升序
+     */
+    private final long[][] buckets;
+
+    private MinHashLshIndex(UserTagProjection projection, int bands, int rows, long seed) {
+        this.projection = projection;
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        long state = seed;
+        for (int i = 0; i < seeds.length; i++) {
+            state += GOLDEN_GAMMA;
+            seeds[i] = mix(state);
+        }
+        this.buckets = new long[bands][];
+    }
+
+    /**
+     * 为投影中的全部用户构建索引，没有标签的用户不进入任何桶
+     *
+     * @param bands 段数
+     * @param rows  每段的 MinHash 个数
+     * @param seed  随机种子，相同种子构建的索引相同
+     */
+    public static MinHashLshIndex build(UserTagProjection projection, int bands, int rows, long seed) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("bands 和 rows 必须大于 0");
+        }
+        MinHashLshIndex index = new MinHashLshIndex(projection, bands, rows, seed);
+        int size = projection.size();
+        long[][] entries = new long[bands][size];
+        int[] signature = new int[bands * rows];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            List<String> tags = projection.tagsOf(i);
+            if (tags.isEmpty()) {
+                continue;
+            }
+            index.signature(tags, signature);
+            for (int band = 0; band < bands; band++) {
+                entries[band][count] = (index.bandHash(signature, band) << 32) | i;
+            }
+            count++;
+        }
+        for (int band = 0; band < bands; band++) {
+            long[] bucket = Arrays.copyOf(entries[band], count);
+            entries[band] = null;
+            Arrays.sort(bucket);
+            index.buckets[band] = bucket;
+        }
+        return index;
+    }
+
+    /**
+     * 建索引时使用的投影，候选下标都指向该投影
+     */
+    public UserTagProjection getProjection() {
+        return projection;
+    }
+
+    /**
+     * 候选近邻
+     * 从小到大遍历各段命中的桶，达到上限后停止：大桶通常是常见标签组合，小桶里的用户与查询更接近；
+     * 标签完全相同的用户在每一段都同桶，一定在最小的桶里
+     *
+     * @param tags          查询用户的标签，可以包含投影中没有的标签
+     * @param maxCandidates 候选数量上限，决定单次查询的最大开销
+     * @return 投影中的用户下标，升序，不重复
+     */
+    public int[] candidates(Collection<String> tags, int maxCandidates) {
+        Set<String> tagSet = new HashSet<>(tags);
+        if (tagSet.isEmpty() || maxCandidates <= 0) {
+            return new int[0];
+        }
+        int[] signature = new int[bands * rows];
+        signature(tagSet, signature);
+
+        // 每段命中的桶在数组中的区间，按桶大小排序：(大小 << 32 | 段号)
+        int[] starts = new int[bands];
+        int[] ends = new int[bands];
+        long[] order = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long[] bucket = buckets[band];
+            long hash = bandHash(signature, band);
+            starts[band] = lowerBound(bucket, hash << 32);
+            ends[band] = upperBound(bucket, (hash << 32) | 0xFFFFFFFFL);
+            order[band] = ((long) (ends[band] - starts[band]) << 32) | band;
+        }
+        Arrays.sort(order);
+
+        int[] collected = new int[Math.min(maxCandidates, projection.size())];
+        int count = 0;
+        for (int k = 0; k < bands && count < collected.length; k++) {
+            int band = (int) order[k];
+            long[] bucket = buckets[band];
+            for (int position = starts[band]; position < ends[band] && count < collected.length; position++) {
+                collected[count++] = (int) bucket[position];
+            }
+        }
+        // 同一用户可能在多段同桶，排序去重
+        Arrays.sort(collected, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || collected[unique - 1] != collected[i]) {
+                collected[unique++] = collected[i];
+            }
+        }
+        return Arrays.copyOf(collected, unique);
+    }
+
+    /**
+     * 理论召回率：Jaccard 相似度为 similarity 的两个用户成为候选的概率（不考虑候选上限）
+     */
+    public static double candidateProbability(double similarity, int bands, int rows) {
+        return 1 - Math.pow(1 - Math.pow(similarity, rows), bands);
+    }
+
+    /**
+     * 索引占用的内存（字节，不含投影）
+     */
+    public long footprintBytes() {
+        long bytes = 0;
+        for (long[] bucket : buckets) {
+            bytes += bucket.length * 8L;
+        }
+        return bytes;
+    }
+
+    private void signature(Collection<String> tags, int[] signature) {
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String tag : tags) {
+            long tagHash = tag.hashCode() * GOLDEN_GAMMA;
+            for (int i = 0; i < signature.length; i++) {
+                int value = (int) (mix(tagHash ^ seeds[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * 一段的 rows 个 MinHash 值合并为 32 位段哈希（以无符号数存放在 long 的低 32 位）
+     */
+    private long bandHash(int[] signature, int band) {
+        long hash = band * GOLDEN_GAMMA;
+        int offset = band * rows;
+        for (int i = 0; i < rows; i++) {
+            hash = mix(hash ^ signature[offset + i]);
+        }
+        return hash >>> 32;
+    }
+
+    /**
+     * 第一个不小于 key 的位置（与 Arrays.sort 一致按有符号数比较，同一段哈希的条目仍然相邻）
+     */
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个大于 key 的位置
+     */
+    private static int upperBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * SplitMix64 的混淆函数
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,115 @@
+package com.samul.microde.utils;
+
+import org.springframework.util.DigestUtils;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * PBKDF2-HMAC-SHA256 密码哈希（只依赖 JDK）
+ * 存储格式：pbkdf2_sha256$迭代次数$base64(盐)$base64(哈希)
+ * 兼容旧版格式：32位十六进制 MD5(固定盐 + 密码)
+ *
+ * @author Samul_Alen
+ */
+public class Pbkdf2PasswordHasher {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final String PREFIX = "pbkdf2_sha256";
+
+    private static final String SEPARATOR = "$";
+
+    /**
+     * 旧版 MD5 使用的全局盐，仅用于校验存量密码
+     */
+    private static final String LEGACY_SALT = "yupi";
+
+    private static final Pattern LEGACY_MD5_PATTERN = Pattern.compile("^[0-9a-f]{32}$");
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    private final int saltLength;
+
+    private final int keyLength;
+
+    public Pbkdf2PasswordHasher(int iterations, int saltLength, int keyLength) {
+        this.iterations = iterations;
+        this.saltLength = saltLength;
+        this.keyLength = keyLength;
+    }
+
+    public String encode(String rawPassword) {
+        byte[] salt = new byte[saltLength];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(rawPassword, salt, iterations, keyLength);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + SEPARATOR + iterations + SEPARATOR + encoder.encodeToString(salt) + SEPARATOR + encoder.encodeToString(hash);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        if (isLegacy(encodedPassword)) {
+            String legacy = DigestUtils.md5DigestAsHex((LEGACY_SALT + rawPassword).getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(legacy.getBytes(StandardCharsets.US_ASCII),
+                    encodedPassword.getBytes(StandardCharsets.US_ASCII));
+        }
+        String[] parts = encodedPassword.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            byte[] actual = pbkdf2(rawPassword, salt, storedIterations, expected.length * 8);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 旧版 MD5，或迭代次数、哈希长度与当前配置不同时需要重新哈希
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null || isLegacy(encodedPassword)) {
+            return true;
+        }
+        String[] parts = encodedPassword.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(parts[1]) != iterations
+                    || Base64.getDecoder().decode(parts[3]).length * 8 != keyLength;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    public static boolean isLegacy(String encodedPassword) {
+        return LEGACY_MD5_PATTERN.matcher(encodedPassword).matches();
+    }
+
+    private static byte[] pbkdf2(String rawPassword, byte[] salt, int iterations, int keyLength) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, keyLength);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("密码哈希计算失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.model.domain.User;
+import org.springframework.util.CollectionUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * 预计算打分内核
+ * 把一个用户与全部用户逐一打分并取前 N 名，预计算服务与基准测试共用同一份实现
+ * 基于 {@link UserTagProjection} 的版本在标签位图上打分，结果与基于 User 列表的版本一致（标签按集合处理）；
+ * 另外跳过非正常状态的用户，被封禁的用户推荐时也会被过滤，不必占用前 N 名的位置
+ *
+ * @author Samul_Alen
+ */
+public final class PrecomputeRanker {
+
+    private PrecomputeRanker() {
+    }
+
+    /**
+     * 按标签相似度排名
+     *
+     * @param selfId   当前用户ID（跳过自己）
+     * @param selfTags 当前用户标签
+     * @param users    全部用户
+     * @param limit    保留数量
+     * @return 用户ID -> 相似度，按分数倒序，只包含分数大于 0 的用户
+     */
+    public static Map<Long, Double> rankBySimilarity(long selfId, List<String> selfTags, List<User> users, int limit) {
+        return rank(selfId, selfTags, users, limit, TagScoreUtils::similarity);
+    }
+
+    /**
+     * 按技能互补度排名
+     *
+     * @param selfId   当前用户ID（跳过自己）
+     * @param selfTags 当前用户标签
+     * @param users    全部用户
+     * @param limit    保留数量
+     * @return 用户ID -> 互补度，按分数倒序，只包含分数大于 0 的用户
+     */
+    public static Map<Long, Double> rankByComplement(long selfId, List<String> selfTags, List<User> users, int limit) {
+        return rank(selfId, selfTags, users, limit, TagScoreUtils::complement);
+    }
+
+    /**
+     * 按标签相似度排名（列式投影）
+     *
+     * @param projection 全部用户的标签投影
+     * @param selfId     当前用户ID（跳过自己）
+     * @param selfTags   当前用户标签，可以包含投影中没有的标签
+     * @param limit      保留数量
+     * @return 用户ID -> 相似度，按分数倒序，同分按用户ID升序，只包含分数大于 0 的用户
+     */
+    public static Map<Long, Double> rankBySimilarity(UserTagProjection projection, long selfId,
+                                                     List<String> selfTags, int limit) {
+        return rankBySimilarity(projection, selfId, selfTags, null, limit);
+    }
+
+    /**
+     * 按标签相似度排名，只在给定的候选用户中打分（候选通常来自 {@link MinHashLshIndex}），分数仍是精确 Jaccard
+     *
+     * @param projection       全部用户的标签投影
+     * @param selfId           当前用户ID（跳过自己）
+     * @param selfTags         当前用户标签，可以包含投影中没有的标签
+     * @param candidateIndexes 候选用户在投影中的下标，为 null 时对全部用户打分
+     * @param limit            保留数量
+     * @return 用户ID -> 相似度，按分数倒序，同分按用户ID升序，只包含分数大于 0 的用户
+     */
+    public static Map<Long, Double> rankBySimilarity(UserTagProjection projection, long selfId,
+                                                     List<String> selfTags, int[] candidateIndexes, int limit) {
+        Set<String> selfSet = new HashSet<>(selfTags);
+        if (selfSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        long[] selfMask = projection.mask(selfSet);
+        int words = projection.words();
+        TopScores top = new TopScores(projection, limit);
+        int count = candidateIndexes != null ? candidateIndexes.length : projection.size();
+        for (int k = 0; k < count; k++) {
+            int i = candidateIndexes != null ? candidateIndexes[k] : k;
+            if (projection.id(i) == selfId || projection.status(i) != 0) {
+                continue;
+            }
+            int intersection = 0;
+            for (int w = 0; w < words; w++) {
+                intersection += Long.bitCount(projection.word(i, w) & selfMask[w]);
+            }
+            if (intersection == 0) {
+                continue;
+            }
+            // 并集 = |A| + |B| - |A ∩ B|，投影中没有的自身标签只计入 |A|
+            int union = selfSet.size() + projection.cardinality(i) - intersection;
+            top.offer(i, (double) intersection / union);
+        }
+        return top.toMap();
+    }
+
+    /**
+     * 按技能互补度排名（列式投影）
+     * 互补度是对方每个标签贡献之和再除以对方标签数，每个标签的贡献只与当前用户有关，先按标签编号算好
+     *
+     * @param projection 全部用户的标签投影
+     * @param selfId     当前用户ID（跳过自己）
+     * @param selfTags   当前用户标签，可以包含投影中没有的标签
+     * @param limit      保留数量
+     * @return 用户ID -> 互补度，按分数倒序，同分按用户ID升序，只包含分数大于 0 的用户
+     */
+    public static Map<Long, Double> rankByComplement(UserTagProjection projection, long selfId,
+                                                     List<String> selfTags, int limit) {
+        Set<String> selfSet = new HashSet<>(selfTags);
+        if (selfSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        double[] contribution = new double[projection.tagCount()];
+        for (int tagId = 0; tagId < contribution.length; tagId++) {
+            String tag = projection.tag(tagId);
+            List<String> targets = TagScoreUtils.complementTargets(tag);
+            if (targets != null) {
+                // 与 TagScoreUtils.complement 相同：对方标签与我的每个标签互补记 0.5
+                for (String target : targets) {
+                    if (selfSet.contains(target)) {
+                        contribution[tagId] += 0.5;
+                    }
+                }
+            } else if (!selfSet.contains(tag)) {
+                contribution[tagId] = 0.2;
+            }
+        }
+
+        int words = projection.words();
+        TopScores top = new TopScores(projection, limit);
+        for (int i = 0; i < projection.size(); i++) {
+            if (projection.id(i) == selfId || projection.status(i) != 0) {
+                continue;
+            }
+            double sum = 0.0;
+            int count = 0;
+            for (int w = 0; w < words; w++) {
+                long word = projection.word(i, w);
+                while (word != 0) {
+                    sum += contribution[(w << 6) + Long.numberOfTrailingZeros(word)];
+                    count++;
+                    word &= word - 1;
+                }
+            }
+            if (sum > 0) {
+                top.offer(i, Math.min(sum / count, 1.0));
+            }
+        }
+        return top.toMap();
+    }
+
+    private static Map<Long, Double> rank(long selfId, List<String> selfTags, List<User> users, int limit,
+                                          ToDoubleBiFunction<List<String>, List<String>> scorer) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (User otherUser : users) {
+            if (selfId == otherUser.getId()) {
+                continue;
+            }
+
+            List<String> otherTags = TagScoreUtils.parseTags(otherUser.getTags());
+            if (CollectionUtils.isEmpty(otherTags)) {
+                continue;
+            }
+
+            double score = scorer.applyAsDouble(selfTags, otherTags);
+            if (score > 0) {
+                scores.put(otherUser.getId(), score);
+            }
+        }
+
+        Map<Long, Double> top = new LinkedHashMap<>();
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    /**
+     * 定长小顶堆，保留分数最高的 limit 个用户下标，全程只用基本类型数组
+     */
+    private static final class TopScores {
+
+        private final UserTagProjection projection;
+
+        private final int[] indexes;
+
+        private final double[] scores;
+
+        private int size;
+
+        TopScores(UserTagProjection projection, int limit) {
+            this.projection = projection;
+            this.indexes = new int[Math.max(limit, 0)];
+            this.scores = new double[Math.max(limit, 0)];
+        }
+
+        void offer(int index, double score) {
+            if (size < indexes.length) {
+                indexes[size] = index;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && worse(0, index, score)) {
+                indexes[0] = index;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * 按分数倒序输出
+         */
+        Map<Long, Double> toMap() {
+            int count = size;
+            int[] orderedIndexes = new int[count];
+            double[] orderedScores = new double[count];
+            for (int i = count - 1; i >= 0; i--) {
+                orderedIndexes[i] = indexes[0];
+                orderedScores[i] = scores[0];
+                size--;
+                indexes[0] = indexes[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            Map<Long, Double> top = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                top.put(projection.id(orderedIndexes[i]), orderedScores[i]);
+            }
+            return top;
+        }
+
+        /**
+         * 堆中第 slot 个元素是否比 (index, score) 差：分数更低，或同分但用户ID更大
+         */
+        private boolean worse(int slot, int index, double score) {
+            return scores[slot] < score || (scores[slot] == score && indexes[slot] > index);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (!worse(slot, indexes[parent], scores[parent])) {
+                    break;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int left = slot * 2 + 1;
+                if (left >= size) {
+                    break;
+                }
+                int child = left + 1 < size && worse(left + 1, indexes[left], scores[left]) ? left + 1 : left;
+                if (!worse(child, indexes[slot], scores[slot])) {
+                    break;
+                }
+                swap(slot, child);
+                slot = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int index = indexes[a];
+            indexes[a] = indexes[b];
+            indexes[b] = index;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -3,15 +3,16 @@ package com.samul.microde.utils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
 import java.util.Collections;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 基于Redis的分布式限流工具
- * 使用令牌桶算法实现请求限流
+ * 使用 Lua 脚本实现固定窗口请求限流
  *
  * @author Samul_Alen
  */
@@ -22,22 +23,30 @@ public class RateLimiterUtil {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
-    // Lua脚本：原子性实现令牌桶算法
+    // Lua脚本：原子性实现固定窗口计数
+    // 只在窗口内第一次请求时设置过期时间，超限时返回剩余秒数作为 Retry-After
     private static final String RATE_LIMIT_LUA =
             "local key = KEYS[1] " +
             "local limit = tonumber(ARGV[1]) " +
             "local expire = tonumber(ARGV[2]) " +
-            "local current = tonumber(redis.call('get', key) or '0') " +
-            "if current + 1 <= limit then " +
-            "    redis.call('incrby', key, 1) " +
+            "local current = redis.call('incr', key) " +
+            "if current == 1 then " +
             "    redis.call('expire', key, expire) " +
-            "    return 1 " +
-            "else " +
+            "end " +
+            "if current <= limit then " +
             "    return 0 " +
-            "end";
+            "end " +
+            "local ttl = redis.call('ttl', key) " +
+            "if ttl < 0 then " +
+            "    redis.call('expire', key, expire) " +
+            "    ttl = expire " +
+            "end " +
+            "return ttl";
+
+    private static final DefaultRedisScript<Long> RATE_LIMIT_SCRIPT = new DefaultRedisScript<>(RATE_LIMIT_LUA, Long.class);
 
     /**
-     * 检查是否允许请求（令牌桶算法）
+     * 检查是否允许请求（固定窗口计数）
      *
      * @param key     限流键（通常为 userId:api 或 ip:api）
      * @param limit   时间窗口内最大请求数
@@ -45,24 +54,38 @@ public class RateLimiterUtil {
      * @return true-允许请求，false-拒绝请求
      */
     public boolean allowRequest(String key, int limit, int expire) {
+        return tryAcquire(key, limit, expire) == 0;
+    }
+
+    /**
+     * 尝试获取一次请求许可
+     *
+     * @param key     限流键
+     * @param limit   时间窗口内最大请求数
+     * @param expire  时间窗口（秒）
+     * @return 0-允许请求，大于0-被限流，值为距离窗口重置的秒数
+     */
+    public long tryAcquire(String key, int limit, int expire) {
         try {
-            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>(RATE_LIMIT_LUA, Long.class);
+            // 参数和返回值使用字符串序列化，避免 JSON 序列化给数字加引号导致 tonumber 失败
             Long result = redisTemplate.execute(
-                    redisScript,
+                    RATE_LIMIT_SCRIPT,
+                    RedisSerializer.string(),
+                    new GenericToStringSerializer<>(Long.class),
                     Collections.singletonList(key),
                     String.valueOf(limit),
                     String.valueOf(expire)
             );
 
-            boolean allowed = result != null && result == 1L;
-            if (!allowed) {
-                log.warn("限流触发: key={}, limit={}, expire={}", key, limit, expire);
+            long retryAfter = result != null ? result : 0L;
+            if (retryAfter > 0) {
+                log.warn("限流触发: key={}, limit={}, expire={}, retryAfter={}s", key, limit, expire, retryAfter);
             }
-            return allowed;
+            return retryAfter;
         } catch (Exception e) {
             log.error("限流检查异常，默认放行: key={}", key, e);
             // 异常情况默认放行，避免影响业务
-            return true;
+            return 0L;
         }
     }
 
@@ -0,0 +1,249 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.config.SessionNearCacheConfig;
+import com.samul.microde.model.dto.SessionPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.session.events.SessionDestroyedEvent;
+import org.springframework.session.web.http.CookieHttpSessionIdResolver;
+import org.springframework.session.web.http.CookieSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session 本地近端缓存
+ * 按 Session ID 缓存登录主体，按用户ID缓存会话版本号，命中时不再读取 Redis
+ * 失效方式：
+ * 1. 本地条目存活 ttlSeconds 后过期，回源一次 Redis（同时刷新 Session 的最后访问时间）
+ * 2. 登录、注销、会话版本变更时通过 Redis 频道广播，所有节点同步淘汰
+ * 3. Spring Session 基于 keyspace 通知发布的删除/过期事件
+ *
+ * @author Samul_Alen
+ */
+@Component
+@Slf4j
+public class SessionNearCache implements MessageListener {
+
+    private static final String SESSION_MESSAGE_PREFIX = "session:";
+
+    private static final String USER_MESSAGE_PREFIX = "user:";
+
+    @Resource
+    private SessionNearCacheConfig sessionNearCacheConfig;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private ObjectProvider<CookieSerializer> cookieSerializerProvider;
+
+    private final CookieHttpSessionIdResolver sessionIdResolver = new CookieHttpSessionIdResolver();
+
+    /**
+     * Session ID -> 登录主体，按访问顺序排列用于 LRU 淘汰
+     */
+    private Map<String, Entry<SessionPrincipal>> principals;
+
+    /**
+     * 用户ID -> 会话版本号
+     */
+    private Map<Long, Entry<Long>> versions;
+
+    @PostConstruct
+    public void init() {
+        // 与 Spring Session 使用同一个 Cookie 序列化器，保证解析出的 Session ID 一致
+        CookieSerializer cookieSerializer = cookieSerializerProvider.getIfAvailable();
+        if (cookieSerializer != null) {
+            sessionIdResolver.setCookieSerializer(cookieSerializer);
+        }
+        principals = new LruMap<>(sessionNearCacheConfig.getMaxSize());
+        versions = new LruMap<>(sessionNearCacheConfig.getMaxSize());
+    }
+
+    /**
+     * 从请求 Cookie 中解析 Session ID，不会触发 Spring Session 读取 Redis
+     *
+     * @param request HTTP请求
+     * @return Session ID，没有时返回 null
+     */
+    public String resolveSessionId(HttpServletRequest request) {
+        if (!isEnabled()) {
+            return null;
+        }
+        List<String> sessionIds = sessionIdResolver.resolveSessionIds(request);
+        return sessionIds.isEmpty() ? null : sessionIds.get(0);
+    }
+
+    public SessionPrincipal getPrincipal(String sessionId) {
+        if (!isEnabled() || sessionId == null) {
+            return null;
+        }
+        synchronized (principals) {
+            return unwrap(principals, sessionId);
+        }
+    }
+
+    public void putPrincipal(String sessionId, SessionPrincipal principal) {
+        if (!isEnabled() || sessionId == null || principal == null) {
+            return;
+        }
+        synchronized (principals) {
+            principals.put(sessionId, new Entry<>(principal, expireAt()));
+        }
+    }
+
+    public Long getVersion(long userId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        synchronized (versions) {
+            return unwrap(versions, userId);
+        }
+    }
+
+    public void putVersion(long userId, long version) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (versions) {
+            versions.put(userId, new Entry<>(version, expireAt()));
+        }
+    }
+
+    /**
+     * 淘汰指定 Session 并通知其他节点（登录、注销时调用）
+     */
+    public void invalidateSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        evictSession(sessionId);
+        publish(SESSION_MESSAGE_PREFIX + sessionId);
+    }
+
+    /**
+     * 淘汰指定用户的版本号与全部 Session 并通知其他节点（会话版本变更时调用）
+     */
+    public void invalidateUser(long userId) {
+        evictUser(userId);
+        publish(USER_MESSAGE_PREFIX + userId);
+    }
+
+    /**
+     * 处理其他节点的失效广播，消息格式：session:{sessionId} 或 user:{userId}
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith(SESSION_MESSAGE_PREFIX)) {
+            evictSession(body.substring(SESSION_MESSAGE_PREFIX.length()));
+        } else if (body.startsWith(USER_MESSAGE_PREFIX)) {
+            long userId = NumberUtils.toLong(body.substring(USER_MESSAGE_PREFIX.length()), -1L);
+            if (userId > 0) {
+                evictUser(userId);
+            }
+        } else {
+            log.warn("无法识别的 Session 失效消息: {}", body);
+        }
+    }
+
+    /**
+     * Session 被删除或过期（Spring Session 监听 Redis keyspace 通知后发布，每个节点都会收到）
+     */
+    @EventListener
+    public void onSessionDestroyed(SessionDestroyedEvent event) {
+        evictSession(event.getSessionId());
+    }
+
+    private void evictSession(String sessionId) {
+        synchronized (principals) {
+            principals.remove(sessionId);
+        }
+    }
+
+    private void evictUser(long userId) {
+        synchronized (versions) {
+            versions.remove(userId);
+        }
+        synchronized (principals) {
+            Iterator<Entry<SessionPrincipal>> iterator = principals.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().value.getId() == userId) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void publish(String message) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(sessionNearCacheConfig.getInvalidateChannel(), message);
+        } catch (Exception e) {
+            // 广播失败时其他节点依赖本地过期时间兜底
+            log.error("发送 Session 失效广播失败: {}", message, e);
+        }
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(sessionNearCacheConfig.getEnabled());
+    }
+
+    private long expireAt() {
+        return System.currentTimeMillis() + sessionNearCacheConfig.getTtlSeconds() * 1000L;
+    }
+
+    private static <K, V> V unwrap(Map<K, Entry<V>> map, K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt < System.currentTimeMillis()) {
+            map.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+
+        private final long expireAt;
+
+        Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.model.domain.User;
+import com.samul.microde.model.dto.AuthTokenPair;
+import com.samul.microde.model.dto.SessionPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import static com.samul.microde.constant.UserConstant.USER_LOGIN_STATE;
+
+/**
+ * 基于 Spring Session 的登录态管理（默认模式，auth.mode=session）
+ * 每个浏览器 Session 只存储一个用户的登录态
+ * Session 中只保存 SessionPrincipal（id、角色、状态、版本号），减少 Spring Session 读写的字节数
+ * 封禁、删除、修改角色时递增用户的会话版本号，旧会话在下一次请求时立即失效
+ * 登录主体和版本号优先从 SessionNearCache 读取，命中时不访问 Redis
+ *
+ * @author: SamulAlen
+ * @date: 2026/02/07
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "auth", name = "mode", havingValue = "session", matchIfMissing = true)
+public class SessionUserSessionManager implements UserSessionManager {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private SessionNearCache sessionNearCache;
+
+    /**
+     * 添加用户到 Session（直接替换，不保留旧用户）
+     *
+     * @param user    用户对象
+     * @param request HTTP请求
+     */
+    @Override
+    public void addUserToSession(User user, HttpServletRequest request) {
+        SessionPrincipal principal = toPrincipal(user, getSessionVersion(user.getId()));
+        HttpSession session = request.getSession();
+        session.setAttribute(USER_LOGIN_STATE, principal);
+        sessionNearCache.invalidateSession(session.getId());
+    }
+
+    /**
+     * 获取当前登录主体
+     *
+     * @param request HTTP请求
+     * @return 当前登录主体
+     */
+    @Override
+    public SessionPrincipal getCurrentPrincipal(HttpServletRequest request) {
+        // 先按 Cookie 中的 Session ID 查本地缓存，命中则不触发 Spring Session 读取 Redis
+        String sessionId = sessionNearCache.resolveSessionId(request);
+        SessionPrincipal cached = sessionNearCache.getPrincipal(sessionId);
+        if (cached != null && cached.getVersion() != null && cached.getVersion() == getSessionVersion(cached.getId())) {
+            return cached;
+        }
+
+        HttpSession session = request.getSession();
+        Object loginState = session.getAttribute(USER_LOGIN_STATE);
+
+        if (loginState == null) {
+            throw new BusinessException(ErrorCode.NO_AUTH, "未登录");
+        }
+
+        SessionPrincipal principal;
+        if (loginState instanceof SessionPrincipal) {
+            principal = (SessionPrincipal) loginState;
+        } else if (loginState instanceof User) {
+            // 兼容旧版本存储的完整 User 对象，顺便替换为精简的登录主体
+            User legacyUser = (User) loginState;
+            principal = toPrincipal(legacyUser, getSessionVersion(legacyUser.getId()));
+            session.setAttribute(USER_LOGIN_STATE, principal);
+        } else {
+            session.removeAttribute(USER_LOGIN_STATE);
+            throw new BusinessException(ErrorCode.NO_AUTH, "未登录");
+        }
+
+        // 会话版本号不一致说明用户已被封禁、删除或修改了权限，登录态立即失效
+        long currentVersion = getSessionVersion(principal.getId());
+        if (principal.getVersion() == null || principal.getVersion() != currentVersion) {
+            log.info("用户 {} 的会话版本已变更({} -> {})，登录态失效", principal.getId(), principal.getVersion(), currentVersion);
+            session.removeAttribute(USER_LOGIN_STATE);
+            sessionNearCache.invalidateSession(session.getId());
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "登录状态已失效，请重新登录");
+        }
+
+        sessionNearCache.putPrincipal(session.getId(), principal);
+        return principal;
+    }
+
+    /**
+     * 移除当前用户（注销）
+     *
+     * @param request HTTP请求
+     */
+    @Override
+    public void removeCurrentUser(HttpServletRequest request) {
+        HttpSession session = request.getSession();
+        session.removeAttribute(USER_LOGIN_STATE);
+        sessionNearCache.invalidateSession(session.getId());
+    }
+
+    /**
+     * 检查用户是否已登录
+     *
+     * @param request HTTP请求
+     * @return 是否已登录
+     */
+    @Override
+    public boolean isLoggedIn(HttpServletRequest request) {
+        HttpSession session = request.getSession();
+        return session.getAttribute(USER_LOGIN_STATE) != null;
+    }
+
+    /**
+     * 使指定用户的所有会话失效
+     * 在封禁、删除、修改角色或状态时调用
+     *
+     * @param userId 用户ID
+     */
+    @Override
+    public void invalidateUserSessions(long userId) {
+        try {
+            stringRedisTemplate.opsForValue().increment(SESSION_VERSION_KEY_PREFIX + userId);
+            sessionNearCache.invalidateUser(userId);
+            log.info("已递增用户 {} 的会话版本号", userId);
+        } catch (Exception e) {
+            log.error("递增用户会话版本号失败，userId: {}", userId, e);
+        }
+    }
+
+    @Override
+    public AuthTokenPair refreshToken(String refreshToken) {
+        throw new BusinessException(ErrorCode.PARAMS_ERROR, "当前认证模式不支持刷新令牌");
+    }
+
+    /**
+     * 获取用户当前的会话版本号，从未变更过的用户为 0
+     */
+    private long getSessionVersion(long userId) {
+        Long cached = sessionNearCache.getVersion(userId);
+        if (cached != null) {
+            return cached;
+        }
+        String version = stringRedisTemplate.opsForValue().get(SESSION_VERSION_KEY_PREFIX + userId);
+        long current = NumberUtils.toLong(version, 0L);
+        sessionNearCache.putVersion(userId, current);
+        return current;
+    }
+
+    private SessionPrincipal toPrincipal(User user, long version) {
+        SessionPrincipal principal = new SessionPrincipal();
+        principal.setId(user.getId());
+        principal.setUserRole(user.getUserRole());
+        principal.setUserStatus(user.getUserStatus());
+        principal.setVersion(version);
+        return principal;
+    }
+}
@@ -0,0 +1,62 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.config.StageTraceConfig;
+import com.samul.microde.model.dto.StageTrace;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 阶段追踪环形缓冲区
+ * 保存最近的慢请求和采样请求，写满后覆盖最早的记录；只在本机内存中，重启即清空
+ *
+ * @author Samul_Alen
+ */
+@Component
+public class StageTraceBuffer {
+
+    @Resource
+    private StageTraceConfig stageTraceConfig;
+
+    private AtomicReferenceArray<StageTrace> slots;
+
+    /**
+     * 已写入的总条数，对容量取模即下一个写入位置
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        slots = new AtomicReferenceArray<>(Math.max(stageTraceConfig.getBufferSize(), 1));
+    }
+
+    public void add(StageTrace trace) {
+        long sequence = written.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), trace);
+    }
+
+    /**
+     * 最近的记录，新的在前
+     *
+     * @param limit    最多返回条数
+     * @param slowOnly 是否只返回慢请求
+     */
+    public List<StageTrace> recent(int limit, boolean slowOnly) {
+        int capacity = slots.length();
+        long end = written.get();
+        long begin = Math.max(end - capacity, 0L);
+        List<StageTrace> result = new ArrayList<>(Math.min(limit, capacity));
+        for (long sequence = end - 1; sequence >= begin && result.size() < limit; sequence--) {
+            StageTrace trace = slots.get((int) (sequence % capacity));
+            if (trace != null && (!slowOnly || trace.isSlow())) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+}
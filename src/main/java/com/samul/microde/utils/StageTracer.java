@@ -0,0 +1,214 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.model.dto.StageTrace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 请求阶段耗时记录器
+ * 每个线程复用一个记录器，请求开始时 begin、结束时 end；中间的 record / count 只写数组，不分配对象，
+ * 未开启追踪的线程（定时任务、异步线程池）调用时直接返回
+ * 只有需要输出（慢请求、采样、调试响应头）时才通过 snapshot 生成 {@link StageTrace}
+ *
+ * @author Samul_Alen
+ */
+public final class StageTracer {
+
+    /**
+     * 单个请求最多记录的阶段数、计数项数，超出的忽略
+     */
+    private static final int MAX_ENTRIES = 16;
+
+    /**
+     * 总耗时中未被任何阶段覆盖的部分（登录校验、参数解析、序列化等）
+     */
+    public static final String OTHER_STAGE = "other";
+
+    private static final ThreadLocal<StageTracer> CURRENT = ThreadLocal.withInitial(StageTracer::new);
+
+    private boolean active;
+
+    private String name;
+
+    private long startTime;
+
+    private long startNanos;
+
+    private final String[] stageNames = new String[MAX_ENTRIES];
+
+    private final long[] stageNanos = new long[MAX_ENTRIES];
+
+    private int stageCount;
+
+    private final String[] counterNames = new String[MAX_ENTRIES];
+
+    private final int[] counterValues = new int[MAX_ENTRIES];
+
+    private int counterCount;
+
+    private StageTracer() {
+    }
+
+    /**
+     * 开始追踪当前线程上的请求，清空上一次的记录
+     */
+    public static void begin(String name) {
+        StageTracer tracer = CURRENT.get();
+        tracer.active = true;
+        tracer.name = name;
+        tracer.startTime = System.currentTimeMillis();
+        tracer.startNanos = System.nanoTime();
+        tracer.stageCount = 0;
+        tracer.counterCount = 0;
+    }
+
+    /**
+     * 结束追踪
+     */
+    public static void end() {
+        StageTracer tracer = CURRENT.get();
+        tracer.active = false;
+        tracer.name = null;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get().active;
+    }
+
+    /**
+     * 从 begin 到现在的耗时（纳秒），未开启追踪时返回 0
+     */
+    public static long elapsedNanos() {
+        StageTracer tracer = CURRENT.get();
+        return tracer.active ? System.nanoTime() - tracer.startNanos : 0L;
+    }
+
+    /**
+     * 记录阶段耗时，同名阶段多次记录时累加
+     *
+     * @param stage 阶段名称，应使用常量
+     * @param nanos 耗时（纳秒）
+     */
+    public static void record(String stage, long nanos) {
+        StageTracer tracer = CURRENT.get();
+        if (!tracer.active) {
+            return;
+        }
+        int index = indexOf(tracer.stageNames, tracer.stageCount, stage);
+        if (index >= 0) {
+            tracer.stageNanos[index] += nanos;
+        } else if (tracer.stageCount < MAX_ENTRIES) {
+            tracer.stageNames[tracer.stageCount] = stage;
+            tracer.stageNanos[tracer.stageCount] = nanos;
+            tracer.stageCount++;
+        }
+    }
+
+    /**
+     * 计数加一，如一次缓存读取
+     *
+     * @param counter 计数项名称，应使用常量
+     */
+    public static void count(String counter) {
+        StageTracer tracer = CURRENT.get();
+        if (!tracer.active) {
+            return;
+        }
+        int index = indexOf(tracer.counterNames, tracer.counterCount, counter);
+        if (index >= 0) {
+            tracer.counterValues[index]++;
+        } else if (tracer.counterCount < MAX_ENTRIES) {
+            tracer.counterNames[tracer.counterCount] = counter;
+            tracer.counterValues[tracer.counterCount] = 1;
+            tracer.counterCount++;
+        }
+    }
+
+    /**
+     * 生成当前请求到目前为止的快照，未开启追踪时返回 null
+     * 各阶段之外的耗时记为 {@link #OTHER_STAGE}
+     */
+    public static StageTrace snapshot() {
+        StageTracer tracer = CURRENT.get();
+        if (!tracer.active) {
+            return null;
+        }
+        long totalNanos = System.nanoTime() - tracer.startNanos;
+        long stagedNanos = 0L;
+        Map<String, Double> stages = new LinkedHashMap<>();
+        for (int i = 0; i < tracer.stageCount; i++) {
+            stages.put(tracer.stageNames[i], toMillis(tracer.stageNanos[i]));
+            stagedNanos += tracer.stageNanos[i];
+        }
+        if (tracer.stageCount > 0 && totalNanos > stagedNanos) {
+            stages.put(OTHER_STAGE, toMillis(totalNanos - stagedNanos));
+        }
+        Map<String, Integer> counters = new LinkedHashMap<>();
+        for (int i = 0; i < tracer.counterCount; i++) {
+            counters.put(tracer.counterNames[i], tracer.counterValues[i]);
+        }
+
+        StageTrace trace = new StageTrace();
+        trace.setName(tracer.name);
+        trace.setStartTime(tracer.startTime);
+        trace.setTotalMillis(toMillis(totalNanos));
+        trace.setStages(stages);
+        trace.setCounters(counters);
+        return trace;
+    }
+
+    /**
+     * 格式化为日志中的一行，如 total=812.4ms candidate=35.2ms hydrate=120.8ms [users=201]
+     */
+    public static String format(StageTrace trace) {
+        StringBuilder sb = new StringBuilder("total=").append(trace.getTotalMillis()).append("ms");
+        for (Map.Entry<String, Double> entry : trace.getStages().entrySet()) {
+            sb.append(' ').append(entry.getKey()).append('=').append(entry.getValue()).append("ms");
+        }
+        if (!trace.getCounters().isEmpty()) {
+            sb.append(" [");
+            boolean first = true;
+            for (Map.Entry<String, Integer> entry : trace.getCounters().entrySet()) {
+                if (!first) {
+                    sb.append(' ');
+                }
+                sb.append(entry.getKey()).append('=').append(entry.getValue());
+                first = false;
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 格式化为 Server-Timing 响应头，浏览器开发者工具可直接展示
+     * 如 candidate;dur=35.2, hydrate;dur=120.8, users;desc="201", total;dur=812.4
+     */
+    public static String toServerTiming(StageTrace trace) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Double> entry : trace.getStages().entrySet()) {
+            sb.append(entry.getKey()).append(";dur=").append(entry.getValue()).append(", ");
+        }
+        for (Map.Entry<String, Integer> entry : trace.getCounters().entrySet()) {
+            sb.append(entry.getKey()).append(";desc=\"").append(entry.getValue()).append("\", ");
+        }
+        return sb.append("total;dur=").append(trace.getTotalMillis()).toString();
+    }
+
+    private static int indexOf(String[] names, int size, String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i] == name || names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 纳秒转毫秒，保留一位小数
+     */
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+}
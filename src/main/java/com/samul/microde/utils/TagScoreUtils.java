@@ -0,0 +1,159 @@
+package com.samul.microde.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.CollectionUtils;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 标签打分工具
+ * 推荐服务与推荐偏好学习共用的标签解析、相似度、互补度计算，无状态，不依赖 Spring 容器
+ *
+ * @author Samul_Alen
+ */
+@Slf4j
+public final class TagScoreUtils {
+
+    private static final Gson GSON = new Gson();
+
+    private static final Type TAG_LIST_TYPE = new TypeToken<List<String>>() {
+    }.getType();
+
+    private static final Type TAG_SET_TYPE = new TypeToken<Set<String>>() {
+    }.getType();
+
+    /**
+     * 技能互补映射表
+     * 前端技能 <-> 后端技能
+     */
+    private static final Map<String, List<String>> COMPLEMENT_MAP = new HashMap<String, List<String>>() {{
+        put("React", Arrays.asList("Spring Boot", "Java", "Go", "Node.js"));
+        put("Vue", Arrays.asList("Spring Boot", "Java", "Django", "Flask"));
+        put("Spring Boot", Arrays.asList("React", "Vue", "Angular", "iOS", "Android"));
+        put("Java", Arrays.asList("React", "Vue", "iOS", "Android", "Flutter"));
+        put("Python", Arrays.asList("React", "Vue", "iOS", "Android", "DevOps"));
+        put("前端", Arrays.asList("后端", "Java", "Go", "C++"));
+        put("后端", Arrays.asList("前端", "React", "Vue", "iOS"));
+        put("Android", Arrays.asList("iOS", "后端", "Java"));
+        put("iOS", Arrays.asList("Android", "后端", "Swift"));
+        put("Flutter", Arrays.asList("后端", "Java", "Go"));
+    }};
+
+    private TagScoreUtils() {
+    }
+
+    /**
+     * 解析标签 JSON
+     *
+     * @param tagsJson 标签 JSON 数组
+     * @return 标签列表，为空或格式错误时返回空列表
+     */
+    public static List<String> parseTags(String tagsJson) {
+        if (StringUtils.isBlank(tagsJson)) {
+            return new ArrayList<>();
+        }
+        try {
+            List<String> tags = GSON.fromJson(tagsJson, TAG_LIST_TYPE);
+            return tags != null ? tags : new ArrayList<>();
+        } catch (Exception e) {
+            log.error("解析标签失败: {}", tagsJson, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 用户标签是否包含全部要求的标签（按标签搜索用户的内存过滤）
+     *
+     * @param tagsJson 用户标签 JSON 数组
+     * @param required 要求的标签
+     * @return 全部包含时返回 true；用户没有标签时返回 false
+     */
+    public static boolean hasAllTags(String tagsJson, Collection<String> required) {
+        if (StringUtils.isBlank(tagsJson)) {
+            return false;
+        }
+        Set<String> tagSet = GSON.fromJson(tagsJson, TAG_SET_TYPE);
+        return tagSet != null && tagSet.containsAll(required);
+    }
+
+    /**
+     * 与该标签互补的标签
+     *
+     * @return 不在互补映射表中时返回 null
+     */
+    public static List<String> complementTargets(String tag) {
+        return COMPLEMENT_MAP.get(tag);
+    }
+
+    /**
+     * 标签相似度
+     * Jaccard 相似系数: |A ∩ B| / |A ∪ B|
+     *
+     * @return 0-1
+     */
+    public static double similarity(List<String> tags1, List<String> tags2) {
+        if (CollectionUtils.isEmpty(tags1) || CollectionUtils.isEmpty(tags2)) {
+            return 0.0;
+        }
+
+        Set<String> set1 = new HashSet<>(tags1);
+        Set<String> set2 = new HashSet<>(tags2);
+
+        Set<String> intersection = new HashSet<>(set1);
+        intersection.retainAll(set2);
+
+        Set<String> union = new HashSet<>(set1);
+        union.addAll(set2);
+
+        if (union.isEmpty()) {
+            return 0.0;
+        }
+
+        return (double) intersection.size() / union.size();
+    }
+
+    /**
+     * 技能互补度
+     * 对方标签与我的标签在互补映射表中命中记 0.5，对方有而我没有的技能记 0.2，按对方标签数归一化
+     *
+     * @return 0-1
+     */
+    public static double complement(List<String> myTags, List<String> otherTags) {
+        if (CollectionUtils.isEmpty(myTags) || CollectionUtils.isEmpty(otherTags)) {
+            return 0.0;
+        }
+
+        Set<String> myTagSet = new HashSet<>(myTags);
+        double complementScore = 0.0;
+
+        // 计算对方标签中有多少是与我互补的
+        for (String tag : otherTags) {
+            List<String> complementTags = COMPLEMENT_MAP.get(tag);
+            if (complementTags != null) {
+                // 检查这个标签是否与我的标签互补
+                for (String myTag : myTags) {
+                    if (complementTags.contains(myTag)) {
+                        complementScore += 0.5;
+                    }
+                }
+            } else if (!myTagSet.contains(tag)) {
+                // 对方有而我没有的技能，也有一定的互补性
+                complementScore += 0.2;
+            }
+        }
+
+        // 归一化到 0-1
+        return Math.min(complementScore / otherTags.size(), 1.0);
+    }
+}
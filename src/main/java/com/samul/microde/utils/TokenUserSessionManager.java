@@ -0,0 +1,278 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.common.ErrorCode;
+import com.samul.microde.config.AuthConfig;
+import com.samul.microde.exception.BusinessException;
+import com.samul.microde.mapper.UserMapper;
+import com.samul.microde.model.domain.User;
+import com.samul.microde.model.dto.AuthTokenPair;
+import com.samul.microde.model.dto.SessionPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于签名令牌的无状态登录态管理（auth.mode=token）
+ * 访问令牌：HMAC-SHA256 签名，有效期短，每次请求只在本地校验签名、过期时间和本地吊销列表，不访问 Redis
+ * 刷新令牌：随机字符串，保存在 Redis，只能使用一次，使用时校验用户状态与会话版本并换发新令牌对
+ * 吊销：封禁、删除、修改角色时记录吊销时间（Redis ZSet + 频道广播），之前签发的访问令牌全部拒绝
+ *
+ * @author Samul_Alen
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "auth", name = "mode", havingValue = "token")
+public class TokenUserSessionManager implements UserSessionManager, MessageListener {
+
+    /**
+     * 访问令牌请求头
+     */
+    public static final String AUTHORIZATION_HEADER = "Authorization";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * 登录成功后通过响应头返回令牌
+     */
+    public static final String ACCESS_TOKEN_HEADER = "X-Access-Token";
+
+    public static final String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
+
+    /**
+     * 刷新令牌 Key 前缀，value 为 "用户ID,会话版本"
+     */
+    private static final String REFRESH_TOKEN_KEY_PREFIX = "microde:auth:refresh:";
+
+    /**
+     * 吊销列表（ZSet），member 为用户ID，score 为吊销时间（毫秒）
+     */
+    private static final String REVOKED_KEY = "microde:auth:revoked";
+
+    /**
+     * 原子地读取并删除刷新令牌，保证同一个刷新令牌只能换发一次
+     */
+    private static final DefaultRedisScript<String> GET_AND_DELETE_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('GET', KEYS[1]) " +
+                    "if v then redis.call('DEL', KEYS[1]) end " +
+                    "return v", String.class);
+
+    @Resource
+    private AuthConfig authConfig;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private UserMapper userMapper;
+
+    private AuthTokenCodec tokenCodec;
+
+    /**
+     * 本地吊销列表：用户ID -> 吊销时间（毫秒）
+     */
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        String secret = authConfig.getTokenSecret();
+        if (StringUtils.isBlank(secret)) {
+            secret = AuthTokenCodec.randomToken(32);
+            log.warn("未配置 auth.token-secret，已随机生成签名密钥，重启后已签发的令牌全部失效，多节点部署时请务必配置");
+        }
+        tokenCodec = new AuthTokenCodec(secret.getBytes(StandardCharsets.UTF_8));
+        syncRevokedUsers();
+    }
+
+    @Override
+    public void addUserToSession(User user, HttpServletRequest request) {
+        AuthTokenPair tokenPair = issueTokenPair(user, getSessionVersion(user.getId()));
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        HttpServletResponse response = attributes != null ? attributes.getResponse() : null;
+        if (response == null) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "无法写入登录令牌");
+        }
+        response.setHeader(ACCESS_TOKEN_HEADER, tokenPair.getAccessToken());
+        response.setHeader(REFRESH_TOKEN_HEADER, tokenPair.getRefreshToken());
+    }
+
+    @Override
+    public SessionPrincipal getCurrentPrincipal(HttpServletRequest request) {
+        String accessToken = resolveAccessToken(request);
+        if (accessToken == null) {
+            throw new BusinessException(ErrorCode.NO_AUTH, "未登录");
+        }
+        AuthTokenCodec.Claims claims = tokenCodec.decode(accessToken, System.currentTimeMillis());
+        if (claims == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "登录状态已失效，请重新登录");
+        }
+        SessionPrincipal principal = claims.getPrincipal();
+        Long revokedAt = revokedUsers.get(principal.getId());
+        if (revokedAt != null && claims.getIssuedAt() <= revokedAt) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "登录状态已失效，请重新登录");
+        }
+        return principal;
+    }
+
+    /**
+     * 注销：删除请求头中携带的刷新令牌
+     * 访问令牌有效期很短，由客户端丢弃即可
+     */
+    @Override
+    public void removeCurrentUser(HttpServletRequest request) {
+        String refreshToken = request.getHeader(REFRESH_TOKEN_HEADER);
+        if (StringUtils.isNotBlank(refreshToken)) {
+            stringRedisTemplate.delete(REFRESH_TOKEN_KEY_PREFIX + refreshToken);
+        }
+    }
+
+    @Override
+    public boolean isLoggedIn(HttpServletRequest request) {
+        try {
+            getCurrentPrincipal(request);
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void invalidateUserSessions(long userId) {
+        long revokedAt = System.currentTimeMillis();
+        try {
+            // 递增会话版本号，已签发的刷新令牌在刷新时被拒绝
+            stringRedisTemplate.opsForValue().increment(SESSION_VERSION_KEY_PREFIX + userId);
+            // 记录吊销时间并广播，已签发的访问令牌立即被拒绝
+            stringRedisTemplate.opsForZSet().add(REVOKED_KEY, String.valueOf(userId), revokedAt);
+            revokedUsers.put(userId, revokedAt);
+            stringRedisTemplate.convertAndSend(authConfig.getRevokeChannel(), userId + "," + revokedAt);
+            log.info("已吊销用户 {} 的全部令牌", userId);
+        } catch (Exception e) {
+            log.error("吊销用户令牌失败，userId: {}", userId, e);
+        }
+    }
+
+    @Override
+    public AuthTokenPair refreshToken(String refreshToken) {
+        if (StringUtils.isBlank(refreshToken)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "刷新令牌为空");
+        }
+        String value = stringRedisTemplate.execute(GET_AND_DELETE_SCRIPT,
+                Collections.singletonList(REFRESH_TOKEN_KEY_PREFIX + refreshToken));
+        if (value == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "刷新令牌无效或已过期，请重新登录");
+        }
+        String[] parts = value.split(",");
+        long userId = NumberUtils.toLong(parts[0], -1L);
+        long tokenVersion = parts.length > 1 ? NumberUtils.toLong(parts[1], -1L) : -1L;
+
+        // 刷新时重新读取用户，角色、状态变化在这里生效
+        User user = userMapper.selectById(userId);
+        if (user == null || user.getUserStatus() == null || user.getUserStatus() != 0) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "账号不可用，请重新登录");
+        }
+        long currentVersion = getSessionVersion(userId);
+        if (tokenVersion != currentVersion) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "登录状态已失效，请重新登录");
+        }
+        return issueTokenPair(user, currentVersion);
+    }
+
+    /**
+     * 处理其他节点的吊销广播，消息格式：用户ID,吊销时间
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(",");
+        if (parts.length != 2) {
+            return;
+        }
+        long userId = NumberUtils.toLong(parts[0], -1L);
+        long revokedAt = NumberUtils.toLong(parts[1], -1L);
+        if (userId > 0 && revokedAt > 0) {
+            revokedUsers.merge(userId, revokedAt, Math::max);
+        }
+    }
+
+    /**
+     * 定时与 Redis 吊销列表同步，兜底丢失的广播
+     * 超过访问令牌有效期的吊销记录已无意义，顺便清理
+     */
+    @Scheduled(fixedDelayString = "${auth.revoked-sync-interval:60000}")
+    public void syncRevokedUsers() {
+        try {
+            long minRevokedAt = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(authConfig.getAccessTokenTtlSeconds());
+            stringRedisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, minRevokedAt);
+            Set<ZSetOperations.TypedTuple<String>> tuples =
+                    stringRedisTemplate.opsForZSet().rangeByScoreWithScores(REVOKED_KEY, minRevokedAt, Double.MAX_VALUE);
+            Map<Long, Long> latest = new ConcurrentHashMap<>();
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                    if (tuple.getValue() != null && tuple.getScore() != null) {
+                        latest.put(Long.parseLong(tuple.getValue()), tuple.getScore().longValue());
+                    }
+                }
+            }
+            // 本地新收到但尚未同步的广播保留，过期的一并清理
+            revokedUsers.entrySet().removeIf(entry -> entry.getValue() <= minRevokedAt);
+            latest.forEach((userId, revokedAt) -> revokedUsers.merge(userId, revokedAt, Math::max));
+        } catch (Exception e) {
+            log.error("同步令牌吊销列表失败，继续使用本地列表", e);
+        }
+    }
+
+    private AuthTokenPair issueTokenPair(User user, long version) {
+        SessionPrincipal principal = new SessionPrincipal();
+        principal.setId(user.getId());
+        principal.setUserRole(user.getUserRole());
+        principal.setUserStatus(user.getUserStatus());
+        principal.setVersion(version);
+
+        long now = System.currentTimeMillis();
+        long accessTtlSeconds = authConfig.getAccessTokenTtlSeconds();
+        String accessToken = tokenCodec.encode(principal, now, now + TimeUnit.SECONDS.toMillis(accessTtlSeconds));
+        String refreshToken = AuthTokenCodec.randomToken(32);
+        stringRedisTemplate.opsForValue().set(REFRESH_TOKEN_KEY_PREFIX + refreshToken,
+                user.getId() + "," + version, authConfig.getRefreshTokenTtlSeconds(), TimeUnit.SECONDS);
+
+        AuthTokenPair tokenPair = new AuthTokenPair();
+        tokenPair.setAccessToken(accessToken);
+        tokenPair.setExpiresIn(accessTtlSeconds);
+        tokenPair.setRefreshToken(refreshToken);
+        return tokenPair;
+    }
+
+    private String resolveAccessToken(HttpServletRequest request) {
+        String header = request.getHeader(AUTHORIZATION_HEADER);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private long getSessionVersion(long userId) {
+        String version = stringRedisTemplate.opsForValue().get(SESSION_VERSION_KEY_PREFIX + userId);
+        return NumberUtils.toLong(version, 0L);
+    }
+}
@@ -1,48 +1,57 @@
 package com.samul.microde.utils;
 
-import com.samul.microde.common.ErrorCode;
-import com.samul.microde.exception.BusinessException;
 import com.samul.microde.model.domain.User;
+import com.samul.microde.model.dto.AuthTokenPair;
+import com.samul.microde.model.dto.SessionPrincipal;
 
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpSession;
-
-import static com.samul.microde.constant.UserConstant.USER_LOGIN_STATE;
 
 /**
- * 用户 Session 管理工具
- * 每个浏览器 Session 只存储一个用户的登录态
+ * 用户登录态管理
+ * 通过 auth.mode 选择实现：
+ * session - SessionUserSessionManager，登录态保存在 Spring Session（默认）
+ * token   - TokenUserSessionManager，无状态签名令牌，访问令牌在本地校验
  *
  * @author: SamulAlen
  * @date: 2026/02/07
  */
-public class UserSessionManager {
+public interface UserSessionManager {
+
+    /**
+     * 用户会话版本号 Key 前缀，两种模式共用
+     * 封禁、删除、修改角色或状态时递增，旧登录态随之失效
+     */
+    String SESSION_VERSION_KEY_PREFIX = "microde:user:session:version:";
 
     /**
-     * 添加用户到 Session（直接替换，不保留旧用户）
+     * 登录成功后保存登录态
      *
      * @param user    用户对象
      * @param request HTTP请求
      */
-    public static void addUserToSession(User user, HttpServletRequest request) {
-        HttpSession session = request.getSession();
-        session.setAttribute(USER_LOGIN_STATE, user);
-    }
+    void addUserToSession(User user, HttpServletRequest request);
+
+    /**
+     * 获取当前登录主体，未登录或登录态失效时抛出异常
+     *
+     * @param request HTTP请求
+     * @return 当前登录主体
+     */
+    SessionPrincipal getCurrentPrincipal(HttpServletRequest request);
 
     /**
      * 获取当前登录用户
+     * 只包含 id、角色、状态，需要完整资料时请从用户快照读取
      *
      * @param request HTTP请求
      * @return 当前用户
      */
-    public static User getCurrentUser(HttpServletRequest request) {
-        HttpSession session = request.getSession();
-        User user = (User) session.getAttribute(USER_LOGIN_STATE);
-
-        if (user == null) {
-            throw new BusinessException(ErrorCode.NO_AUTH, "未登录");
-        }
-
+    default User getCurrentUser(HttpServletRequest request) {
+        SessionPrincipal principal = getCurrentPrincipal(request);
+        User user = new User();
+        user.setId(principal.getId());
+        user.setUserRole(principal.getUserRole());
+        user.setUserStatus(principal.getUserStatus());
         return user;
     }
 
@@ -51,10 +60,7 @@ public class UserSessionManager {
      *
      * @param request HTTP请求
      */
-    public static void removeCurrentUser(HttpServletRequest request) {
-        HttpSession session = request.getSession();
-        session.removeAttribute(USER_LOGIN_STATE);
-    }
+    void removeCurrentUser(HttpServletRequest request);
 
     /**
      * 检查用户是否已登录
@@ -62,8 +68,21 @@ public class UserSessionManager {
      * @param request HTTP请求
      * @return 是否已登录
      */
-    public static boolean isLoggedIn(HttpServletRequest request) {
-        HttpSession session = request.getSession();
-        return session.getAttribute(USER_LOGIN_STATE) != null;
-    }
+    boolean isLoggedIn(HttpServletRequest request);
+
+    /**
+     * 使指定用户的所有登录态失效
+     * 在封禁、删除、修改角色或状态时调用
+     *
+     * @param userId 用户ID
+     */
+    void invalidateUserSessions(long userId);
+
+    /**
+     * 使用刷新令牌换取新的令牌对（仅 token 模式支持）
+     *
+     * @param refreshToken 刷新令牌
+     * @return 新的访问令牌与刷新令牌
+     */
+    AuthTokenPair refreshToken(String refreshToken);
 }
@@ -0,0 +1,266 @@
+package com.samul.microde.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户标签列式投影
+ * 预计算只需要用户ID、标签和状态，用并行数组保存，代替整份 List&lt;User&gt;：
+ * ids[i]、status[i] 与 bits 中第 i 个长度为 words 的片段描述同一个用户，按用户ID升序排列
+ * 标签按出现顺序编号，编号即位下标；标签总数不超过 64 时每个用户约 17 字节
+ * 构建完成后只读，可以在多个线程间共享
+ *
+ * @author Samul_Alen
+ */
+public final class UserTagProjection {
+
+    private final long[] ids;
+
+    private final byte[] status;
+
+    /**
+     * 每个用户的标签位图占用的 long 个数
+     */
+    private final int words;
+
+    private final long[] bits;
+
+    /**
+     * 标签编号 -> 标签
+     */
+    private final String[] tags;
+
+    /**
+     * 标签 -> 编号
+     */
+    private final Map<String, Integer> tagIds;
+
+    private final long builtAt;
+
+    private UserTagProjection(long[] ids, byte[] status, int words, long[] bits, String[] tags,
+                              Map<String, Integer> tagIds) {
+        this.ids = ids;
+        this.status = status;
+        this.words = words;
+        this.bits = bits;
+        this.tags = tags;
+        this.tagIds = tagIds;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * 用户状态，0 为正常
+     */
+    public int status(int index) {
+        return status[index];
+    }
+
+    public int words() {
+        return words;
+    }
+
+    public int tagCount() {
+        return tags.length;
+    }
+
+    public String tag(int tagId) {
+        return tags[tagId];
+    }
+
+    /**
+     * 标签编号，标签不在投影中时返回 -1
+     */
+    public int tagId(String tag) {
+        Integer tagId = tagIds.get(tag);
+        return tagId != null ? tagId : -1;
+    }
+
+    /**
+     * 用户标签位图中的第 word 个 long
+     */
+    public long word(int index, int word) {
+        return bits[index * words + word];
+    }
+
+    /**
+     * 用户标签个数
+     */
+    public int cardinality(int index) {
+        int count = 0;
+        int offset = index * words;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[offset + w]);
+        }
+        return count;
+    }
+
+    /**
+     * 用户标签，按标签编号顺序
+     */
+    public List<String> tagsOf(int index) {
+        List<String> result = new ArrayList<>();
+        int offset = index * words;
+        for (int w = 0; w < words; w++) {
+            long word = bits[offset + w];
+            while (word != 0) {
+                result.add(tags[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 用户下标，按用户ID二分查找，不存在时返回 -1
+     */
+    public int indexOf(long userId) {
+        int index = Arrays.binarySearch(ids, userId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * 把标签编码为位图，不在投影中的标签忽略
+     */
+    public long[] mask(Collection<String> tagNames) {
+        long[] mask = new long[words];
+        for (String tag : tagNames) {
+            int tagId = tagId(tag);
+            if (tagId >= 0) {
+                mask[tagId >>> 6] |= 1L << tagId;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 用户是否有位图中的任一标签
+     */
+    public boolean intersects(int index, long[] mask) {
+        int offset = index * words;
+        for (int w = 0; w < words; w++) {
+            if ((bits[offset + w] & mask[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 构建时间（毫秒时间戳）
+     */
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * 投影占用的内存（字节，不含标签字典）
+     */
+    public long footprintBytes() {
+        return ids.length * 8L + status.length + bits.length * 8L;
+    }
+
+    /**
+     * 逐个追加用户，不要求有序；同一用户ID追加多次时以最后一次为准
+     */
+    public static final class Builder {
+
+        private long[] ids = new long[1024];
+
+        private byte[] status = new byte[1024];
+
+        private int words = 1;
+
+        private long[] bits = new long[1024];
+
+        private int size;
+
+        private final List<String> tags = new ArrayList<>();
+
+        private final Map<String, Integer> tagIds = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param userId     用户ID
+         * @param userTags   用户标签
+         * @param userStatus 用户状态，为空时按正常处理
+         */
+        public Builder add(long userId, List<String> userTags, Integer userStatus) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                status = Arrays.copyOf(status, capacity);
+                bits = Arrays.copyOf(bits, capacity * words);
+            }
+            ids[size] = userId;
+            status[size] = userStatus != null ? userStatus.byteValue() : 0;
+            for (String tag : userTags) {
+                Integer tagId = tagIds.get(tag);
+                if (tagId == null) {
+                    tagId = tags.size();
+                    tags.add(tag);
+                    tagIds.put(tag, tagId);
+                    if (tagId >= words * 64) {
+                        widen();
+                    }
+                }
+                bits[size * words + (tagId >>> 6)] |= 1L << tagId;
+            }
+            size++;
+            return this;
+        }
+
+        public UserTagProjection build() {
+            // 按用户ID排序，查找时二分；用二分查找得到每个用户排序后的位置，避免装箱排序
+            long[] sortedIds = Arrays.copyOf(ids, size);
+            Arrays.sort(sortedIds);
+            // HSCAN 在遍历期间哈希表扩容时可能重复返回同一用户：去掉重复ID，重复追加的以最后一次为准
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || sortedIds[i] != sortedIds[unique - 1]) {
+                    sortedIds[unique++] = sortedIds[i];
+                }
+            }
+            sortedIds = Arrays.copyOf(sortedIds, unique);
+            byte[] sortedStatus = new byte[unique];
+            long[] sortedBits = new long[unique * words];
+            for (int i = 0; i < size; i++) {
+                int target = Arrays.binarySearch(sortedIds, ids[i]);
+                sortedStatus[target] = status[i];
+                System.arraycopy(bits, i * words, sortedBits, target * words, words);
+            }
+            return new UserTagProjection(sortedIds, sortedStatus, words, sortedBits,
+                    tags.toArray(new String[0]), tagIds);
+        }
+
+        /**
+         * 标签数超过当前位图宽度时，每个用户多占一个 long
+         */
+        private void widen() {
+            int newWords = words + 1;
+            long[] widened = new long[ids.length * newWords];
+            for (int i = 0; i <= size && i < ids.length; i++) {
+                System.arraycopy(bits, i * words, widened, i * newWords, words);
+            }
+            bits = widened;
+            words = newWords;
+        }
+    }
+}
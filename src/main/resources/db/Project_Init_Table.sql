@@ -74,9 +74,12 @@ CREATE TABLE `team`
     `createTime`  datetime              DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `updateTime`  datetime              DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     `isDelete`    tinyint(4)   NOT NULL DEFAULT '0' COMMENT '是否删除',
-    PRIMARY KEY (`id`)
+    PRIMARY KEY (`id`),
+    KEY `idx_expireTime` (`expireTime`)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4 COMMENT ='队伍表';
+-- 已有库升级：
+-- ALTER TABLE `team` ADD KEY `idx_expireTime` (`expireTime`);
 
 -- ----------------------------
 -- Table structure for user_team
@@ -92,10 +95,12 @@ CREATE TABLE `user_team`
     `updateTime` datetime            DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     `isDelete`   tinyint(4) NOT NULL DEFAULT '0' COMMENT '是否删除',
     PRIMARY KEY (`id`),
-    KEY `idx_userId` (`userId`),
+    UNIQUE KEY `uniq_userId_teamId` (`userId`, `teamId`),
     KEY `idx_teamId` (`teamId`)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4 COMMENT ='用户队伍关系表';
+-- 已有库升级：
+-- ALTER TABLE `user_team` DROP INDEX `idx_userId`, ADD UNIQUE KEY `uniq_userId_teamId` (`userId`, `teamId`);
 
 -- ----------------------------
 -- Table structure for tag_id_mapping
@@ -127,12 +132,13 @@ CREATE TABLE `user_recommend_feedback`
     `match_type`          VARCHAR(50) COMMENT '推荐时的匹配类型',
     `create_time`         DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time`         DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-    INDEX `idx_user_id` (`user_id`),
     INDEX `idx_recommended_user_id` (`recommended_user_id`),
-    INDEX `idx_user_feedback` (`user_id`, `recommended_user_id`),
-    UNIQUE KEY `uk_user_recommend` (`user_id`, `recommended_user_id`, `create_time`)
+    UNIQUE KEY `uk_user_recommend` (`user_id`, `recommended_user_id`)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4 COMMENT ='用户推荐反馈表';
+-- 已有库升级（同一用户对同一被推荐用户只保留一条反馈，先清理重复数据）：
+-- ALTER TABLE `user_recommend_feedback` DROP INDEX `idx_user_id`, DROP INDEX `idx_user_feedback`,
+--     DROP INDEX `uk_user_recommend`, ADD UNIQUE KEY `uk_user_recommend` (`user_id`, `recommended_user_id`);
 
 -- ----------------------------
 -- Insert predefined tags
@@ -0,0 +1,79 @@
+package com.samul.microde.cache;
+
+import com.samul.microde.model.domain.Team;
+import com.samul.microde.model.domain.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * 热点缓存序列化测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class HotCacheRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    private final HotCacheRedisSerializer binary = new HotCacheRedisSerializer(json, true);
+
+    @Test
+    void userRoundTrip() {
+        User user = sampleUser();
+        Assertions.assertEquals(user, binary.deserialize(binary.serialize(user)));
+    }
+
+    @Test
+    void teamRoundTripWithNulls() {
+        Team team = new Team();
+        team.setId(7L);
+        team.setName("队伍");
+        team.setMaxNum(5);
+        team.setStatus(0);
+        team.setExpireTime(new Date(1_800_000_000_000L));
+        Assertions.assertEquals(team, binary.deserialize(binary.serialize(team)));
+    }
+
+    @Test
+    void readsExistingJsonValues() {
+        User user = sampleUser();
+        byte[] legacy = json.serialize(user);
+        Assertions.assertEquals(user, binary.deserialize(legacy));
+        // 非 User/Team 仍写 JSON
+        Object list = binary.deserialize(binary.serialize(Collections.singletonList("a")));
+        Assertions.assertEquals(Collections.singletonList("a"), list);
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() {
+        User user = sampleUser();
+        int jsonSize = json.serialize(user).length;
+        int binarySize = binary.serialize(user).length;
+        Assertions.assertTrue(binarySize * 2 < jsonSize, "binary=" + binarySize + ", json=" + jsonSize);
+    }
+
+    @Test
+    void unknownVersionIsCacheMiss() {
+        byte[] bytes = binary.serialize(sampleUser());
+        bytes[2] = 99;
+        Assertions.assertNull(binary.deserialize(bytes));
+    }
+
+    private static User sampleUser() {
+        User user = new User();
+        user.setId(123456L);
+        user.setUsername("艾伦");
+        user.setUserAccount("samul");
+        user.setAvatarUrl("https://example.com/a.png");
+        user.setGender(1);
+        user.setTags("[\"Java\",\"Spring Boot\",\"Redis\"]");
+        user.setUserStatus(0);
+        user.setCreateTime(new Date(1_700_000_000_000L));
+        user.setUpdateTime(new Date(1_700_000_100_000L));
+        user.setIsDelete(0);
+        user.setUserRole(0);
+        user.setPlanetCode("1024");
+        return user;
+    }
+}
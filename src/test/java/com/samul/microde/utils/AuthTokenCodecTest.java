@@ -0,0 +1,65 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.model.dto.SessionPrincipal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 访问令牌编解码测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class AuthTokenCodecTest {
+
+    private final AuthTokenCodec codec = new AuthTokenCodec(
+            "microde-test-secret-0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void roundTrip() {
+        String token = codec.encode(principal(), 1000L, 5000L);
+        AuthTokenCodec.Claims claims = codec.decode(token, 2000L);
+        Assertions.assertNotNull(claims);
+        Assertions.assertEquals(42L, claims.getPrincipal().getId());
+        Assertions.assertEquals(1, claims.getPrincipal().getUserRole());
+        Assertions.assertEquals(0, claims.getPrincipal().getUserStatus());
+        Assertions.assertEquals(3L, claims.getPrincipal().getVersion());
+        Assertions.assertEquals(1000L, claims.getIssuedAt());
+        Assertions.assertEquals(5000L, claims.getExpireAt());
+    }
+
+    @Test
+    void rejectExpired() {
+        String token = codec.encode(principal(), 1000L, 5000L);
+        Assertions.assertNull(codec.decode(token, 5000L));
+    }
+
+    @Test
+    void rejectTampered() {
+        String token = codec.encode(principal(), 1000L, 5000L);
+        SessionPrincipal admin = principal();
+        admin.setUserRole(1);
+        admin.setId(1L);
+        String forgedPayload = codec.encode(admin, 1000L, 5000L).split("\\.")[0];
+        String forged = forgedPayload + token.substring(token.indexOf('.'));
+        Assertions.assertNull(codec.decode(forged, 2000L));
+        Assertions.assertNull(codec.decode("not-a-token", 2000L));
+        Assertions.assertNull(codec.decode(token + ".extra", 2000L));
+    }
+
+    @Test
+    void rejectOtherSecret() {
+        AuthTokenCodec other = new AuthTokenCodec(
+                "another-secret-another-secret-0123".getBytes(StandardCharsets.UTF_8));
+        String token = other.encode(principal(), 1000L, 5000L);
+        Assertions.assertNull(codec.decode(token, 2000L));
+    }
+
+    private SessionPrincipal principal() {
+        SessionPrincipal principal = new SessionPrincipal();
+        principal.setId(42L);
+        principal.setUserRole(1);
+        principal.setUserStatus(0);
+        principal.setVersion(3L);
+        return principal;
+    }
+}
@@ -0,0 +1,44 @@
+package com.samul.microde.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 布隆过滤器工具测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class BloomFilterUtilsTest {
+
+    @Test
+    void noFalseNegatives() {
+        byte[] bitmap = new byte[BloomFilterUtils.NUM_BITS / 8];
+        for (long id = 1; id <= 300; id++) {
+            BloomFilterUtils.put(bitmap, id);
+        }
+        for (long id = 1; id <= 300; id++) {
+            Assertions.assertTrue(BloomFilterUtils.mightContain(bitmap, id));
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysLow() {
+        byte[] bitmap = new byte[BloomFilterUtils.NUM_BITS / 8];
+        for (long id = 1; id <= 300; id++) {
+            BloomFilterUtils.put(bitmap, id);
+        }
+        int falsePositives = 0;
+        for (long id = 1_000_000; id < 1_010_000; id++) {
+            if (BloomFilterUtils.mightContain(bitmap, id)) {
+                falsePositives++;
+            }
+        }
+        Assertions.assertTrue(falsePositives < 100, "误判过多: " + falsePositives);
+    }
+
+    @Test
+    void emptyOrShortBitmapContainsNothing() {
+        Assertions.assertFalse(BloomFilterUtils.mightContain(null, 42L));
+        Assertions.assertFalse(BloomFilterUtils.mightContain(new byte[0], 42L));
+        // Redis 只会把位图扩展到最高的已置位字节，较短的位图中超出部分视为 0
+        Assertions.assertFalse(BloomFilterUtils.mightContain(new byte[]{(byte) 0xFF}, 42L));
+    }
+}
@@ -0,0 +1,28 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.exception.BusinessException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 游标编解码测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class CursorUtilsTest {
+
+    @Test
+    void roundTrip() {
+        Assertions.assertEquals(123456789L, CursorUtils.decode(CursorUtils.encode(123456789L)));
+    }
+
+    @Test
+    void blankCursorIsFirstPage() {
+        Assertions.assertNull(CursorUtils.decode(null));
+        Assertions.assertNull(CursorUtils.decode(""));
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        Assertions.assertThrows(BusinessException.class, () -> CursorUtils.decode("not-a-cursor"));
+        Assertions.assertThrows(BusinessException.class, () -> CursorUtils.decode("%%%"));
+    }
+}
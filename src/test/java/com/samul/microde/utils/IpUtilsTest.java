@@ -0,0 +1,62 @@
+package com.samul.microde.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 客户端IP解析测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class IpUtilsTest {
+
+    private static final List<String> TRUSTED = Arrays.asList("127.0.0.1", "10.0.0.0/8");
+
+    @Test
+    void ignoresProxyHeadersFromUntrustedClients() {
+        MockHttpServletRequest request = request("203.0.113.7", "1.2.3.4");
+        request.addHeader("X-Real-IP", "5.6.7.8");
+
+        Assertions.assertEquals("203.0.113.7", IpUtils.getClientIp(request, TRUSTED));
+        Assertions.assertEquals("203.0.113.7", IpUtils.getClientIp(request, Collections.emptyList()));
+    }
+
+    @Test
+    void takesRightmostUntrustedHopBehindTrustedProxies() {
+        // 客户端伪造的 1.2.3.4 在最左边，真实客户端 198.51.100.9 由第一级代理追加
+        MockHttpServletRequest request = request("127.0.0.1", "1.2.3.4, 198.51.100.9, 10.1.2.3");
+
+        Assertions.assertEquals("198.51.100.9", IpUtils.getClientIp(request, TRUSTED));
+    }
+
+    @Test
+    void fallsBackToRealIpHeaderThenRemoteAddr() {
+        MockHttpServletRequest request = request("10.0.0.5", null);
+        Assertions.assertEquals("10.0.0.5", IpUtils.getClientIp(request, TRUSTED));
+
+        request.addHeader("X-Real-IP", "198.51.100.9");
+        Assertions.assertEquals("198.51.100.9", IpUtils.getClientIp(request, TRUSTED));
+    }
+
+    @Test
+    void matchesCidrRanges() {
+        Assertions.assertTrue(IpUtils.isTrusted("10.255.0.1", TRUSTED));
+        Assertions.assertFalse(IpUtils.isTrusted("11.0.0.1", TRUSTED));
+        Assertions.assertTrue(IpUtils.isTrusted("172.20.1.1", Collections.singletonList("172.16.0.0/12")));
+        Assertions.assertFalse(IpUtils.isTrusted("172.32.0.1", Collections.singletonList("172.16.0.0/12")));
+        Assertions.assertTrue(IpUtils.isTrusted("0:0:0:0:0:0:0:1", Collections.singletonList("::1")));
+        Assertions.assertFalse(IpUtils.isTrusted("not-an-ip", Collections.singletonList("0.0.0.0/0")));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
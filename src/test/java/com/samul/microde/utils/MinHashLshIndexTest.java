@@ -0,0 +1,80 @@
+package com.samul.microde.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 相似度近似索引测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class MinHashLshIndexTest {
+
+    @Test
+    void identicalTagSetsAreAlwaysCandidates() {
+        UserTagProjection.Builder builder = UserTagProjection.builder();
+        for (long id = 1; id <= 1000; id++) {
+            builder.add(id, id % 10 == 0 ? Arrays.asList("Java", "后端") : Arrays.asList("tag" + id, "x" + id), 0);
+        }
+        UserTagProjection projection = builder.build();
+        MinHashLshIndex index = MinHashLshIndex.build(projection, 16, 2, 1L);
+
+        int[] candidates = index.candidates(Arrays.asList("后端", "Java"), 1000);
+        Assertions.assertEquals(100, candidates.length);
+        for (int candidate : candidates) {
+            Assertions.assertEquals(0, projection.id(candidate) % 10);
+        }
+    }
+
+    @Test
+    void candidatesAreSortedUniqueAndCapped() {
+        UserTagProjection.Builder builder = UserTagProjection.builder();
+        for (long id = 1; id <= 500; id++) {
+            builder.add(id, Arrays.asList("Java", "Go", id % 2 == 0 ? "Vue" : "React"), 0);
+        }
+        UserTagProjection projection = builder.build();
+        MinHashLshIndex index = MinHashLshIndex.build(projection, 8, 1, 1L);
+
+        int[] candidates = index.candidates(Arrays.asList("Java", "Go", "Vue"), 10000);
+        for (int i = 1; i < candidates.length; i++) {
+            Assertions.assertTrue(candidates[i - 1] < candidates[i]);
+        }
+        Assertions.assertEquals(50, index.candidates(Arrays.asList("Java", "Go", "Vue"), 50).length);
+        Assertions.assertEquals(0, index.candidates(Collections.emptyList(), 50).length);
+    }
+
+    @Test
+    void approximateRankingKeepsExactScores() {
+        UserTagProjection.Builder builder = UserTagProjection.builder();
+        List<String> pool = Arrays.asList("Java", "Go", "Vue", "React", "Python", "MySQL", "Redis", "前端", "后端");
+        for (long id = 1; id <= 2000; id++) {
+            builder.add(id, Arrays.asList(pool.get((int) (id % 9)), pool.get((int) (id / 9 % 9)),
+                    pool.get((int) (id / 81 % 9))), 0);
+        }
+        UserTagProjection projection = builder.build();
+        MinHashLshIndex index = MinHashLshIndex.build(projection, 16, 2, 1L);
+        List<String> selfTags = Arrays.asList("Java", "Go", "Redis");
+
+        Map<Long, Double> exact = PrecomputeRanker.rankBySimilarity(projection, 0L, selfTags, 2000);
+        Map<Long, Double> approximate = PrecomputeRanker.rankBySimilarity(projection, 0L, selfTags,
+                index.candidates(selfTags, 2000), 2000);
+        for (Map.Entry<Long, Double> entry : approximate.entrySet()) {
+            Assertions.assertEquals(exact.get(entry.getKey()), entry.getValue(), 1e-12);
+        }
+        // 标签完全相同（相似度 1）的用户一定被找到
+        exact.forEach((id, score) -> {
+            if (score == 1.0) {
+                Assertions.assertTrue(approximate.containsKey(id));
+            }
+        });
+    }
+
+    @Test
+    void candidateProbabilityFollowsBanding() {
+        Assertions.assertEquals(1 - Math.pow(0.75, 16), MinHashLshIndex.candidateProbability(0.5, 16, 2), 1e-12);
+        Assertions.assertEquals(0.0, MinHashLshIndex.candidateProbability(0.0, 16, 2), 1e-12);
+    }
+}
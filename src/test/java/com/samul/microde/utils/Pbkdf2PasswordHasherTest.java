@@ -0,0 +1,40 @@
+package com.samul.microde.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 密码哈希测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class Pbkdf2PasswordHasherTest {
+
+    private final Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher(1000, 16, 256);
+
+    @Test
+    void encodeAndMatch() {
+        String encoded = hasher.encode("12345678");
+        Assertions.assertTrue(encoded.startsWith("pbkdf2_sha256$1000$"));
+        Assertions.assertTrue(hasher.matches("12345678", encoded));
+        Assertions.assertFalse(hasher.matches("12345679", encoded));
+        // 每次使用不同的随机盐
+        Assertions.assertNotEquals(encoded, hasher.encode("12345678"));
+        Assertions.assertFalse(hasher.needsRehash(encoded));
+    }
+
+    @Test
+    void legacyMd5() {
+        String legacy = DigestUtils.md5DigestAsHex(("yupi" + "12345678").getBytes());
+        Assertions.assertTrue(hasher.matches("12345678", legacy));
+        Assertions.assertFalse(hasher.matches("12345679", legacy));
+        Assertions.assertTrue(hasher.needsRehash(legacy));
+    }
+
+    @Test
+    void rehashWhenIterationsChange() {
+        String encoded = new Pbkdf2PasswordHasher(500, 16, 256).encode("12345678");
+        Assertions.assertTrue(hasher.matches("12345678", encoded));
+        Assertions.assertTrue(hasher.needsRehash(encoded));
+        Assertions.assertFalse(hasher.matches("12345678", "pbkdf2_sha256$x$y$z"));
+    }
+}
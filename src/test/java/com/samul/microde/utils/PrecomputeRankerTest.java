@@ -0,0 +1,128 @@
+package com.samul.microde.utils;
+
+import com.google.gson.Gson;
+import com.samul.microde.model.domain.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 预计算打分内核测试：列式投影版本与基于 User 列表的版本结果一致（纯单元测试，不依赖 Spring 容器）
+ */
+public class PrecomputeRankerTest {
+
+    private static final List<String> TAG_POOL = Arrays.asList(
+            "Java", "Spring Boot", "React", "Vue", "Python", "Go", "前端", "后端",
+            "Android", "iOS", "Flutter", "Swift", "Django", "DevOps", "大一", "男");
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    void projectionMatchesUserListScores() {
+        List<User> users = randomUsers(500, new Random(42));
+        UserTagProjection projection = project(users);
+
+        for (int s = 0; s < 20; s++) {
+            User self = users.get(s * 7);
+            List<String> selfTags = TagScoreUtils.parseTags(self.getTags());
+            assertSameScores(PrecomputeRanker.rankBySimilarity(self.getId(), selfTags, users, users.size()),
+                    PrecomputeRanker.rankBySimilarity(projection, self.getId(), selfTags, users.size()));
+            assertSameScores(PrecomputeRanker.rankByComplement(self.getId(), selfTags, users, users.size()),
+                    PrecomputeRanker.rankByComplement(projection, self.getId(), selfTags, users.size()));
+        }
+    }
+
+    @Test
+    void selfTagsOutsideProjectionCountInUnion() {
+        UserTagProjection projection = UserTagProjection.builder()
+                .add(2L, Arrays.asList("Java", "Go"), 0)
+                .build();
+        List<String> selfTags = Arrays.asList("Java", "Rust");
+
+        Map<Long, Double> scores = PrecomputeRanker.rankBySimilarity(projection, 1L, selfTags, 10);
+        Assertions.assertEquals(TagScoreUtils.similarity(selfTags, Arrays.asList("Java", "Go")), scores.get(2L), 1e-12);
+    }
+
+    @Test
+    void keepsTopScoresAndSkipsBannedUsers() {
+        UserTagProjection projection = UserTagProjection.builder()
+                .add(5L, Arrays.asList("Java"), 0)
+                .add(3L, Arrays.asList("Java", "Go"), 0)
+                .add(4L, Arrays.asList("Java"), 1)
+                .add(1L, Arrays.asList("Java"), 0)
+                .build();
+
+        Map<Long, Double> top = PrecomputeRanker.rankBySimilarity(projection, 1L, Collections.singletonList("Java"), 2);
+        // 同分按用户ID升序，封禁用户（4）和自己（1）不参与
+        Assertions.assertEquals(Arrays.asList(5L, 3L), new ArrayList<>(top.keySet()));
+    }
+
+    @Test
+    void widensBitmapBeyondSixtyFourTags() {
+        UserTagProjection.Builder builder = UserTagProjection.builder();
+        for (long id = 1; id <= 100; id++) {
+            builder.add(id, Arrays.asList("tag" + id, "common"), 0);
+        }
+        UserTagProjection projection = builder.build();
+
+        Assertions.assertEquals(2, projection.words());
+        Assertions.assertEquals(Arrays.asList("common", "tag100"), projection.tagsOf(projection.indexOf(100L)));
+        Assertions.assertEquals(-1, projection.indexOf(101L));
+    }
+
+    @Test
+    void duplicateIdsKeepLastEntry() {
+        // HSCAN 可能重复返回同一用户
+        UserTagProjection projection = UserTagProjection.builder()
+                .add(3L, Arrays.asList("Java"), 0)
+                .add(1L, Arrays.asList("Go"), 0)
+                .add(3L, Arrays.asList("Java", "Go"), 1)
+                .add(2L, Arrays.asList("Java"), 0)
+                .build();
+
+        Assertions.assertEquals(3, projection.size());
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L),
+                Arrays.asList(projection.id(0), projection.id(1), projection.id(2)));
+        int index = projection.indexOf(3L);
+        Assertions.assertEquals(Arrays.asList("Java", "Go"), projection.tagsOf(index));
+        Assertions.assertEquals(1, projection.status(index));
+    }
+
+    private static UserTagProjection project(List<User> users) {
+        // 与 HSCAN 一样乱序追加
+        List<User> shuffled = new ArrayList<>(users);
+        Collections.shuffle(shuffled, new Random(7));
+        UserTagProjection.Builder builder = UserTagProjection.builder();
+        for (User user : shuffled) {
+            builder.add(user.getId(), TagScoreUtils.parseTags(user.getTags()), user.getUserStatus());
+        }
+        return builder.build();
+    }
+
+    private static List<User> randomUsers(int count, Random random) {
+        List<User> users = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            List<String> pool = new ArrayList<>(TAG_POOL);
+            Collections.shuffle(pool, random);
+            User user = new User();
+            user.setId(id);
+            user.setUserStatus(0);
+            user.setTags(GSON.toJson(pool.subList(0, random.nextInt(6))));
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static void assertSameScores(Map<Long, Double> expected, Map<Long, Double> actual) {
+        Assertions.assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), actual.get(entry.getKey()), 1e-12);
+        }
+    }
+}
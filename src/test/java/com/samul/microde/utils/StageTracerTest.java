@@ -0,0 +1,61 @@
+package com.samul.microde.utils;
+
+import com.samul.microde.model.dto.StageTrace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阶段耗时记录器测试（纯单元测试，不依赖 Spring 容器）
+ */
+public class StageTracerTest {
+
+    @AfterEach
+    void tearDown() {
+        StageTracer.end();
+    }
+
+    @Test
+    void inactiveThreadIgnoresRecords() {
+        StageTracer.record("score", 1000L);
+        StageTracer.count("users");
+        Assertions.assertFalse(StageTracer.isActive());
+        Assertions.assertNull(StageTracer.snapshot());
+        Assertions.assertEquals(0L, StageTracer.elapsedNanos());
+    }
+
+    @Test
+    void accumulatesStagesAndCounters() {
+        StageTracer.begin("POST /api/user/recommend/smart");
+        StageTracer.record("candidate", TimeUnit.MILLISECONDS.toNanos(3));
+        StageTracer.record("score", TimeUnit.MILLISECONDS.toNanos(5));
+        StageTracer.record("score", TimeUnit.MILLISECONDS.toNanos(2));
+        StageTracer.count("users");
+        StageTracer.count("users");
+        StageTracer.count("precompute-similarity");
+
+        StageTrace trace = StageTracer.snapshot();
+        Assertions.assertEquals("POST /api/user/recommend/smart", trace.getName());
+        Assertions.assertEquals(3.0, trace.getStages().get("candidate"));
+        Assertions.assertEquals(7.0, trace.getStages().get("score"));
+        Assertions.assertEquals(2, trace.getCounters().get("users"));
+        Assertions.assertEquals(1, trace.getCounters().get("precompute-similarity"));
+        Assertions.assertTrue(StageTracer.format(trace).contains("score=7.0ms"));
+        Assertions.assertTrue(StageTracer.toServerTiming(trace).startsWith("candidate;dur=3.0, score;dur=7.0"));
+    }
+
+    @Test
+    void beginResetsPreviousRequest() {
+        StageTracer.begin("GET /a");
+        StageTracer.record("score", 1000L);
+        StageTracer.count("users");
+        StageTracer.begin("GET /b");
+
+        StageTrace trace = StageTracer.snapshot();
+        Assertions.assertEquals("GET /b", trace.getName());
+        Assertions.assertTrue(trace.getStages().isEmpty());
+        Assertions.assertTrue(trace.getCounters().isEmpty());
+    }
+}